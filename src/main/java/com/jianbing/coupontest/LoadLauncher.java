@@ -0,0 +1,203 @@
+package com.jianbing.coupontest;
+
+import com.jianbing.coupontest.component.LiveMetrics;
+import com.jianbing.coupontest.config.EngineRedisKeys;
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.load.RedeemScenario;
+import com.jianbing.coupontest.load.jfr.JfrRecorder;
+import com.jianbing.coupontest.load.replay.RecordedWorkload;
+import com.jianbing.coupontest.load.replay.WorkloadLogReader;
+import com.jianbing.coupontest.load.replay.WorkloadLogWriter;
+import com.jianbing.coupontest.load.replay.WorkloadRecord;
+import com.jianbing.coupontest.load.replay.WorkloadReplayer;
+import com.jianbing.coupontest.utils.UserDataGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 压测快速启动入口
+ * 不启动 Web 容器，所有 Bean 懒加载：压测阶段只用到 EnvConfig + JDK HttpClient，
+ * 数据源、Lettuce、Redisson 只有在校验阶段真正用到时才会创建。
+ * <p>
+ * mvn spring-boot:run -Dspring-boot.run.main-class=com.jianbing.coupontest.LoadLauncher \
+ * -Dspring-boot.run.arguments="--templateId=xxx --users=2000 --threads=100 --verify=true"
+ * <p>
+ * --test-config.live.port=9464 开启实时指标端点 (GET /metrics，POST /stop 提前结束)
+ * <p>
+ * --warmup=N 预热 N 秒不计入结果，--steady=true 预热后继续等待吞吐/延迟稳定再开始统计 (校验仍覆盖全部成功用户)
+ * <p>
+ * --jfr=true 录制正式统计阶段的 JFR (target/jfr)，结束后打印热点方法 / 分配 / 停顿摘要
+ * <p>
+ * --record=path 把每个请求 (偏移量、接口、用户、模板) 写入工作负载日志；
+ * --replay=path --speed=1 按原时间间隔 (或倍速) 重放该日志，模板统一映射到 --templateId，
+ * 用户按出现顺序映射到新生成的用户ID (--remapUsers=false 保留原用户ID)
+ */
+@Slf4j
+public class LoadLauncher {
+
+    private static final String DEFAULT_SHOP_NUMBER = "1810714735922956666";
+
+    public static void main(String[] args) throws Exception {
+        long bootStart = System.nanoTime();
+        Map<String, String> options = parseOptions(args);
+
+        int exitCode;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CoupontestApplication.class)
+                .web(WebApplicationType.NONE)
+                .lazyInitialization(true)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties("spring.jmx.enabled=false")
+                .run(args)) {
+            log.info(">>> [LoadLauncher] 上下文就绪，耗时 {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - bootStart));
+            exitCode = options.containsKey("replay") ? runReplay(context, options) : runRedeem(context, options);
+        }
+        System.exit(exitCode);
+    }
+
+    private static int runRedeem(ConfigurableApplicationContext context, Map<String, String> options) throws InterruptedException {
+        String templateId = required(options, "templateId");
+        int users = Integer.parseInt(options.getOrDefault("users", "2000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "100"));
+        EnvConfig envConfig = context.getBean(EnvConfig.class);
+
+        // 阶段一：压测 (只需要引擎地址)
+        String[] userIds = UserDataGenerator.randomUserIds(users);
+        WorkloadLogWriter workloadLog = options.containsKey("record") ? new WorkloadLogWriter(Path.of(options.get("record"))) : null;
+        RedeemScenario scenario = new RedeemScenario(envConfig.getEngineUrl(), templateId,
+                options.getOrDefault("shopNumber", DEFAULT_SHOP_NUMBER), HttpSampler.withTimeoutMillis(envConfig.getTimeout()),
+                workloadLog);
+        Set<String> successUserIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger cursor = new AtomicInteger();
+        LoadEngine engine = new LoadEngine(LoadPlan.builder()
+                .name("LoadLauncher-redeem")
+                .threads(threads)
+                .rampUpSeconds(Integer.parseInt(options.getOrDefault("rampUp", "0")))
+                .loops(-1)
+                .warmupSeconds(Integer.parseInt(options.getOrDefault("warmup", "0")))
+                .waitForSteadyState(Boolean.parseBoolean(options.getOrDefault("steady", "false")))
+                .recordJfr(Boolean.parseBoolean(options.getOrDefault("jfr", String.valueOf(JfrRecorder.isRequested()))))
+                .build());
+        LiveMetrics liveMetrics = context.getBean(LiveMetrics.class);
+        if (liveMetrics.isEnabled()) {
+            // 只有开启实时指标时才在压测中读取 Redis
+            String stockKey = String.format(EngineRedisKeys.TEMPLATE_STOCK, templateId);
+            liveMetrics.watch(engine);
+            liveMetrics.gauge("coupontest_redis_stock_remaining", "Redis 剩余库存",
+                    () -> Double.parseDouble(context.getBean(StringRedisTemplate.class).opsForValue().get(stockKey)));
+            liveMetrics.gauge("coupontest_success_users", "抢券成功的用户数", successUserIds::size);
+        }
+        LoadMetrics metrics;
+        try {
+            metrics = engine.run((threadIndex, iteration) -> {
+                int index = cursor.getAndIncrement();
+                if (index >= userIds.length) {
+                    return null;
+                }
+                Outcome outcome = scenario.redeem(userIds[index]);
+                if (outcome.isSuccess()) {
+                    successUserIds.add(userIds[index]);
+                }
+                return outcome;
+            });
+        } finally {
+            // 压测异常退出时也要刷盘，已录制的部分仍可重放
+            if (workloadLog != null) {
+                workloadLog.close();
+                log.info(">>> [LoadLauncher] 已录制 {} 个请求到 {}", workloadLog.getCount(), workloadLog.getFile());
+            }
+        }
+        logResult(metrics);
+        return verify(context, options, templateId, successUserIds);
+    }
+
+    private static int runReplay(ConfigurableApplicationContext context, Map<String, String> options) throws InterruptedException {
+        String templateId = required(options, "templateId");
+        RecordedWorkload workload = WorkloadLogReader.read(Path.of(options.get("replay")));
+        EnvConfig envConfig = context.getBean(EnvConfig.class);
+
+        // 模板全部映射到本次的目标模板；用户按首次出现顺序一一映射，保持同一用户多次请求的关系
+        Map<String, String> userMapping = new LinkedHashMap<>();
+        if (Boolean.parseBoolean(options.getOrDefault("remapUsers", "true"))) {
+            for (WorkloadRecord record : workload.getRecords()) {
+                userMapping.putIfAbsent(record.userId(), null);
+            }
+            String[] freshUserIds = UserDataGenerator.randomUserIds(userMapping.size());
+            int next = 0;
+            for (Map.Entry<String, String> entry : userMapping.entrySet()) {
+                entry.setValue(freshUserIds[next++]);
+            }
+        }
+        WorkloadReplayer replayer = new WorkloadReplayer(envConfig.getEngineUrl(),
+                options.getOrDefault("shopNumber", DEFAULT_SHOP_NUMBER), HttpSampler.withTimeoutMillis(envConfig.getTimeout()),
+                recorded -> templateId, recorded -> userMapping.getOrDefault(recorded, recorded));
+        LoadMetrics metrics = replayer.replay("LoadLauncher-replay", workload,
+                Double.parseDouble(options.getOrDefault("speed", "1")),
+                Integer.parseInt(options.getOrDefault("threads", "100")));
+        logResult(metrics);
+        return verify(context, options, templateId, replayer.getSuccessUserIds());
+    }
+
+    private static void logResult(LoadMetrics metrics) {
+        log.info(">>> [LoadLauncher] {}", metrics.summary());
+        log.info(">>> [LoadLauncher] 响应分类统计：\n{}", metrics.getOutcomes().toTable());
+        if (metrics.getJfrFile() != null) {
+            log.info(">>> [LoadLauncher] JFR 摘要：\n{}", JfrRecorder.summarize(metrics.getJfrFile()));
+        }
+    }
+
+    private static int verify(ConfigurableApplicationContext context, Map<String, String> options, String templateId,
+                              Set<String> successUserIds) {
+        if (!Boolean.parseBoolean(options.getOrDefault("verify", "false"))) {
+            return 0;
+        }
+        // 阶段二：校验 (此时才创建 Redis 连接)
+        StringRedisTemplate redis = context.getBean(StringRedisTemplate.class);
+        long missing = successUserIds.stream()
+                .filter(uid -> !Boolean.TRUE.equals(redis.hasKey(String.format(EngineRedisKeys.USER_TEMPLATE_LIMIT, uid, templateId))))
+                .count();
+        log.info(">>> [LoadLauncher] 成功 {} 个，缺失 limit Key {} 个", successUserIds.size(), missing);
+        return missing == 0 ? 0 : 1;
+    }
+
+    /**
+     * 解析 --key=value 形式的参数 (同时也会作为 Spring 配置项传入)
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int split = arg.indexOf('=');
+                options.put(arg.substring(2, split), arg.substring(split + 1));
+            }
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("缺少参数 --" + name);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,89 @@
+package com.jianbing.coupontest.component;
+
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.LiveMetricsServer;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 实时指标端点的容器封装
+ * 配置了 test-config.live.port 时在首次使用时启动 LiveMetricsServer，未配置时所有方法为空操作
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LiveMetrics {
+
+    private final EnvConfig envConfig;
+    private LiveMetricsServer server;
+    private boolean startFailed;
+
+    public boolean isEnabled() {
+        return envConfig.getLive().getPort() > 0;
+    }
+
+    public void watch(LoadEngine engine) {
+        LiveMetricsServer live = server();
+        if (live != null) {
+            live.watch(engine);
+        }
+    }
+
+    public void watch(Supplier<LoadMetrics> metrics, IntSupplier inFlight, Runnable stopAction) {
+        LiveMetricsServer live = server();
+        if (live != null) {
+            live.watch(metrics, inFlight, stopAction);
+        }
+    }
+
+    public void unwatch() {
+        LiveMetricsServer live = server();
+        if (live != null) {
+            live.unwatch();
+        }
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value) {
+        LiveMetricsServer live = server();
+        if (live != null) {
+            live.gauge(name, help, value);
+        }
+    }
+
+    public void removeGauge(String name) {
+        LiveMetricsServer live = server();
+        if (live != null) {
+            live.removeGauge(name);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (server != null) {
+            server.close();
+            server = null;
+        }
+    }
+
+    private synchronized LiveMetricsServer server() {
+        if (server == null && !startFailed && isEnabled()) {
+            try {
+                server = new LiveMetricsServer(envConfig.getLive().getPort());
+            } catch (IOException e) {
+                // 端口被占用等情况只影响观测，不影响压测本身
+                log.warn(">>> [实时指标] 启动失败，端口 {}: {}", envConfig.getLive().getPort(), e.getMessage());
+                startFailed = true;
+            }
+        }
+        return server;
+    }
+}
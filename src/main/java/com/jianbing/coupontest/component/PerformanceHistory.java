@@ -0,0 +1,53 @@
+package com.jianbing.coupontest.component;
+
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.RegressionGate;
+import com.jianbing.coupontest.load.RunHistory;
+import com.jianbing.coupontest.load.RunRecord;
+import io.qameta.allure.Allure;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * 压测运行历史 + 回退门禁
+ * 每次压测结束后记录一条 RunRecord，并与同场景的滚动基线对比，结果写日志及 Allure 附件
+ */
+@Slf4j
+@Component
+public class PerformanceHistory {
+
+    private final EnvConfig.Regression config;
+    private final RunHistory history;
+    private final RegressionGate gate;
+
+    public PerformanceHistory(EnvConfig envConfig) {
+        this.config = envConfig.getRegression();
+        this.history = new RunHistory(Path.of(config.getHistoryFile()));
+        this.gate = new RegressionGate(config);
+    }
+
+    /**
+     * @param consistencyLagMillis 请求结束到数据全部可见的耗时，未测量传 -1
+     */
+    public RegressionGate.RegressionReport record(LoadMetrics metrics, long consistencyLagMillis) {
+        RunRecord current = RunRecord.of(config.getBuildVersion(), metrics, consistencyLagMillis);
+        RegressionGate.RegressionReport report = gate.evaluate(current, history.load(current.getScenario()));
+        // 人工接受，或连续回退后与新水平一致的运行，成为新基线的起点；它本身不算回退，否则会被后续基线排除
+        boolean accepted = config.isAcceptBaseline() || (report.isReadmitted() && !report.isRegressed());
+        current.setAccepted(accepted);
+        current.setRegressed(report.isRegressed() && !accepted);
+        history.append(current);
+
+        String text = report.describe();
+        if (report.isRegressed()) {
+            log.warn(">>> [回退门禁] 发现性能回退\n{}", text);
+        } else {
+            log.info(">>> [回退门禁] \n{}", text);
+        }
+        Allure.addAttachment(metrics.getScenario() + " - 基线对比", "text/plain", text, ".txt");
+        return report;
+    }
+}
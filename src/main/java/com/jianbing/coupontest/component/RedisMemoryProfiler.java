@@ -0,0 +1,71 @@
+package com.jianbing.coupontest.component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.options.KeysScanOptions;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Redis 内存占用采样器
+ * SCAN 统计某类 Key 的总数，蓄水池抽样部分 Key 执行 MEMORY USAGE，估算整个 Key 空间的内存占用
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisMemoryProfiler {
+
+    private static final int SCAN_COUNT = 1000;
+
+    private final RedissonClient redissonClient;
+
+    public KeyspaceFootprint profile(String pattern, int sampleSize) {
+        List<String> samples = new ArrayList<>(sampleSize);
+        long keyCount = 0;
+        // 蓄水池抽样：只扫一遍，内存只保留 sampleSize 个 Key
+        for (String key : redissonClient.getKeys().getKeys(KeysScanOptions.defaults().pattern(pattern).chunkSize(SCAN_COUNT))) {
+            keyCount++;
+            if (samples.size() < sampleSize) {
+                samples.add(key);
+            } else {
+                long slot = ThreadLocalRandom.current().nextLong(keyCount);
+                if (slot < sampleSize) {
+                    samples.set((int) slot, key);
+                }
+            }
+        }
+
+        long sampledBytes = 0;
+        int sampled = 0;
+        for (String key : samples) {
+            // MEMORY USAGE 包含 Key 本身及 Redis 对象头开销
+            long bytes = redissonClient.getBucket(key, StringCodec.INSTANCE).sizeInMemory();
+            if (bytes > 0) {
+                sampledBytes += bytes;
+                sampled++;
+            }
+        }
+        KeyspaceFootprint footprint = new KeyspaceFootprint(pattern, keyCount, sampled,
+                sampled == 0 ? 0 : (double) sampledBytes / sampled);
+        log.info(">>> [Redis内存] {}", footprint);
+        return footprint;
+    }
+
+    @Value
+    public static class KeyspaceFootprint {
+        String pattern;
+        long keyCount;
+        int sampledKeys;
+        double avgBytesPerKey;
+
+        public double estimatedTotalBytes() {
+            return avgBytesPerKey * keyCount;
+        }
+    }
+}
@@ -1,19 +1,68 @@
 package com.jianbing.coupontest.component;
 
+import com.jianbing.coupontest.config.EnvConfig;
 import io.qameta.allure.restassured.AllureRestAssured;
 import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.specification.RequestSpecification;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class RestClient {
+    private final EnvConfig envConfig;
+    private volatile SampledCaptureFilter sampledCaptureFilter;
+    private volatile RestAssuredConfig timeoutConfig;
+
     public RequestSpecification getRequest(){
+        if (envConfig.getReport().isLoadMode()) {
+            // 压测模式：不逐请求写 Allure 附件和完整日志，只采样 + 采集异常
+            return RestAssured.given()
+                    .spec(new RequestSpecBuilder()
+                            .setContentType("application/json")
+                            .setConfig(getTimeoutConfig())
+                            .addFilter(getSampledCaptureFilter())
+                            .build());
+        }
         return RestAssured.given()
                 .spec(new RequestSpecBuilder()
                         .setContentType("application/json")
+                        .setConfig(getTimeoutConfig())
                         .addFilter(new AllureRestAssured())
                         .build())
                 .log().all();
     }
+
+    /**
+     * 按 test-config.timeout 设置连接、读取及连接池等待超时，后端卡住时请求以 SocketTimeoutException 结束而不是无限等待。
+     * 读取超时针对两次数据包之间的间隔，持续慢速返回的响应不受其约束
+     */
+    public RestAssuredConfig getTimeoutConfig() {
+        if (timeoutConfig == null) {
+            int timeout = envConfig.getTimeout();
+            HttpClientConfig httpClientConfig = HttpClientConfig.httpClientConfig();
+            if (timeout > 0) {
+                httpClientConfig = httpClientConfig
+                        .setParam("http.connection.timeout", timeout)
+                        .setParam("http.socket.timeout", timeout)
+                        .setParam("http.connection-manager.timeout", (long) timeout);
+            }
+            timeoutConfig = RestAssuredConfig.config().httpClient(httpClientConfig);
+        }
+        return timeoutConfig;
+    }
+
+    public SampledCaptureFilter getSampledCaptureFilter() {
+        if (sampledCaptureFilter == null) {
+            synchronized (this) {
+                if (sampledCaptureFilter == null) {
+                    sampledCaptureFilter = new SampledCaptureFilter(envConfig.getReport());
+                }
+            }
+        }
+        return sampledCaptureFilter;
+    }
 }
@@ -0,0 +1,67 @@
+package com.jianbing.coupontest.component;
+
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.load.OutcomeCategory;
+import com.jianbing.coupontest.load.ResponseClassifier;
+import io.qameta.allure.Allure;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 压测模式下的请求采集过滤器
+ * 正常结果 (成功、库存不足、限领、限流、重复提交) 按比例采样，异常结果全部采集 (受上限保护)
+ */
+@Slf4j
+public class SampledCaptureFilter implements Filter {
+
+    private final EnvConfig.Report config;
+    private final AtomicInteger failureCaptured = new AtomicInteger();
+
+    public SampledCaptureFilter(EnvConfig.Report config) {
+        this.config = config;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        Outcome outcome = ResponseClassifier.classify(requestSpec.getUserDefinedPath(), response);
+        if (isUnexpected(outcome.getCategory())) {
+            if (failureCaptured.incrementAndGet() <= config.getMaxFailureCaptures()) {
+                capture("异常", requestSpec, response);
+            }
+        } else if (ThreadLocalRandom.current().nextDouble() < config.getSampleRate()) {
+            capture("采样", requestSpec, response);
+        }
+        return response;
+    }
+
+    public int getFailureCaptured() {
+        return failureCaptured.get();
+    }
+
+    private static boolean isUnexpected(OutcomeCategory category) {
+        return category == OutcomeCategory.SERVER_ERROR
+                || category == OutcomeCategory.CLIENT_ERROR
+                || category == OutcomeCategory.BUSINESS_ERROR;
+    }
+
+    private static void capture(String kind, FilterableRequestSpecification requestSpec, Response response) {
+        String request = requestSpec.getMethod() + " " + requestSpec.getURI() + System.lineSeparator()
+                + requestSpec.getHeaders() + System.lineSeparator()
+                + (requestSpec.getBody() == null ? "" : requestSpec.getBody().toString());
+        String body = response.asString();
+        log.info(">>> [{}请求] {} -> {} {}", kind, requestSpec.getURI(), response.statusCode(), body);
+        Allure.addAttachment(kind + "请求 " + requestSpec.getUserDefinedPath(), "text/plain", request, ".txt");
+        Allure.addAttachment(kind + "响应 " + response.statusCode(), "text/plain", body, ".txt");
+    }
+}
@@ -0,0 +1,94 @@
+package com.jianbing.coupontest.component;
+
+import com.jianbing.coupontest.config.ShardRoutingDataSource;
+import com.jianbing.coupontest.load.ShardHeatmap;
+import com.jianbing.coupontest.utils.ShardingUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测过程中定时采样各用户券分表的落库行数，生成分表写入热力图
+ * 一轮采样要对 32 张表各做一次 COUNT，默认每秒一轮 (实际间隔不短于一轮查询耗时)，单个守护线程执行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShardHeatmapSampler {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+
+    private final ShardRowCounter shardRowCounter;
+    private final ShardRoutingDataSource dataSource;
+
+    public Session start(String templateId) {
+        return start(templateId, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    public Session start(String templateId, long intervalMillis) {
+        Long template = Long.valueOf(templateId);
+        Session session = new Session(new ShardHeatmap(ShardingUtil.SHARDING_COUNT, dataSource.getDatabaseCount()));
+        Thread thread = new Thread(() -> {
+            long next = System.nanoTime();
+            while (session.running) {
+                try {
+                    long[] counts = shardRowCounter.countPerTable(template);
+                    session.heatmap.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - session.startNanos), counts);
+                } catch (Exception e) {
+                    // 单轮采样失败 (连接抖动) 只跳过该点
+                    log.debug("分表热力图采样失败: {}", e.getMessage());
+                }
+                next += TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+                long sleepNanos = next - System.nanoTime();
+                if (sleepNanos <= 0) {
+                    next = System.nanoTime();
+                    continue;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "shard-heatmap");
+        thread.setDaemon(true);
+        session.thread = thread;
+        thread.start();
+        log.info(">>> [分表热力图] 模板 {} 开始采样: 每 {}ms 一轮, {} 张表 / {} 个库", templateId, intervalMillis,
+                ShardingUtil.SHARDING_COUNT, dataSource.getDatabaseCount());
+        return session;
+    }
+
+    public static class Session implements AutoCloseable {
+
+        private final ShardHeatmap heatmap;
+        private final long startNanos = System.nanoTime();
+        private volatile boolean running = true;
+        private Thread thread;
+
+        private Session(ShardHeatmap heatmap) {
+            this.heatmap = heatmap;
+        }
+
+        public ShardHeatmap getHeatmap() {
+            return heatmap;
+        }
+
+        /**
+         * 停止采样并返回热力图 (采样线程完成当前一轮后退出)
+         */
+        public ShardHeatmap stop() throws InterruptedException {
+            running = false;
+            // 不中断采样线程，避免打断进行中的 JDBC 调用污染连接池
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            return heatmap;
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            stop();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.jianbing.coupontest.component;
+
+import com.jianbing.coupontest.dao.UserCouponShardDao;
+import com.jianbing.coupontest.dao.mapper.UserCouponMapper;
+import com.jianbing.coupontest.utils.ShardingUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 统计某张券在全部用户券分表中的落库数量 (每张表路由到其所在的库)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShardRowCounter {
+
+    private final UserCouponMapper userCouponMapper;
+    private final UserCouponShardDao userCouponShardDao;
+
+    /**
+     * @return 下标即分表序号 (t_user_coupon_0 ~ t_user_coupon_31)
+     * @throws IllegalStateException 任一分表查询失败 (不把失败的表当作 0 行，调用方应跳过这次采样或让用例失败)
+     */
+    public long[] countPerTable(Long templateId) {
+        long[] counts = new long[ShardingUtil.SHARDING_COUNT];
+        List<String> failedTables = new ArrayList<>();
+        Exception firstFailure = null;
+        for (int i = 0; i < ShardingUtil.SHARDING_COUNT; i++) {
+            String tableName = ShardingUtil.tableName(i);
+            try {
+                Long count = userCouponShardDao.onTable(i, table -> userCouponMapper.countByTableName(table, templateId));
+                counts[i] = count == null ? 0 : count;
+            } catch (Exception e) {
+                log.warn("查询表 {} 异常: {}", tableName, e.getMessage());
+                failedTables.add(tableName);
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            }
+        }
+        if (!failedTables.isEmpty()) {
+            throw new IllegalStateException("统计模板 " + templateId + " 落库数量失败，查询异常的分表: " + failedTables, firstFailure);
+        }
+        return counts;
+    }
+
+    /**
+     * @throws IllegalStateException 任一分表查询失败
+     */
+    public long countTotal(Long templateId) {
+        long total = 0;
+        for (long count : countPerTable(templateId)) {
+            total += count;
+        }
+        return total;
+    }
+}
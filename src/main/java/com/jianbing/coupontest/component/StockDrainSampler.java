@@ -0,0 +1,122 @@
+package com.jianbing.coupontest.component;
+
+import com.jianbing.coupontest.config.EngineRedisKeys;
+import com.jianbing.coupontest.load.StockDrainTimeline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测过程中高频采样库存扣减与落库进度
+ * Redis 库存 Key 读取开销很小，默认每 100ms 一次；全部分表 COUNT 较重，默认每 500ms 一轮 (实际间隔不短于一轮查询耗时)。
+ * 两路采样各用一个守护线程，互不阻塞
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockDrainSampler {
+
+    public static final long DEFAULT_STOCK_INTERVAL_MILLIS = 100;
+    public static final long DEFAULT_ROWS_INTERVAL_MILLIS = 500;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ShardRowCounter shardRowCounter;
+
+    public Session start(String templateId, long initialStock) {
+        return start(templateId, initialStock, DEFAULT_STOCK_INTERVAL_MILLIS, DEFAULT_ROWS_INTERVAL_MILLIS);
+    }
+
+    public Session start(String templateId, long initialStock, long stockIntervalMillis, long rowsIntervalMillis) {
+        String stockKey = String.format(EngineRedisKeys.TEMPLATE_STOCK, templateId);
+        Long template = Long.valueOf(templateId);
+        Session session = new Session(new StockDrainTimeline(initialStock));
+        session.startLoop("stock-drain-redis", stockIntervalMillis, offset -> {
+            String value = stringRedisTemplate.opsForValue().get(stockKey);
+            if (value != null) {
+                session.timeline.recordStock(offset, Long.parseLong(value));
+            }
+        });
+        session.startLoop("stock-drain-db", rowsIntervalMillis,
+                offset -> session.timeline.recordRows(offset, shardRowCounter.countTotal(template)));
+        log.info(">>> [库存采样] 模板 {} 开始采样: Redis 每 {}ms, 分表 每 {}ms", templateId, stockIntervalMillis, rowsIntervalMillis);
+        return session;
+    }
+
+    @FunctionalInterface
+    private interface Probe {
+        void sample(long offsetMillis);
+    }
+
+    public static class Session implements AutoCloseable {
+
+        private final StockDrainTimeline timeline;
+        private final long startNanos = System.nanoTime();
+        private volatile boolean running = true;
+        private final Thread[] threads = new Thread[2];
+        private int threadCount;
+
+        private Session(StockDrainTimeline timeline) {
+            this.timeline = timeline;
+        }
+
+        public StockDrainTimeline getTimeline() {
+            return timeline;
+        }
+
+        /**
+         * 停止采样并返回时间线 (采样线程完成当前一次采样后退出)
+         */
+        public StockDrainTimeline stop() throws InterruptedException {
+            running = false;
+            // 不中断采样线程，避免打断进行中的 JDBC / Redis 调用污染连接池
+            for (int i = 0; i < threadCount; i++) {
+                threads[i].join(TimeUnit.SECONDS.toMillis(5));
+            }
+            return timeline;
+        }
+
+        /**
+         * 供 try-with-resources 使用：断言失败提前退出时也停止采样线程，可与 stop() 重复调用
+         */
+        @Override
+        public void close() {
+            try {
+                stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void startLoop(String name, long intervalMillis, Probe probe) {
+            Thread thread = new Thread(() -> {
+                long next = System.nanoTime();
+                while (running) {
+                    try {
+                        probe.sample(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                    } catch (Exception e) {
+                        // 单次采样失败 (连接抖动) 只跳过该点
+                        log.debug("{} 采样失败: {}", name, e.getMessage());
+                    }
+                    next += TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+                    long sleepNanos = next - System.nanoTime();
+                    if (sleepNanos <= 0) {
+                        // 一次采样超过间隔时从当前时刻重新对齐，不补采
+                        next = System.nanoTime();
+                        continue;
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, name);
+            thread.setDaemon(true);
+            thread.start();
+            threads[threadCount++] = thread;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.jianbing.coupontest.component;
+
+import com.jianbing.coupontest.config.EngineRedisKeys;
+import com.jianbing.coupontest.dao.UserCouponShardDao;
+import com.jianbing.coupontest.dao.entity.UserCouponDO;
+import com.jianbing.coupontest.dao.mapper.CouponTemplateMapper;
+import com.jianbing.coupontest.dao.mapper.UserCouponMapper;
+import com.jianbing.coupontest.utils.ShardingUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 测试数据批量清理
+ * MySQL：每张分表一个任务并行执行 (路由到分表所在的库)，按主键顺序分批读取后按主键区间删除；
+ * Redis：SCAN 找出残留 Key，按批 UNLINK (后台线程释放内存，不阻塞 Redis 主线程)。
+ * 布隆过滤器不支持删除元素，无法清理，只能随过滤器整体重建
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TestDataCleaner {
+
+    private static final int DELETE_BATCH_SIZE = 5000;
+    private static final int UNLINK_BATCH_SIZE = 1000;
+    private static final int SCAN_COUNT = 1000;
+    private static final int CLEANUP_THREADS = Integer.getInteger("testdata.cleanupThreads", 8);
+
+    private final UserCouponMapper userCouponMapper;
+    private final CouponTemplateMapper couponTemplateMapper;
+    private final UserCouponShardDao userCouponShardDao;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TestDataRegistry testDataRegistry;
+
+    /**
+     * 清理历次运行登记文件中的数据
+     * 登记文件只删除已全部清理成功的部分：有模板清理失败时，文件改写为只含这些模板，下次运行继续清理。
+     * 当前运行的登记文件不清理，避免误删并行执行中的测试类数据
+     */
+    public CleanupResult cleanAllTagged() {
+        Set<String> templateIds = new HashSet<>();
+        List<Path> tagFiles = testDataRegistry.previousTagFiles();
+        for (Path tagFile : tagFiles) {
+            templateIds.addAll(TestDataRegistry.readTemplates(tagFile));
+        }
+        CleanupResult result = cleanTemplates(templateIds);
+        for (Path tagFile : tagFiles) {
+            Set<String> remaining = new LinkedHashSet<>(TestDataRegistry.readTemplates(tagFile));
+            remaining.retainAll(result.getFailedTemplates());
+            try {
+                if (remaining.isEmpty()) {
+                    Files.deleteIfExists(tagFile);
+                } else {
+                    TestDataRegistry.rewriteTemplates(tagFile, remaining);
+                    log.warn(">>> [数据清理] {} 个模板清理失败，保留在登记文件 {} 中", remaining.size(), tagFile);
+                }
+            } catch (IOException e) {
+                log.warn(">>> [数据清理] 更新登记文件 {} 失败: {}", tagFile, e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    public CleanupResult cleanTemplates(Collection<String> templateIds) {
+        long start = System.currentTimeMillis();
+        if (templateIds.isEmpty()) {
+            return new CleanupResult(0, 0, 0, 0, 0, Set.of());
+        }
+        List<Long> ids = templateIds.stream().map(Long::valueOf).toList();
+        Set<String> userIds = ConcurrentHashMap.newKeySet();
+        Set<String> failed = ConcurrentHashMap.newKeySet();
+        LongAdder rowsDeleted = new LongAdder();
+
+        // 1. 用户券分表：每张表一个任务
+        ExecutorService executor = Executors.newFixedThreadPool(CLEANUP_THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(ShardingUtil.SHARDING_COUNT);
+            for (int i = 0; i < ShardingUtil.SHARDING_COUNT; i++) {
+                int tableIndex = i;
+                futures.add(executor.submit(() -> {
+                    for (Long templateId : ids) {
+                        rowsDeleted.add(userCouponShardDao.onTable(tableIndex,
+                                tableName -> deleteUserCoupons(tableName, templateId, userIds, failed)));
+                    }
+                }));
+            }
+            waitAll(futures);
+        } finally {
+            executor.shutdown();
+        }
+
+        // 2. 模板分表
+        long templateRows = 0;
+        for (int i = 0; i < ShardingUtil.TEMPLATE_SHARDING_COUNT; i++) {
+            String tableName = ShardingUtil.templateTableName(i);
+            try {
+                templateRows += userCouponShardDao.onTemplateTable(i, table -> couponTemplateMapper.deleteByIds(table, ids));
+            } catch (Exception e) {
+                log.warn(">>> [数据清理] 删除模板表 {} 异常: {}", tableName, e.getMessage());
+                failed.addAll(templateIds);
+            }
+        }
+
+        // 3. Redis
+        long keysUnlinked = unlinkRedisKeys(templateIds, userIds);
+
+        CleanupResult result = new CleanupResult(templateIds.size(), rowsDeleted.sum(), templateRows, keysUnlinked,
+                System.currentTimeMillis() - start, Set.copyOf(failed));
+        log.info(">>> [数据清理] {}", result);
+        return result;
+    }
+
+    private long deleteUserCoupons(String tableName, Long templateId, Set<String> userIds, Set<String> failed) {
+        long deleted = 0;
+        long afterId = 0;
+        try {
+            while (true) {
+                List<UserCouponDO> batch = userCouponMapper.selectIdBatch(tableName, templateId, afterId, DELETE_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    return deleted;
+                }
+                for (UserCouponDO row : batch) {
+                    userIds.add(String.valueOf(row.getUserId()));
+                }
+                Long fromId = batch.get(0).getId();
+                Long toId = batch.get(batch.size() - 1).getId();
+                deleted += userCouponMapper.deleteByIdRange(tableName, templateId, fromId, toId);
+                afterId = toId;
+            }
+        } catch (Exception e) {
+            log.warn(">>> [数据清理] 清理表 {} 模板 {} 异常: {}", tableName, templateId, e.getMessage());
+            failed.add(String.valueOf(templateId));
+            return deleted;
+        }
+    }
+
+    private long unlinkRedisKeys(Collection<String> templateIds, Set<String> userIds) {
+        List<String> keys = new ArrayList<>();
+        for (String templateId : templateIds) {
+            keys.add(String.format(EngineRedisKeys.TEMPLATE_STOCK, templateId));
+            keys.add(String.format(EngineRedisKeys.TEMPLATE_CACHE, templateId));
+        }
+        // limit Key 形如 ...:{userId}_{templateId}，DB 中可能还没有对应记录 (MQ 未消费)，所以整体扫描一次
+        Set<String> templateSet = new HashSet<>(templateIds);
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(EngineRedisKeys.scanPattern(EngineRedisKeys.USER_TEMPLATE_LIMIT))
+                .count(SCAN_COUNT)
+                .build();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                int split = key.lastIndexOf('_');
+                if (split > 0 && templateSet.contains(key.substring(split + 1))) {
+                    keys.add(key);
+                    int colon = key.lastIndexOf(':', split);
+                    userIds.add(key.substring(colon + 1, split));
+                }
+            }
+        }
+        for (String userId : userIds) {
+            keys.add(String.format(EngineRedisKeys.USER_TEMPLATE_LIST, userId));
+        }
+
+        long unlinked = 0;
+        for (int from = 0; from < keys.size(); from += UNLINK_BATCH_SIZE) {
+            Long count = stringRedisTemplate.unlink(keys.subList(from, Math.min(from + UNLINK_BATCH_SIZE, keys.size())));
+            unlinked += count == null ? 0 : count;
+        }
+        return unlinked;
+    }
+
+    private static void waitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("数据清理被中断", e);
+            } catch (Exception e) {
+                throw new IllegalStateException("数据清理失败", e);
+            }
+        }
+    }
+
+    @Value
+    public static class CleanupResult {
+        int templates;
+        long userCouponRows;
+        long templateRows;
+        long redisKeys;
+        long elapsedMillis;
+        /**
+         * 有任一分表 / 模板表删除失败的模板，其登记会保留到下次运行
+         */
+        Set<String> failedTemplates;
+    }
+}
@@ -0,0 +1,113 @@
+package com.jianbing.coupontest.component;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.RandomUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 测试数据登记簿
+ * 每次运行生成一个 runId，本次创建的优惠券模板追加写入 .test-data/{runId}.tags，
+ * 即使进程中途退出，下次运行也能据此清理遗留数据。
+ * 用户不单独登记 (压测热路径不做额外 IO)，清理时从模板的落库记录及 limit Key 反查
+ */
+@Slf4j
+@Component
+public class TestDataRegistry {
+
+    public static final Path TAG_DIR = Path.of(System.getProperty("testdata.tagDir", ".test-data"));
+    private static final String TAG_SUFFIX = ".tags";
+    private static final String TEMPLATE_TAG = "T,";
+
+    private final String runId = DateUtil.format(new Date(), "yyyyMMddHHmmss") + "_" + RandomUtil.randomString(4);
+    private BufferedWriter writer;
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void registerTemplate(String templateId) {
+        if (templateId == null || templateId.isEmpty()) {
+            return;
+        }
+        registerTemplates(List.of(templateId));
+    }
+
+    /**
+     * 批量登记，只 flush 一次；压测中创建的模板应在计时结束后再批量登记
+     */
+    public synchronized void registerTemplates(Collection<String> templateIds) {
+        try {
+            if (writer == null) {
+                Files.createDirectories(TAG_DIR);
+                writer = Files.newBufferedWriter(TAG_DIR.resolve(runId + TAG_SUFFIX), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (String templateId : templateIds) {
+                if (templateId != null && !templateId.isEmpty()) {
+                    writer.write(TEMPLATE_TAG + templateId);
+                    writer.newLine();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            log.warn(">>> [测试数据] 登记模板 {} 失败: {}", templateIds, e.getMessage());
+        }
+    }
+
+    /**
+     * 当前目录下所有未清理的登记文件
+     */
+    public static List<Path> tagFiles() {
+        if (!Files.isDirectory(TAG_DIR)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(TAG_DIR)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(TAG_SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 除当前运行以外的登记文件
+     */
+    public List<Path> previousTagFiles() {
+        String current = runId + TAG_SUFFIX;
+        return tagFiles().stream().filter(file -> !file.getFileName().toString().equals(current)).toList();
+    }
+
+    /**
+     * 用给定的模板覆盖登记文件 (清理部分失败时只保留未清理干净的模板)
+     */
+    public static void rewriteTemplates(Path tagFile, Collection<String> templateIds) throws IOException {
+        List<String> lines = templateIds.stream().map(templateId -> TEMPLATE_TAG + templateId).toList();
+        Files.write(tagFile, lines, StandardCharsets.UTF_8);
+    }
+
+    public static Set<String> readTemplates(Path tagFile) {
+        Set<String> templateIds = new LinkedHashSet<>();
+        try (Stream<String> lines = Files.lines(tagFile, StandardCharsets.UTF_8)) {
+            lines.filter(line -> line.startsWith(TEMPLATE_TAG))
+                    .forEach(line -> templateIds.add(line.substring(TEMPLATE_TAG.length()).trim()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return templateIds;
+    }
+}
@@ -0,0 +1,42 @@
+package com.jianbing.coupontest.config;
+
+/**
+ * 引擎侧 Redis Key 格式 (需与后端 EngineRedisConstant 保持一致)
+ */
+public class EngineRedisKeys {
+
+    /**
+     * Redis 前缀配置 (framework.cache.redis.prefix)
+     */
+    public static final String PREFIX = System.getProperty("framework.cache.redis.prefix", "");
+
+    /**
+     * 用户领取次数，由 Lua 脚本写入：{userId}_{templateId}
+     */
+    public static final String USER_TEMPLATE_LIMIT = PREFIX + "one-coupon_engine:user-template-limit:%s_%s";
+
+    /**
+     * 用户已领取的券列表，由 MQ 消费者写入：{userId}
+     */
+    public static final String USER_TEMPLATE_LIST = PREFIX + "one-coupon_engine:user-template-list:%s";
+
+    /**
+     * 优惠券模板库存：{templateId}
+     */
+    public static final String TEMPLATE_STOCK = PREFIX + "one-coupon_engine:coupon_template:stock:%s";
+
+    /**
+     * 优惠券模板缓存：{templateId}
+     */
+    public static final String TEMPLATE_CACHE = PREFIX + "one-coupon_engine:template:%s";
+
+    private EngineRedisKeys() {
+    }
+
+    /**
+     * 将 Key 格式中的占位符替换为通配符，用于 SCAN
+     */
+    public static String scanPattern(String keyFormat) {
+        return keyFormat.replace("%s", "*");
+    }
+}
@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "test-config")
@@ -11,4 +14,113 @@ public class EnvConfig {
     private String merchantUrl;
     private String engineUrl;
     private int timeout;
+    private Report report = new Report();
+    private Sharding sharding = new Sharding();
+    private Regression regression = new Regression();
+    private Live live = new Live();
+
+    /**
+     * 报告采集配置
+     */
+    @Data
+    public static class Report {
+        /**
+         * 压测模式：关闭逐请求的 Allure 附件及请求日志，只保留采样与异常请求
+         */
+        private boolean loadMode = false;
+        /**
+         * 正常请求的采样比例 (0 ~ 1)
+         */
+        private double sampleRate = 0.001;
+        /**
+         * 异常请求最多采集条数，防止故障时附件数量失控
+         */
+        private int maxFailureCaptures = 500;
+    }
+
+    /**
+     * 实时指标端点
+     */
+    @Data
+    public static class Live {
+        /**
+         * Prometheus 指标端口 (只监听 127.0.0.1，远程抓取需经 SSH 隧道或本机代理)，0 表示不启动
+         */
+        private int port = 0;
+    }
+
+    /**
+     * 压测历史与性能回退门禁
+     */
+    @Data
+    public static class Regression {
+        /**
+         * 运行历史文件 (JSON Lines)
+         */
+        private String historyFile = ".perf-history/runs.jsonl";
+        /**
+         * 被测版本标识，CI 中传入构建号
+         */
+        private String buildVersion = "local";
+        /**
+         * 滚动基线取最近多少次未回退的运行
+         */
+        private int baselineRuns = 10;
+        /**
+         * 基线少于该次数时只记录不判定
+         */
+        private int minBaselineRuns = 3;
+        /**
+         * 显著性阈值：偏离基线均值超过多少个标准差
+         */
+        private double zThreshold = 3.0;
+        /**
+         * 吞吐下降超过该百分比 (且显著) 判定回退
+         */
+        private double maxThroughputDropPercent = 10;
+        /**
+         * p50 / p90 / p99 上升超过该百分比 (且显著) 判定回退
+         */
+        private double maxLatencyRisePercent = 20;
+        /**
+         * 错误率上升超过该百分点 (且显著) 判定回退
+         */
+        private double maxErrorRateRisePoints = 1.0;
+        /**
+         * 一致性延迟上升超过该百分比 (且显著) 判定回退
+         */
+        private double maxConsistencyLagRisePercent = 30;
+        /**
+         * 判定回退时是否让用例失败
+         */
+        private boolean failOnRegression = true;
+        /**
+         * 接受本次结果作为新基线 (确认性能变化是预期内的，例如新增了落库步骤)：
+         * 本次不判失败，之后的运行只与这次及其后的运行对比
+         */
+        private boolean acceptBaseline = false;
+        /**
+         * 最近连续多少次运行都被判定回退时，视为性能已稳定在新水平，改用这几次作为基线；0 表示不自动重置
+         */
+        private int readmitAfterRegressions = 5;
+    }
+
+    /**
+     * 分库配置，与后端 ShardingSphere 的库划分保持一致
+     */
+    @Data
+    public static class Sharding {
+        /**
+         * 各分库连接，下标即库序号 (one_coupon_0, one_coupon_1 ...)；
+         * 不配置时只连接 spring.datasource 一个库，所有分表都在该库中查询
+         */
+        private List<Database> databases = new ArrayList<>();
+    }
+
+    @Data
+    public static class Database {
+        private String url;
+        private String username;
+        private String password;
+    }
 }
@@ -0,0 +1,72 @@
+package com.jianbing.coupontest.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 分库路由数据源
+ * Mapper 不感知分库，调用前通过 {@link #on(int, Supplier)} 指定库序号，未指定时落到 0 库
+ */
+@Slf4j
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final List<DataSource> databases;
+
+    public ShardRoutingDataSource(List<DataSource> databases) {
+        this.databases = databases;
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < databases.size(); i++) {
+            targets.put(i, databases.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(databases.get(0));
+    }
+
+    public int getDatabaseCount() {
+        return databases.size();
+    }
+
+    /**
+     * 在指定分库上执行，结束后恢复调用前的路由
+     */
+    public static <T> T on(int databaseIndex, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(databaseIndex);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer databaseIndex = CURRENT.get();
+        return databaseIndex == null ? 0 : databaseIndex;
+    }
+
+    @Override
+    public void close() {
+        for (DataSource database : databases) {
+            if (database instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("关闭分库连接池异常: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
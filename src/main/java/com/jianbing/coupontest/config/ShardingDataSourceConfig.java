@@ -0,0 +1,37 @@
+package com.jianbing.coupontest.config;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按 test-config.sharding 为每个分库建立连接池，统一包装成路由数据源
+ */
+@Configuration
+public class ShardingDataSourceConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(EnvConfig envConfig, DataSourceProperties properties) {
+        List<EnvConfig.Database> configured = envConfig.getSharding().getDatabases();
+        List<DataSource> databases = new ArrayList<>();
+        if (configured.isEmpty()) {
+            databases.add(properties.initializeDataSourceBuilder().build());
+        }
+        for (EnvConfig.Database database : configured) {
+            databases.add(DataSourceBuilder.create()
+                    .driverClassName(properties.getDriverClassName())
+                    .url(database.getUrl())
+                    .username(database.getUsername())
+                    .password(database.getPassword())
+                    .build());
+        }
+        return new ShardRoutingDataSource(databases);
+    }
+}
@@ -0,0 +1,70 @@
+package com.jianbing.coupontest.dao;
+
+import com.jianbing.coupontest.config.ShardRoutingDataSource;
+import com.jianbing.coupontest.dao.entity.UserCouponDO;
+import com.jianbing.coupontest.dao.mapper.UserCouponMapper;
+import com.jianbing.coupontest.utils.ShardingUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 用户券分库分表查询
+ * 按后端规则由 userId 计算库与表：单个用户一次直接查询，多个用户先按分表分组再批量 IN 查询
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCouponShardDao {
+
+    private static final int IN_BATCH_SIZE = 1000;
+
+    private final UserCouponMapper userCouponMapper;
+    private final ShardRoutingDataSource dataSource;
+
+    /**
+     * 在用户券分表所在的库上执行，回调参数为表名
+     */
+    public <T> T onTable(int tableIndex, Function<String, T> action) {
+        int databaseIndex = ShardingUtil.databaseIndexOf(tableIndex, ShardingUtil.SHARDING_COUNT, dataSource.getDatabaseCount());
+        return ShardRoutingDataSource.on(databaseIndex, () -> action.apply(ShardingUtil.tableName(tableIndex)));
+    }
+
+    /**
+     * 在模板分表所在的库上执行，回调参数为表名
+     */
+    public <T> T onTemplateTable(int tableIndex, Function<String, T> action) {
+        int databaseIndex = ShardingUtil.databaseIndexOf(tableIndex, ShardingUtil.TEMPLATE_SHARDING_COUNT, dataSource.getDatabaseCount());
+        return ShardRoutingDataSource.on(databaseIndex, () -> action.apply(ShardingUtil.templateTableName(tableIndex)));
+    }
+
+    public List<UserCouponDO> findByUser(Long userId, Long templateId) {
+        return onTable(ShardingUtil.tableIndexOf(userId), table -> userCouponMapper.selectByUser(table, userId, templateId));
+    }
+
+    /**
+     * @return userId -> 该用户在此券下的记录，没有记录的用户不在结果中
+     */
+    public Map<Long, List<UserCouponDO>> findByUsers(Collection<Long> userIds, Long templateId) {
+        Map<Integer, List<Long>> byTable = new TreeMap<>();
+        for (Long userId : userIds) {
+            byTable.computeIfAbsent(ShardingUtil.tableIndexOf(userId), k -> new ArrayList<>()).add(userId);
+        }
+        Map<Long, List<UserCouponDO>> result = new HashMap<>();
+        byTable.forEach((tableIndex, ids) -> {
+            for (int from = 0; from < ids.size(); from += IN_BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + IN_BATCH_SIZE, ids.size()));
+                for (UserCouponDO row : onTable(tableIndex, table -> userCouponMapper.selectByUsers(table, templateId, batch))) {
+                    result.computeIfAbsent(row.getUserId(), k -> new ArrayList<>()).add(row);
+                }
+            }
+        });
+        return result;
+    }
+}
@@ -3,6 +3,10 @@ package com.jianbing.coupontest.dao.entity;
 import com.baomidou.mybatisplus.annotation.TableName;
 import lombok.Data;
 
+/**
+ * 用户券记录
+ * 表名固定为 0 表只是为了 BaseMapper 的通用方法可用，按用户/按分表查询请走 UserCouponShardDao
+ */
 @Data
 @TableName("t_user_coupon_0")
 public class UserCouponDO {
@@ -0,0 +1,16 @@
+package com.jianbing.coupontest.dao.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+
+@Mapper
+public interface CouponTemplateMapper {
+    @Delete({"<script>",
+            "DELETE FROM ${tableName} WHERE id IN",
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"})
+    int deleteByIds(@Param("tableName") String tableName, @Param("ids") Collection<Long> ids);
+}
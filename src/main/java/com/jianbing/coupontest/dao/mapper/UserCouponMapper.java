@@ -2,12 +2,47 @@ package com.jianbing.coupontest.dao.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.jianbing.coupontest.dao.entity.UserCouponDO;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper
 public interface UserCouponMapper extends BaseMapper<UserCouponDO> {
     @Select("SELECT count(*) FROM ${tableName} WHERE coupon_template_id = ${templateId}")
     Long countByTableName(@Param("tableName") String tableName,@Param("templateId") Long templateId);
+
+    /**
+     * 按主键顺序分批读取某张券的记录 (keyset 分页)
+     */
+    @Select("SELECT id, user_id, coupon_template_id FROM ${tableName} WHERE coupon_template_id = #{templateId} AND id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<UserCouponDO> selectIdBatch(@Param("tableName") String tableName, @Param("templateId") Long templateId,
+                                     @Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * 按主键区间删除某张券的记录
+     */
+    @Delete("DELETE FROM ${tableName} WHERE coupon_template_id = #{templateId} AND id BETWEEN #{fromId} AND #{toId}")
+    int deleteByIdRange(@Param("tableName") String tableName, @Param("templateId") Long templateId,
+                        @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * 单个用户在某张券下的记录 (调用方负责路由到正确的库与表)
+     */
+    @Select("SELECT id, user_id, coupon_template_id FROM ${tableName} WHERE user_id = #{userId} AND coupon_template_id = #{templateId}")
+    List<UserCouponDO> selectByUser(@Param("tableName") String tableName, @Param("userId") Long userId,
+                                    @Param("templateId") Long templateId);
+
+    /**
+     * 同一张分表内一批用户在某张券下的记录
+     */
+    @Select({"<script>",
+            "SELECT id, user_id, coupon_template_id FROM ${tableName} WHERE coupon_template_id = #{templateId} AND user_id IN",
+            "<foreach collection='userIds' item='userId' open='(' separator=',' close=')'>#{userId}</foreach>",
+            "</script>"})
+    List<UserCouponDO> selectByUsers(@Param("tableName") String tableName, @Param("templateId") Long templateId,
+                                     @Param("userIds") Collection<Long> userIds);
 }
@@ -0,0 +1,95 @@
+package com.jianbing.coupontest.load;
+
+import com.jianbing.coupontest.load.jfr.RequestEvent;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 压测专用的轻量 HTTP 发送器
+ * 基于 JDK HttpClient 复用长连接，不经过 RestAssured 过滤器链、Allure 切面和请求日志
+ */
+public class HttpSampler {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    /**
+     * 默认请求截止时间，与 test-config.timeout 默认值一致
+     */
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    /**
+     * JDK HttpClient 不允许手动设置的信息头 (由客户端自行维护)
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+
+    public HttpSampler() {
+        this(DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * @param requestTimeout 单个请求从发出到收到完整响应的截止时间，超时记为 TIMEOUT
+     */
+    public HttpSampler(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(CONNECT_TIMEOUT.compareTo(requestTimeout) < 0 ? CONNECT_TIMEOUT : requestTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * 由 test-config.timeout (毫秒) 创建，未配置时使用默认截止时间
+     */
+    public static HttpSampler withTimeoutMillis(int timeoutMillis) {
+        return new HttpSampler(timeoutMillis > 0 ? Duration.ofMillis(timeoutMillis) : DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public static HttpRequest jsonRequest(String method, String url, String body, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json;charset=UTF-8");
+        headers.forEach((name, value) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                builder.setHeader(name, value);
+            }
+        });
+        HttpRequest.BodyPublisher publisher = body == null || body.isEmpty()
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body);
+        return builder.method(method, publisher).build();
+    }
+
+    /**
+     * 发送请求并分类，网络异常归为 NETWORK_ERROR、超过截止时间归为 TIMEOUT，不向上抛出
+     * 请求自身未设置 timeout 时使用本发送器的截止时间
+     *
+     * @param endpoint 统计维度上的接口名
+     */
+    public Outcome send(HttpRequest request, String endpoint) throws InterruptedException {
+        if (request.timeout().isEmpty()) {
+            request = HttpRequest.newBuilder(request, (name, value) -> true).timeout(requestTimeout).build();
+        }
+        RequestEvent event = RequestEvent.start();
+        Outcome outcome;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            outcome = ResponseClassifier.classify(endpoint, response.statusCode(), response.body());
+        } catch (IOException e) {
+            outcome = ResponseClassifier.networkError(endpoint, e);
+        }
+        event.complete(outcome);
+        return outcome;
+    }
+}
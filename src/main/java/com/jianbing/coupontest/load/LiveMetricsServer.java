@@ -0,0 +1,193 @@
+package com.jianbing.coupontest.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 压测实时指标端点 (Prometheus 文本格式)
+ * 使用 JDK 自带 HttpServer，与 Spring 容器无关 (测试上下文为 MOCK Web 环境，LoadLauncher 不启动 Web 容器)。
+ * <p>
+ * 只监听本机回环地址：/stop 没有鉴权，不能暴露给网络上的其他机器。
+ * <p>
+ * GET  /metrics  完成速率、在途请求、最近窗口分位延迟、按错误码的累计结果及自定义指标 (消费进度、剩余库存等)
+ * POST /stop     提前结束当前压测
+ */
+@Slf4j
+public class LiveMetricsServer implements AutoCloseable {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final HttpServer server;
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private volatile Supplier<LoadMetrics> metrics;
+    private volatile IntSupplier inFlight;
+    private volatile Runnable stopAction;
+
+    public LiveMetricsServer(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/stop", this::handleStop);
+        server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "live-metrics");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        log.info(">>> [实时指标] http://127.0.0.1:{}/metrics 已启动，POST /stop 可提前结束压测", getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * 观测一个压测引擎 (预热切换后自动跟随正式指标)
+     */
+    public void watch(LoadEngine engine) {
+        watch(engine::getActiveMetrics, engine::getInFlight, engine::stop);
+    }
+
+    /**
+     * @param metrics    当前指标
+     * @param inFlight   在途请求数
+     * @param stopAction 收到 /stop 时执行
+     */
+    public void watch(Supplier<LoadMetrics> metrics, IntSupplier inFlight, Runnable stopAction) {
+        this.metrics = metrics;
+        this.inFlight = inFlight;
+        this.stopAction = stopAction;
+    }
+
+    /**
+     * 压测结束后解除观测，之后 /metrics 不再输出该压测的指标，/stop 返回 409
+     */
+    public void unwatch() {
+        this.stopAction = null;
+        this.inFlight = null;
+        this.metrics = null;
+    }
+
+    /**
+     * 注册自定义指标，例如 MQ 消费进度、Redis 剩余库存；同名覆盖
+     */
+    public void gauge(String name, String help, DoubleSupplier value) {
+        gauges.put(name, new Gauge(help, value));
+    }
+
+    public void removeGauge(String name) {
+        gauges.remove(name);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, CONTENT_TYPE, render());
+    }
+
+    private void handleStop(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "text/plain", "use POST\n");
+            return;
+        }
+        Runnable action = stopAction;
+        if (action == null) {
+            respond(exchange, 409, "text/plain", "no running load\n");
+            return;
+        }
+        log.warn(">>> [实时指标] 收到 /stop 请求，提前结束压测");
+        action.run();
+        respond(exchange, 200, "text/plain", "stopping\n");
+    }
+
+    String render() {
+        StringBuilder sb = new StringBuilder();
+        Supplier<LoadMetrics> source = metrics;
+        LoadMetrics current = source == null ? null : source.get();
+        if (current != null) {
+            String scenario = "scenario=\"" + escape(current.getScenario()) + "\"";
+            LatencyHistogram recent = current.getRecentLatency().snapshot();
+
+            header(sb, "coupontest_completion_rate", "gauge", "最近窗口内每秒完成 (收到响应或失败) 的请求数");
+            sample(sb, "coupontest_completion_rate", scenario, recent.getCount() / (double) current.getRecentLatency().getWindowSeconds());
+            header(sb, "coupontest_in_flight", "gauge", "已发出未返回的请求数");
+            sample(sb, "coupontest_in_flight", scenario, inFlight == null ? 0 : inFlight.getAsInt());
+            header(sb, "coupontest_latency_window_seconds", "gauge", "最近窗口的分位延迟 (秒)");
+            for (double quantile : QUANTILES) {
+                sample(sb, "coupontest_latency_window_seconds", scenario + ",quantile=\"" + quantile + "\"",
+                        recent.percentileMicros(quantile * 100) / 1e6);
+            }
+            header(sb, "coupontest_requests_total", "counter", "按接口 / HTTP 状态 / 错误码统计的累计请求数");
+            for (OutcomeCounters.OutcomeRow row : current.getOutcomes().rows()) {
+                sample(sb, "coupontest_requests_total", scenario
+                        + ",endpoint=\"" + escape(row.getEndpoint()) + "\""
+                        + ",status=\"" + row.getStatus() + "\""
+                        + ",code=\"" + escape(row.getCode()) + "\""
+                        + ",category=\"" + row.getCategory() + "\"", row.getCount());
+            }
+            header(sb, "coupontest_elapsed_seconds", "gauge", "压测已运行时间 (秒)");
+            sample(sb, "coupontest_elapsed_seconds", scenario, current.getElapsedMillis() / 1000.0);
+        }
+        gauges.forEach((name, gauge) -> {
+            double value;
+            try {
+                value = gauge.value().getAsDouble();
+            } catch (Exception e) {
+                // 外部数据源 (Redis 等) 暂时不可用时跳过该指标，不影响其他指标
+                log.debug("指标 {} 采集失败: {}", name, e.getMessage());
+                return;
+            }
+            header(sb, name, "gauge", gauge.help());
+            sample(sb, name, null, value);
+        });
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name);
+        if (labels != null) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ').append(value).append('\n');
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private record Gauge(String help, DoubleSupplier value) {
+    }
+}
@@ -0,0 +1,240 @@
+package com.jianbing.coupontest.load;
+
+import com.jianbing.coupontest.load.jfr.JfrRecorder;
+import com.jianbing.coupontest.load.jfr.PhaseEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内压测引擎
+ * 每个虚拟用户独占一个线程，所有线程在同一个发令枪 (CountDownLatch) 上等待，
+ * 按爬坡时间错峰启动后循环执行 LoadTask，结果统一写入 LoadMetrics。
+ * 配置了预热时，预热期 (及等待稳态期) 的请求写入单独的预热指标，进入稳态后才切换到正式指标；
+ * 请求按发出时所处的阶段归属，切换时仍在途的预热请求不会计入正式指标。
+ * 各阶段边界记为 JFR PhaseEvent；开启 recordJfr 时正式统计阶段单独录制一份 JFR
+ */
+@Slf4j
+public class LoadEngine {
+
+    private final LoadPlan plan;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile LoadMetrics active;
+    private volatile LoadMetrics warmupMetrics;
+    private volatile LoadMetrics measuredMetrics;
+    private volatile SteadyStateDetector detector;
+    private volatile RatePacer pacer;
+    private PhaseEvent phase;
+    private JfrRecorder recorder;
+
+    public LoadEngine(LoadPlan plan) {
+        this.plan = plan;
+    }
+
+    public LoadMetrics run(LoadTask task) throws InterruptedException {
+        int threads = plan.getThreads();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch end = new CountDownLatch(threads);
+        long rampNanos = TimeUnit.SECONDS.toNanos(plan.getRampUpSeconds());
+
+        if (plan.hasWarmup()) {
+            warmupMetrics = newMetrics(plan.getName() + "-warmup");
+            detector = plan.isWaitForSteadyState()
+                    ? new SteadyStateDetector(plan.getSteadyWindows(), plan.getSteadyTolerance()) : null;
+            active = warmupMetrics;
+            phase = PhaseEvent.start(plan.getName(), "warmup");
+        } else {
+            beginMeasurement();
+        }
+
+        for (int i = 0; i < threads; i++) {
+            int threadIndex = i;
+            long delayNanos = threads <= 1 ? 0 : rampNanos * i / threads;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    runWorker(task, threadIndex, delayNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    end.countDown();
+                }
+            }, "load-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        log.info(">>> [压测引擎] {} 启动: threads={}, rampUp={}s, loops={}, duration={}s, rate={}, warmup={}s, steadyState={}",
+                plan.getName(), threads, plan.getRampUpSeconds(), plan.getLoops(), plan.getDurationSeconds(),
+                plan.getTargetRate() > 0 ? plan.getTargetRate() + " req/s" : "unlimited",
+                plan.getWarmupSeconds(), plan.isWaitForSteadyState());
+        pacer = plan.getTargetRate() > 0 ? new RatePacer(plan.getTargetRate(), plan.isPoissonArrivals()) : null;
+        start.countDown();
+        Thread monitor = plan.hasWarmup() ? startWarmupMonitor(end) : null;
+        end.await();
+        if (monitor != null) {
+            monitor.interrupt();
+        }
+
+        finishPhase();
+        if (measuredMetrics == null) {
+            log.warn(">>> [压测引擎] {} 在预热/等待稳态期间就已结束，没有正式统计数据", plan.getName());
+            measuredMetrics = newMetrics(plan.getName());
+        }
+        measuredMetrics.setJfrFile(stopRecording());
+        if (warmupMetrics != null) {
+            warmupMetrics.markFinished();
+            log.info(">>> [压测引擎] {} 预热阶段(不计入结果): {}", plan.getName(), warmupMetrics.summary());
+        }
+        measuredMetrics.markFinished();
+        log.info(">>> [压测引擎] {} 结束: {}", plan.getName(), measuredMetrics.summary());
+        return measuredMetrics;
+    }
+
+    /**
+     * 提前结束压测，各线程完成当前请求后退出
+     */
+    public void stop() {
+        stopped.set(true);
+    }
+
+    public boolean isStopped() {
+        return stopped.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 预热阶段指标 (未配置预热时为 null)
+     */
+    public LoadMetrics getWarmupMetrics() {
+        return warmupMetrics;
+    }
+
+    /**
+     * 当前正在写入的指标 (预热期为预热指标)
+     */
+    public LoadMetrics getActiveMetrics() {
+        return active;
+    }
+
+    private Thread startWarmupMonitor(CountDownLatch end) {
+        Thread monitor = new Thread(() -> {
+            try {
+                if (plan.getWarmupSeconds() > 0) {
+                    if (end.await(plan.getWarmupSeconds(), TimeUnit.SECONDS)) {
+                        return;
+                    }
+                    log.info(">>> [压测引擎] {} 预热 {}s 结束", plan.getName(), plan.getWarmupSeconds());
+                }
+                if (detector != null) {
+                    awaitSteadyState(end);
+                }
+                beginMeasurement();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "load-warmup-monitor");
+        monitor.setDaemon(true);
+        monitor.start();
+        return monitor;
+    }
+
+    private void awaitSteadyState(CountDownLatch end) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(plan.getMaxSteadyWaitSeconds());
+        detector.rollWindow();
+        while (System.nanoTime() - deadline < 0) {
+            if (end.await(plan.getSteadyWindowSeconds(), TimeUnit.SECONDS)) {
+                return;
+            }
+            boolean steady = detector.rollWindow();
+            double[] window = detector.lastWindow();
+            log.info(">>> [压测引擎] {} 稳态检测: throughput={} req/s, p90={}ms, steady={}", plan.getName(),
+                    String.format("%.1f", window[0]), String.format("%.2f", window[1]), steady);
+            if (steady) {
+                return;
+            }
+        }
+        log.warn(">>> [压测引擎] {} {}s 内未达到稳态，直接开始统计，结果波动可能较大", plan.getName(),
+                plan.getMaxSteadyWaitSeconds());
+    }
+
+    private synchronized void beginMeasurement() {
+        finishPhase();
+        if (plan.isRecordJfr()) {
+            recorder = JfrRecorder.start(plan.getName());
+        }
+        measuredMetrics = newMetrics(plan.getName());
+        active = measuredMetrics;
+        detector = null;
+        phase = PhaseEvent.start(plan.getName(), "measured");
+        log.info(">>> [压测引擎] {} 开始正式统计", plan.getName());
+    }
+
+    private synchronized Path stopRecording() {
+        return recorder == null ? null : recorder.stop();
+    }
+
+    private synchronized void finishPhase() {
+        if (phase != null) {
+            phase.complete();
+            phase = null;
+        }
+    }
+
+    /**
+     * 时间线容量覆盖整个计划时长 (多留 1 分钟给收尾请求)
+     */
+    private LoadMetrics newMetrics(String name) {
+        return new LoadMetrics(name, System.currentTimeMillis(), plan.getDurationSeconds() + 60);
+    }
+
+    private void runWorker(LoadTask task, int threadIndex, long delayNanos) throws InterruptedException {
+        long begin = System.nanoTime();
+        if (delayNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        }
+        boolean timed = plan.getDurationSeconds() > 0;
+        long deadline = begin + TimeUnit.SECONDS.toNanos(plan.getDurationSeconds());
+        long loops = plan.getLoops();
+        for (long iteration = 0; loops < 0 || iteration < loops; iteration++) {
+            if (stopped.get() || (timed && System.nanoTime() - deadline >= 0)) {
+                return;
+            }
+            RatePacer ratePacer = pacer;
+            if (ratePacer != null) {
+                ratePacer.acquire();
+            }
+            // 发出时就确定归属的阶段：切换前发出、切换后才返回的预热请求仍记入预热指标
+            LoadMetrics target = active;
+            long sendAt = System.nanoTime();
+            Outcome outcome;
+            inFlight.incrementAndGet();
+            try {
+                outcome = task.execute(threadIndex, iteration);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                outcome = ResponseClassifier.taskError(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            if (outcome == null) {
+                return;
+            }
+            long endAt = System.nanoTime();
+            target.record(outcome, sendAt, endAt);
+            SteadyStateDetector steadyStateDetector = detector;
+            if (steadyStateDetector != null) {
+                steadyStateDetector.record(endAt - sendAt);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.jianbing.coupontest.load;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一次压测的全部指标：总体/分接口延迟直方图、最近窗口直方图、吞吐时间线、错误码统计
+ */
+@Getter
+public class LoadMetrics {
+
+    private static final int RECENT_WINDOW_SECONDS = 10;
+
+    private final String scenario;
+    private final long startMillis;
+    private volatile long finishMillis;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    /**
+     * 最近 10 秒的延迟分布，供实时观测使用
+     */
+    private final SlidingWindowHistogram recentLatency = new SlidingWindowHistogram(RECENT_WINDOW_SECONDS);
+    private final Map<String, LatencyHistogram> endpointLatency = new ConcurrentHashMap<>();
+    private final ThroughputTimeline timeline;
+    private final OutcomeCounters outcomes = new OutcomeCounters();
+    /**
+     * 本阶段的 JFR 录制文件，未录制时为 null
+     */
+    private volatile Path jfrFile;
+
+    public LoadMetrics(String scenario) {
+        this(scenario, System.currentTimeMillis());
+    }
+
+    /**
+     * @param startMillis 压测开始时刻，汇总多个进程的结果时取最早的开始时间
+     */
+    public LoadMetrics(String scenario, long startMillis) {
+        this(scenario, startMillis, ThroughputTimeline.DEFAULT_CAPACITY_SECONDS);
+    }
+
+    /**
+     * @param timelineSeconds 吞吐时间线容量 (秒)，长时间稳定性压测按计划时长放大，不足默认值时取默认值
+     */
+    public LoadMetrics(String scenario, long startMillis, long timelineSeconds) {
+        this.scenario = scenario;
+        this.startMillis = startMillis;
+        this.timeline = new ThroughputTimeline(System.nanoTime(),
+                (int) Math.max(timelineSeconds, ThroughputTimeline.DEFAULT_CAPACITY_SECONDS));
+    }
+
+    /**
+     * @param startNanos 请求发出时刻 (System.nanoTime)
+     * @param endNanos   收到响应时刻 (System.nanoTime)
+     */
+    public void record(Outcome outcome, long startNanos, long endNanos) {
+        long elapsed = endNanos - startNanos;
+        latency.record(elapsed);
+        recentLatency.record(endNanos, elapsed);
+        endpointLatency.computeIfAbsent(outcome.getEndpoint(), k -> new LatencyHistogram()).record(elapsed);
+        timeline.record(endNanos, outcome.isSuccess());
+        outcomes.record(outcome);
+    }
+
+    public void markFinished() {
+        markFinished(System.currentTimeMillis());
+    }
+
+    public void markFinished(long finishMillis) {
+        this.finishMillis = finishMillis;
+    }
+
+    public void setJfrFile(Path jfrFile) {
+        this.jfrFile = jfrFile;
+    }
+
+    public long getElapsedMillis() {
+        long end = finishMillis > 0 ? finishMillis : System.currentTimeMillis();
+        return Math.max(end - startMillis, 1);
+    }
+
+    /**
+     * 平均吞吐 (req/s)
+     */
+    public double getThroughput() {
+        return latency.getCount() * 1000.0 / getElapsedMillis();
+    }
+
+    public String summary() {
+        return String.format("[%s] total=%d, success=%d, elapsed=%dms, throughput=%.1f req/s, %s",
+                scenario, latency.getCount(), outcomes.count(OutcomeCategory.SUCCESS), getElapsedMillis(),
+                getThroughput(), latency.summary());
+    }
+}
@@ -0,0 +1,102 @@
+package com.jianbing.coupontest.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 压测计划 (线程数 / 爬坡 / 循环次数 / 持续时间)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadPlan {
+    /**
+     * 场景名称，用于报告分组
+     */
+    private String name;
+
+    /**
+     * 并发线程数
+     */
+    @Builder.Default
+    private int threads = 1;
+
+    /**
+     * 爬坡时间 (秒)，线程在该时间内均匀启动
+     */
+    @Builder.Default
+    private int rampUpSeconds = 0;
+
+    /**
+     * 每个线程的循环次数，-1 表示不限 (此时需配置 durationSeconds)
+     */
+    @Builder.Default
+    private long loops = 1;
+
+    /**
+     * 最长持续时间 (秒)，0 表示不限
+     */
+    @Builder.Default
+    private long durationSeconds = 0;
+
+    /**
+     * 全部线程合计的目标速率 (req/s)，0 表示不限速 (每个线程收到响应后立即发下一个)
+     */
+    @Builder.Default
+    private double targetRate = 0;
+
+    /**
+     * 限速时按泊松过程发压 (间隔服从指数分布)，模拟用户独立到达；false 为等间隔
+     */
+    @Builder.Default
+    private boolean poissonArrivals = false;
+
+    /**
+     * 预热时间 (秒)，期间的请求不计入结果 (含在 durationSeconds 内)
+     */
+    @Builder.Default
+    private int warmupSeconds = 0;
+
+    /**
+     * 预热结束后是否继续等待稳态 (吞吐与延迟连续多个窗口波动在容差内) 才开始正式统计
+     */
+    @Builder.Default
+    private boolean waitForSteadyState = false;
+
+    /**
+     * 稳态检测窗口 (秒)
+     */
+    @Builder.Default
+    private int steadyWindowSeconds = 5;
+
+    /**
+     * 连续多少个窗口满足容差视为稳态
+     */
+    @Builder.Default
+    private int steadyWindows = 3;
+
+    /**
+     * 稳态容差：窗口间 (最大值 - 最小值) / 平均值 的上限
+     */
+    @Builder.Default
+    private double steadyTolerance = 0.1;
+
+    /**
+     * 等待稳态的最长时间 (秒)，超时后直接开始统计并告警
+     */
+    @Builder.Default
+    private int maxSteadyWaitSeconds = 60;
+
+    /**
+     * 正式统计阶段是否录制 JFR (-Dload.jfr=true 时默认开启)，录制文件与摘要随 LoadReport 附加
+     */
+    @Builder.Default
+    private boolean recordJfr = Boolean.getBoolean("load.jfr");
+
+    public boolean hasWarmup() {
+        return warmupSeconds > 0 || waitForSteadyState;
+    }
+}
@@ -0,0 +1,38 @@
+package com.jianbing.coupontest.load;
+
+import com.jianbing.coupontest.load.jfr.JfrRecorder;
+import io.qameta.allure.Allure;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+/**
+ * 压测结果汇总报告
+ * 压测模式下不再逐请求生成 Allure 附件，而是在阶段结束时附加聚合产物
+ */
+@Slf4j
+public class LoadReport {
+
+    private LoadReport() {
+    }
+
+    public static void attach(LoadMetrics metrics) {
+        metrics.markFinished();
+        String scenario = metrics.getScenario();
+        log.info(">>> [压测报告] {}", metrics.summary());
+        log.info(">>> [压测报告] 响应分类统计：\n{}", metrics.getOutcomes().toTable());
+
+        StringBuilder latency = new StringBuilder("overall: ").append(metrics.getLatency().toText());
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.getEndpointLatency().entrySet()) {
+            latency.append(System.lineSeparator()).append(entry.getKey()).append(": ")
+                    .append(entry.getValue().toText());
+        }
+        Allure.addAttachment(scenario + " - 汇总", "text/plain", metrics.summary(), ".txt");
+        Allure.addAttachment(scenario + " - 延迟分布", "text/plain", latency.toString(), ".txt");
+        Allure.addAttachment(scenario + " - 吞吐时间线", "text/csv", metrics.getTimeline().toCsv(), ".csv");
+        Allure.addAttachment(scenario + " - 错误码统计", "text/plain", metrics.getOutcomes().toTable(), ".txt");
+        if (metrics.getJfrFile() != null) {
+            JfrRecorder.attach(scenario, metrics.getJfrFile());
+        }
+    }
+}
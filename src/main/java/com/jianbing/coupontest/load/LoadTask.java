@@ -0,0 +1,15 @@
+package com.jianbing.coupontest.load;
+
+/**
+ * 压测引擎中单个虚拟用户的一次迭代
+ */
+@FunctionalInterface
+public interface LoadTask {
+
+    /**
+     * @param threadIndex 线程序号 (0 ~ threads-1)
+     * @param iteration   当前线程的迭代序号
+     * @return 请求分类结果；返回 null 表示该线程已无数据可发 (例如 CSV 读完且不循环)，线程随即退出
+     */
+    Outcome execute(int threadIndex, long iteration) throws Exception;
+}
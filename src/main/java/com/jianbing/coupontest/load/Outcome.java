@@ -0,0 +1,35 @@
+package com.jianbing.coupontest.load;
+
+import lombok.Value;
+
+/**
+ * 单次请求的分类结果
+ */
+@Value
+public class Outcome {
+    /**
+     * 接口路径，用于按接口分组统计
+     */
+    String endpoint;
+    /**
+     * HTTP 状态码，未拿到响应时为 -1
+     */
+    int status;
+    /**
+     * 响应体中的 code 字段
+     */
+    String code;
+    /**
+     * 响应体中的 message 字段
+     */
+    String message;
+    OutcomeCategory category;
+    /**
+     * 原始响应体，仅用于采集样例，统计完成后即可丢弃
+     */
+    String body;
+
+    public boolean isSuccess() {
+        return category == OutcomeCategory.SUCCESS;
+    }
+}
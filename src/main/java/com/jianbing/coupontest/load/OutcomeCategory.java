@@ -0,0 +1,51 @@
+package com.jianbing.coupontest.load;
+
+/**
+ * 压测响应结果分类
+ */
+public enum OutcomeCategory {
+    /**
+     * 业务成功 (HTTP 200 且 code = 0)
+     */
+    SUCCESS,
+    /**
+     * 库存已领完
+     */
+    STOCK_EMPTY,
+    /**
+     * 用户达到领取上限
+     */
+    USER_LIMIT,
+    /**
+     * 被限流 (HTTP 429 或限流提示)
+     */
+    RATE_LIMITED,
+    /**
+     * 被防重复提交拦截
+     */
+    DUPLICATE,
+    /**
+     * 其他业务失败
+     */
+    BUSINESS_ERROR,
+    /**
+     * 4xx 客户端错误
+     */
+    CLIENT_ERROR,
+    /**
+     * 5xx 服务端错误
+     */
+    SERVER_ERROR,
+    /**
+     * 连接失败等未拿到响应的情况
+     */
+    NETWORK_ERROR,
+    /**
+     * 超过请求截止时间未拿到完整响应
+     */
+    TIMEOUT,
+    /**
+     * 压测任务自身抛出异常 (脚本 / 数据问题，请求可能根本没有发出)
+     */
+    TASK_ERROR
+}
@@ -0,0 +1,172 @@
+package com.jianbing.coupontest.load;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 接口 + HTTP状态 + 错误码 维度统计请求结果
+ * 计数使用 LongAdder (分段计数，高并发下无 CAS 争抢)，并为每个错误码保留少量响应样例
+ */
+public class OutcomeCounters {
+
+    private static final int DEFAULT_EXEMPLARS_PER_CODE = 3;
+    private static final int EXEMPLAR_MAX_LENGTH = 512;
+
+    private final int exemplarsPerCode;
+    private final ConcurrentHashMap<OutcomeKey, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ExemplarSlot> exemplars = new ConcurrentHashMap<>();
+
+    public OutcomeCounters() {
+        this(DEFAULT_EXEMPLARS_PER_CODE);
+    }
+
+    public OutcomeCounters(int exemplarsPerCode) {
+        this.exemplarsPerCode = exemplarsPerCode;
+    }
+
+    public void record(Outcome outcome) {
+        OutcomeKey key = new OutcomeKey(outcome.getEndpoint(), outcome.getStatus(), outcome.getCode(), outcome.getCategory());
+        counters.computeIfAbsent(key, k -> new LongAdder()).increment();
+        if (!outcome.isSuccess() && outcome.getBody() != null) {
+            exemplars.computeIfAbsent(exemplarKey(outcome), k -> new ExemplarSlot(exemplarsPerCode))
+                    .offer(outcome.getBody());
+        }
+    }
+
+    /**
+     * 累加一行已汇总的计数 (例如其他进程上报的结果)
+     */
+    public void add(String endpoint, int status, String code, OutcomeCategory category, long count) {
+        counters.computeIfAbsent(new OutcomeKey(endpoint, status, code, category), k -> new LongAdder()).add(count);
+    }
+
+    /**
+     * 补充一条响应样例，该错误码样例已满时忽略
+     */
+    public void addExemplar(String code, String body) {
+        exemplars.computeIfAbsent(code, k -> new ExemplarSlot(exemplarsPerCode)).offer(body);
+    }
+
+    public void merge(OutcomeCounters other) {
+        for (OutcomeRow row : other.rows()) {
+            add(row.getEndpoint(), row.getStatus(), row.getCode(), row.getCategory(), row.getCount());
+        }
+        other.exemplars().forEach((code, bodies) -> bodies.forEach(body -> addExemplar(code, body)));
+    }
+
+    public long total() {
+        long total = 0;
+        for (LongAdder adder : counters.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    public long count(OutcomeCategory category) {
+        long total = 0;
+        for (Map.Entry<OutcomeKey, LongAdder> entry : counters.entrySet()) {
+            if (entry.getKey().category() == category) {
+                total += entry.getValue().sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 当前统计快照，按数量倒序
+     */
+    public List<OutcomeRow> rows() {
+        List<OutcomeRow> rows = new ArrayList<>(counters.size());
+        counters.forEach((key, adder) -> rows.add(
+                new OutcomeRow(key.endpoint(), key.status(), key.code(), key.category(), adder.sum())));
+        rows.sort(Comparator.comparingLong(OutcomeRow::getCount).reversed());
+        return rows;
+    }
+
+    /**
+     * 错误码 -> 响应样例
+     */
+    public Map<String, List<String>> exemplars() {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        exemplars.forEach((code, slot) -> result.put(code, slot.values()));
+        return result;
+    }
+
+    /**
+     * 文本表格，用于日志及报告附件
+     */
+    public String toTable() {
+        long total = Math.max(total(), 1);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-45s %6s %-10s %-15s %10s %8s%n", "endpoint", "status", "code", "category", "count", "ratio"));
+        for (OutcomeRow row : rows()) {
+            sb.append(String.format("%-45s %6d %-10s %-15s %10d %7.2f%%%n", row.getEndpoint(), row.getStatus(),
+                    row.getCode(), row.getCategory(), row.getCount(), row.getCount() * 100.0 / total));
+        }
+        Map<String, List<String>> samples = exemplars();
+        if (!samples.isEmpty()) {
+            sb.append(System.lineSeparator()).append("exemplars:").append(System.lineSeparator());
+            samples.forEach((code, bodies) -> bodies.forEach(body ->
+                    sb.append("  [").append(code).append("] ").append(body).append(System.lineSeparator())));
+        }
+        return sb.toString();
+    }
+
+    private static String exemplarKey(Outcome outcome) {
+        return outcome.getCode() != null ? outcome.getCode() : "HTTP_" + outcome.getStatus();
+    }
+
+    private record OutcomeKey(String endpoint, int status, String code, OutcomeCategory category) {
+    }
+
+    @Value
+    public static class OutcomeRow {
+        String endpoint;
+        int status;
+        String code;
+        OutcomeCategory category;
+        long count;
+    }
+
+    /**
+     * 固定容量的样例槽，写满后只剩一次 volatile 读
+     */
+    private static class ExemplarSlot {
+        private final AtomicReferenceArray<String> values;
+        private final AtomicInteger filled = new AtomicInteger();
+
+        ExemplarSlot(int capacity) {
+            this.values = new AtomicReferenceArray<>(capacity);
+        }
+
+        void offer(String body) {
+            if (filled.get() >= values.length()) {
+                return;
+            }
+            int index = filled.getAndIncrement();
+            if (index < values.length()) {
+                values.set(index, body.length() > EXEMPLAR_MAX_LENGTH ? body.substring(0, EXEMPLAR_MAX_LENGTH) : body);
+            }
+        }
+
+        List<String> values() {
+            List<String> list = new ArrayList<>(values.length());
+            for (int i = 0; i < values.length(); i++) {
+                String value = values.get(i);
+                if (value != null) {
+                    list.add(value);
+                }
+            }
+            return list;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.jianbing.coupontest.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 落库进度曲线：按固定间隔记录 (时间, 累计行数)，计算首行时间、完成时间、各时段速率与尾部降速
+ * 所有时间均为相对起点 (originMillis，例如任务提交时刻或定时发送时刻) 的毫秒数
+ */
+public class ProgressCurve {
+
+    private final long originMillis;
+    private final long expectedRows;
+    private final List<long[]> points = new ArrayList<>();
+    private long firstRowMillis = -1;
+    private long completedMillis = -1;
+
+    public ProgressCurve(long originMillis, long expectedRows) {
+        this.originMillis = originMillis;
+        this.expectedRows = expectedRows;
+    }
+
+    public synchronized void sample(long nowMillis, long rows) {
+        long offset = nowMillis - originMillis;
+        points.add(new long[]{offset, rows});
+        if (firstRowMillis < 0 && rows > 0) {
+            firstRowMillis = offset;
+        }
+        if (completedMillis < 0 && rows >= expectedRows) {
+            completedMillis = offset;
+        }
+    }
+
+    public synchronized boolean isCompleted() {
+        return completedMillis >= 0;
+    }
+
+    public synchronized long lastRows() {
+        return points.isEmpty() ? 0 : points.get(points.size() - 1)[1];
+    }
+
+    public long getExpectedRows() {
+        return expectedRows;
+    }
+
+    /**
+     * 首行落库时间，未落库返回 -1
+     */
+    public synchronized long getFirstRowMillis() {
+        return firstRowMillis;
+    }
+
+    /**
+     * 全部落库时间，未完成返回 -1
+     */
+    public synchronized long getCompletedMillis() {
+        return completedMillis;
+    }
+
+    /**
+     * 首行到完成期间的平均速率 (rows/s)
+     */
+    public synchronized double averageRowsPerSecond() {
+        if (firstRowMillis < 0) {
+            return 0;
+        }
+        long end = completedMillis >= 0 ? completedMillis : points.get(points.size() - 1)[0];
+        return end <= firstRowMillis ? 0 : lastRows() * 1000.0 / (end - firstRowMillis);
+    }
+
+    /**
+     * 尾部降速系数：最后 10% 行数的耗时速率相对整体平均速率的比值，越小说明尾部越慢
+     */
+    public synchronized double tailSlowdown() {
+        if (!isCompleted() || expectedRows <= 0) {
+            return 0;
+        }
+        long tailStartRows = expectedRows - Math.max(expectedRows / 10, 1);
+        long tailStartMillis = -1;
+        for (long[] point : points) {
+            if (point[1] >= tailStartRows) {
+                tailStartMillis = point[0];
+                break;
+            }
+        }
+        long tailMillis = completedMillis - tailStartMillis;
+        double average = averageRowsPerSecond();
+        if (tailMillis <= 0 || average == 0) {
+            return 1;
+        }
+        double tailRate = (expectedRows - tailStartRows) * 1000.0 / tailMillis;
+        return tailRate / average;
+    }
+
+    /**
+     * offset(ms), rows, rows/s (相邻采样点间速率)
+     */
+    public synchronized String toCsv() {
+        StringBuilder sb = new StringBuilder("offsetMillis,rows,rowsPerSecond").append(System.lineSeparator());
+        long[] previous = null;
+        for (long[] point : points) {
+            double rate = previous == null || point[0] == previous[0] ? 0
+                    : (point[1] - previous[1]) * 1000.0 / (point[0] - previous[0]);
+            sb.append(point[0]).append(',').append(point[1]).append(',').append(String.format("%.1f", rate))
+                    .append(System.lineSeparator());
+            previous = point;
+        }
+        return sb.toString();
+    }
+
+    public synchronized String summary() {
+        return String.format("expected=%d, rows=%d, firstRow=%dms, completed=%dms, avg=%.1f rows/s, tailSlowdown=%.2f",
+                expectedRows, lastRows(), firstRowMillis, completedMillis, averageRowsPerSecond(), tailSlowdown());
+    }
+}
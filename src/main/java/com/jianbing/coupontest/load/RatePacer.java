@@ -0,0 +1,52 @@
+package com.jianbing.coupontest.load;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 匀速发压节拍器
+ * 所有线程共享一条时间轴，每次 acquire 领取下一个发送时刻并睡到该时刻；
+ * 落后超过一秒时丢弃欠账，避免恢复后瞬间补发造成的人为突刺。
+ * 泊松模式下间隔服从指数分布，平均速率不变，但会出现真实用户到达时的自然扎堆
+ */
+public class RatePacer {
+
+    private static final long MAX_DEBT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long intervalNanos;
+    private final boolean poisson;
+    private final AtomicLong next;
+
+    public RatePacer(double ratePerSecond) {
+        this(ratePerSecond, false);
+    }
+
+    public RatePacer(double ratePerSecond, boolean poisson) {
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        this.poisson = poisson;
+        this.next = new AtomicLong(System.nanoTime());
+    }
+
+    public void acquire() throws InterruptedException {
+        long now = System.nanoTime();
+        long interval = nextInterval();
+        long slot = next.getAndAdd(interval);
+        if (now - slot > MAX_DEBT_NANOS) {
+            next.compareAndSet(slot + interval, now + interval);
+            return;
+        }
+        long waitNanos = slot - now;
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private long nextInterval() {
+        if (!poisson) {
+            return intervalNanos;
+        }
+        // 逆变换采样：-ln(U) * 平均间隔
+        return Math.max(1, (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * intervalNanos));
+    }
+}
@@ -0,0 +1,59 @@
+package com.jianbing.coupontest.load;
+
+import com.alibaba.fastjson.JSON;
+import com.jianbing.coupontest.load.replay.WorkloadLogWriter;
+import com.jianbing.coupontest.req.CouponTemplateRedeemReq;
+import com.jianbing.coupontest.service.EngineApi;
+
+import java.net.http.HttpRequest;
+import java.util.Map;
+
+/**
+ * MQ 异步抢券场景 (压测热路径版本)
+ * 请求体只序列化一次，每次调用只替换 userId 请求头
+ * 传入 WorkloadLogWriter 时每个请求发出前先记入工作负载日志，可用 WorkloadReplayer 原样重放
+ */
+public class RedeemScenario {
+
+    private final String url;
+    private final String templateId;
+    private final String body;
+    private final HttpSampler sampler;
+    private final WorkloadLogWriter workloadLog;
+
+    public RedeemScenario(String engineUrl, String templateId, String shopNumber) {
+        this(engineUrl, templateId, shopNumber, new HttpSampler());
+    }
+
+    public RedeemScenario(String engineUrl, String templateId, String shopNumber, HttpSampler sampler) {
+        this(engineUrl, templateId, shopNumber, sampler, null);
+    }
+
+    public RedeemScenario(String engineUrl, String templateId, String shopNumber, HttpSampler sampler,
+                          WorkloadLogWriter workloadLog) {
+        this.url = engineUrl + EngineApi.REDEEM_MQ_PATH;
+        this.templateId = templateId;
+        this.body = JSON.toJSONString(CouponTemplateRedeemReq.builder()
+                .source(0)
+                .shopNumber(shopNumber)
+                .couponTemplateId(templateId)
+                .build());
+        this.sampler = sampler;
+        this.workloadLog = workloadLog;
+    }
+
+    public Outcome redeem(String userId) throws InterruptedException {
+        return redeem(userId, EngineApi.REDEEM_MQ_PATH);
+    }
+
+    /**
+     * @param endpoint 统计维度上的接口名，例如按故障阶段区分延迟分布
+     */
+    public Outcome redeem(String userId, String endpoint) throws InterruptedException {
+        if (workloadLog != null) {
+            workloadLog.append(EngineApi.REDEEM_MQ_PATH, userId, templateId);
+        }
+        HttpRequest request = HttpSampler.jsonRequest("POST", url, body, Map.of("userId", userId));
+        return sampler.send(request, endpoint);
+    }
+}
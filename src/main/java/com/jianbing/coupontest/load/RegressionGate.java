@@ -0,0 +1,166 @@
+package com.jianbing.coupontest.load;
+
+import com.jianbing.coupontest.config.EnvConfig;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 性能回退判定
+ * 以最近若干次运行作为滚动基线，每个指标同时满足两个条件才判定回退：
+ * 1. 显著：偏离基线均值超过 zThreshold 个标准差 (排除正常抖动)；
+ * 2. 超限：恶化幅度超过配置的上限 (排除统计显著但业务上无所谓的微小变化)
+ * <p>
+ * 基线只取最近一次接受 (accepted) 及其后的运行；最近连续 readmitAfterRegressions 次都判定回退时，
+ * 改用这几次作为基线，本次与之一致则记为新的接受点，避免性能稳定在新水平后门禁永远失败
+ */
+public class RegressionGate {
+
+    private final EnvConfig.Regression config;
+    private final List<Metric> metrics = new ArrayList<>();
+
+    public RegressionGate(EnvConfig.Regression config) {
+        this.config = config;
+        metrics.add(new Metric("throughput", RunRecord::getThroughput, false, true, config.getMaxThroughputDropPercent()));
+        metrics.add(new Metric("p50", RunRecord::getP50Millis, true, true, config.getMaxLatencyRisePercent()));
+        metrics.add(new Metric("p90", RunRecord::getP90Millis, true, true, config.getMaxLatencyRisePercent()));
+        metrics.add(new Metric("p99", RunRecord::getP99Millis, true, true, config.getMaxLatencyRisePercent()));
+        metrics.add(new Metric("errorRate", RunRecord::getErrorRate, true, false, config.getMaxErrorRateRisePoints()));
+        metrics.add(new Metric("consistencyLag", RunRecord::getConsistencyLagMillis, true, true,
+                config.getMaxConsistencyLagRisePercent()));
+    }
+
+    /**
+     * @param history 同一场景的历史记录 (旧 -> 新)，已回退的记录不计入基线
+     */
+    public RegressionReport evaluate(RunRecord current, List<RunRecord> history) {
+        int from = 0;
+        for (int i = history.size() - 1; i >= 0; i--) {
+            if (history.get(i).isAccepted()) {
+                from = i;
+                break;
+            }
+        }
+        int streak = 0;
+        while (streak < history.size() - from && history.get(history.size() - 1 - streak).isRegressed()) {
+            streak++;
+        }
+        boolean readmitted = config.getReadmitAfterRegressions() > 0 && streak >= config.getReadmitAfterRegressions();
+        List<RunRecord> baseline = readmitted
+                ? history.subList(history.size() - streak, history.size())
+                : history.subList(from, history.size()).stream().filter(r -> !r.isRegressed()).toList();
+        baseline = baseline.subList(Math.max(0, baseline.size() - config.getBaselineRuns()), baseline.size());
+        List<Finding> findings = new ArrayList<>();
+        if (baseline.size() >= config.getMinBaselineRuns()) {
+            for (Metric metric : metrics) {
+                Finding finding = metric.compare(current, baseline, config.getZThreshold());
+                if (finding != null) {
+                    findings.add(finding);
+                }
+            }
+        }
+        return new RegressionReport(current, baseline.size(), findings, config.isFailOnRegression(),
+                config.isAcceptBaseline(), readmitted);
+    }
+
+    private record Metric(String name, ToDoubleFunction<RunRecord> extractor, boolean higherIsWorse, boolean relative,
+                          double limit) {
+
+        Finding compare(RunRecord current, List<RunRecord> baseline, double zThreshold) {
+            double value = extractor.applyAsDouble(current);
+            // 一致性延迟等可选指标：本次或历史未测量 (负数) 时跳过
+            double[] samples = baseline.stream().mapToDouble(extractor).filter(v -> v >= 0).toArray();
+            if (value < 0 || samples.length == 0) {
+                return null;
+            }
+            double mean = 0;
+            for (double sample : samples) {
+                mean += sample;
+            }
+            mean /= samples.length;
+            double variance = 0;
+            for (double sample : samples) {
+                variance += (sample - mean) * (sample - mean);
+            }
+            double std = samples.length > 1 ? Math.sqrt(variance / (samples.length - 1)) : 0;
+
+            double worse = higherIsWorse ? value - mean : mean - value;
+            double change = relative ? (mean == 0 ? 0 : worse / mean * 100) : worse * 100;
+            double z = std > 0 ? worse / std : (worse > 0 ? Double.POSITIVE_INFINITY : 0);
+            boolean regressed = z >= zThreshold && change > limit;
+            return new Finding(name, value, mean, std, z, change, limit, relative, regressed);
+        }
+    }
+
+    @Value
+    public static class Finding {
+        String metric;
+        double current;
+        double baselineMean;
+        double baselineStd;
+        double zScore;
+        /**
+         * 恶化幅度：相对指标为百分比，错误率为百分点；负数表示变好
+         */
+        double change;
+        double limit;
+        boolean relative;
+        boolean regressed;
+
+        @Override
+        public String toString() {
+            String unit = relative ? "%" : "pt";
+            return String.format("%-15s current=%12.3f baseline=%12.3f±%-10.3f z=%7.2f change=%+8.2f%s limit=%.2f%s %s",
+                    metric, current, baselineMean, baselineStd, zScore, change, unit, limit, unit,
+                    regressed ? "REGRESSED" : "ok");
+        }
+    }
+
+    @Value
+    public static class RegressionReport {
+        RunRecord current;
+        int baselineSize;
+        List<Finding> findings;
+        boolean failOnRegression;
+        /**
+         * 本次被接受为新基线，不判失败
+         */
+        boolean accepted;
+        /**
+         * 连续回退次数达到阈值，基线已换成最近这几次运行
+         */
+        boolean readmitted;
+
+        public boolean isRegressed() {
+            return findings.stream().anyMatch(Finding::isRegressed);
+        }
+
+        /**
+         * 判定回退且配置为失败时返回 true，用例据此断言
+         */
+        public boolean isFailed() {
+            return failOnRegression && !accepted && isRegressed();
+        }
+
+        public String describe() {
+            StringBuilder sb = new StringBuilder(String.format("[%s] build=%s, baseline=%d runs%n",
+                    current.getScenario(), current.getBuildVersion(), baselineSize));
+            if (accepted) {
+                sb.append("本次已接受为新基线，之后的运行只与它及其后的运行对比").append(System.lineSeparator());
+            }
+            if (readmitted) {
+                sb.append("最近连续 ").append(baselineSize).append(" 次均判定回退，本次改用这几次作为基线")
+                        .append(System.lineSeparator());
+            }
+            if (findings.isEmpty()) {
+                sb.append("基线不足，只记录不判定").append(System.lineSeparator());
+            }
+            for (Finding finding : findings) {
+                sb.append(finding).append(System.lineSeparator());
+            }
+            return sb.toString();
+        }
+    }
+}
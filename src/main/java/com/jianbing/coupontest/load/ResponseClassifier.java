@@ -0,0 +1,115 @@
+package com.jianbing.coupontest.load;
+
+import com.jianbing.coupontest.utils.JsonFieldScanner;
+import io.restassured.response.Response;
+
+import java.io.InterruptedIOException;
+import java.net.http.HttpTimeoutException;
+
+/**
+ * 响应分类器
+ * 只顺序扫描响应体中的 code / message 两个字段，不构建 JSON 树，适合在压测 worker 中调用
+ */
+public class ResponseClassifier {
+
+    /**
+     * 后端 Result 约定的成功码
+     */
+    public static final String SUCCESS_CODE = "0";
+    /**
+     * 任务异常的统计维度
+     */
+    public static final String TASK_ERROR_ENDPOINT = "task-error";
+
+    // 错误提示关键字 (需与后端 Lua 脚本及 ClientException 文案保持一致)
+    private static final String[] STOCK_EMPTY_KEYWORDS = {"领取完", "库存不足", "已抢光"};
+    private static final String[] USER_LIMIT_KEYWORDS = {"上限", "已经领取", "限领"};
+    private static final String[] RATE_LIMITED_KEYWORDS = {"限流", "频繁", "繁忙", "Too Many"};
+    private static final String[] DUPLICATE_KEYWORDS = {"重复", "duplicate"};
+
+    private ResponseClassifier() {
+    }
+
+    public static Outcome classify(String endpoint, Response response) {
+        return classify(endpoint, response.statusCode(), response.asString());
+    }
+
+    public static Outcome classify(String endpoint, int status, String body) {
+        String[] fields = JsonFieldScanner.topLevelValues(body, "code", "message");
+        String code = fields[0];
+        String message = fields[1];
+        return new Outcome(endpoint, status, code, message, categorize(status, code, message), body);
+    }
+
+    /**
+     * 请求未拿到响应 (连接拒绝、连接重置等)；超过截止时间的单独归为 TIMEOUT
+     */
+    public static Outcome networkError(String endpoint, Throwable error) {
+        return new Outcome(endpoint, -1, error.getClass().getSimpleName(), error.getMessage(),
+                isTimeout(error) ? OutcomeCategory.TIMEOUT : OutcomeCategory.NETWORK_ERROR, null);
+    }
+
+    /**
+     * LoadTask 自身抛出的异常，统一记在 TASK_ERROR_ENDPOINT 下，不混入各接口的延迟与网络错误统计
+     */
+    public static Outcome taskError(Throwable error) {
+        return new Outcome(TASK_ERROR_ENDPOINT, -1, error.getClass().getSimpleName(), error.getMessage(),
+                OutcomeCategory.TASK_ERROR, null);
+    }
+
+    /**
+     * JDK HttpClient 抛 HttpTimeoutException，RestAssured (Apache HttpClient) 抛 SocketTimeoutException /
+     * ConnectTimeoutException，后两者都是 InterruptedIOException；异常可能被包装，沿 cause 链查找
+     */
+    private static boolean isTimeout(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpTimeoutException || t instanceof InterruptedIOException) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static OutcomeCategory categorize(int status, String code, String message) {
+        if (status >= 500) {
+            return OutcomeCategory.SERVER_ERROR;
+        }
+        if (status == 429) {
+            return OutcomeCategory.RATE_LIMITED;
+        }
+        if (status == 200 && SUCCESS_CODE.equals(code)) {
+            return OutcomeCategory.SUCCESS;
+        }
+        if (message != null) {
+            // 先判断库存，"已被领取完" 同时包含领取字样
+            if (containsAny(message, STOCK_EMPTY_KEYWORDS)) {
+                return OutcomeCategory.STOCK_EMPTY;
+            }
+            if (containsAny(message, USER_LIMIT_KEYWORDS)) {
+                return OutcomeCategory.USER_LIMIT;
+            }
+            if (containsAny(message, RATE_LIMITED_KEYWORDS)) {
+                return OutcomeCategory.RATE_LIMITED;
+            }
+            if (containsAny(message, DUPLICATE_KEYWORDS)) {
+                return OutcomeCategory.DUPLICATE;
+            }
+        }
+        if (status >= 400) {
+            return OutcomeCategory.CLIENT_ERROR;
+        }
+        return OutcomeCategory.BUSINESS_ERROR;
+    }
+
+    private static boolean containsAny(String text, String[] keywords) {
+        for (String keyword : keywords) {
+            if (text.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
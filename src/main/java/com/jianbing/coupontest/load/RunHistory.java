@@ -0,0 +1,66 @@
+package com.jianbing.coupontest.load;
+
+import com.alibaba.fastjson.JSON;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 本地压测运行历史 (JSON Lines，一行一条 RunRecord，只追加)
+ */
+@Slf4j
+public class RunHistory {
+
+    private final Path file;
+
+    public RunHistory(Path file) {
+        this.file = file;
+    }
+
+    public synchronized void append(RunRecord record) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(JSON.toJSONString(record));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入压测历史失败: " + file, e);
+        }
+    }
+
+    /**
+     * 某场景的历史记录，按写入顺序 (旧 -> 新)，损坏的行跳过
+     */
+    public synchronized List<RunRecord> load(String scenario) {
+        List<RunRecord> records = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return records;
+        }
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.filter(line -> !line.isBlank()).forEach(line -> {
+                try {
+                    RunRecord record = JSON.parseObject(line, RunRecord.class);
+                    if (scenario.equals(record.getScenario())) {
+                        records.add(record);
+                    }
+                } catch (Exception e) {
+                    log.warn(">>> [压测历史] 跳过损坏的记录: {}", line);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取压测历史失败: " + file, e);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,95 @@
+package com.jianbing.coupontest.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一次压测的精简记录，写入运行历史用于跨版本对比
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RunRecord {
+
+    /**
+     * 计入错误率的分类；库存不足、领取上限、防重拦截属于预期内的业务结果
+     */
+    private static final Set<OutcomeCategory> ERROR_CATEGORIES = EnumSet.of(OutcomeCategory.BUSINESS_ERROR,
+            OutcomeCategory.CLIENT_ERROR, OutcomeCategory.SERVER_ERROR, OutcomeCategory.NETWORK_ERROR, OutcomeCategory.TIMEOUT,
+            OutcomeCategory.TASK_ERROR);
+
+    /**
+     * 被测版本 (CI 构建号 / 发布版本)
+     */
+    private String buildVersion;
+    private String scenario;
+    private long timestamp;
+    private long total;
+    private double throughput;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double maxMillis;
+    private double errorRate;
+    /**
+     * 一致性延迟 (毫秒)：请求结束到数据全部可见，-1 表示未测量
+     */
+    private long consistencyLagMillis;
+    /**
+     * 分类 -> 数量
+     */
+    private Map<String, Long> errorMix;
+    /**
+     * 本次是否被判定为性能回退 (回退的记录不参与后续基线)
+     */
+    private boolean regressed;
+    /**
+     * 本次被人工接受为新基线的起点，更早的运行不再参与对比
+     */
+    private boolean accepted;
+
+    /**
+     * 是否计入错误率 (TIMEOUT / 网络错误 / 服务端错误等)
+     */
+    public static boolean isError(OutcomeCategory category) {
+        return ERROR_CATEGORIES.contains(category);
+    }
+
+    public static RunRecord of(String buildVersion, LoadMetrics metrics, long consistencyLagMillis) {
+        LatencyHistogram latency = metrics.getLatency();
+        Map<String, Long> mix = new LinkedHashMap<>();
+        long errors = 0;
+        for (OutcomeCategory category : OutcomeCategory.values()) {
+            long count = metrics.getOutcomes().count(category);
+            if (count > 0) {
+                mix.put(category.name(), count);
+            }
+            if (ERROR_CATEGORIES.contains(category)) {
+                errors += count;
+            }
+        }
+        long total = latency.getCount();
+        return RunRecord.builder()
+                .buildVersion(buildVersion)
+                .scenario(metrics.getScenario())
+                .timestamp(System.currentTimeMillis())
+                .total(total)
+                .throughput(metrics.getThroughput())
+                .p50Millis(latency.percentileMillis(50))
+                .p90Millis(latency.percentileMillis(90))
+                .p99Millis(latency.percentileMillis(99))
+                .maxMillis(latency.getMaxMicros() / 1000.0)
+                .errorRate(total == 0 ? 0 : (double) errors / total)
+                .consistencyLagMillis(consistencyLagMillis)
+                .errorMix(mix)
+                .build();
+    }
+}
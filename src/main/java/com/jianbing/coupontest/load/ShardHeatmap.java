@@ -0,0 +1,250 @@
+package com.jianbing.coupontest.load;
+
+import com.jianbing.coupontest.utils.ShardingUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 分表写入热力图
+ * 记录各分表累计行数的采样点，换算成每个采样区间内各表的写入速率，
+ * 输出 分表 × 时间 的字符热力图、逐区间的不均衡指标 (max/mean、Gini) 以及按库聚合的结果。
+ * 用户券表只插入不删除，某次采样值小于上一次时沿用上一次的值 (查询失败的一轮由采样方整体跳过)
+ */
+public class ShardHeatmap {
+
+    /**
+     * 热力图字符，从冷到热
+     */
+    private static final char[] SHADES = " .:-=+*#%@".toCharArray();
+    /**
+     * 区间写入少于该行数时不计算不均衡 (样本太少时 Gini 没有意义)
+     */
+    private static final long MIN_ROWS_FOR_IMBALANCE = 32;
+
+    private final int tableCount;
+    private final int databaseCount;
+    private final List<long[]> samples = new ArrayList<>();
+    private final List<Long> offsets = new ArrayList<>();
+
+    public ShardHeatmap(int tableCount, int databaseCount) {
+        if (databaseCount <= 0 || tableCount < databaseCount) {
+            throw new IllegalArgumentException("分片配置错误: " + tableCount + " 张表 / " + databaseCount + " 个库");
+        }
+        this.tableCount = tableCount;
+        this.databaseCount = databaseCount;
+    }
+
+    public synchronized void record(long offsetMillis, long[] counts) {
+        long[] copy = Arrays.copyOf(counts, tableCount);
+        if (!samples.isEmpty()) {
+            long[] previous = samples.get(samples.size() - 1);
+            for (int i = 0; i < tableCount; i++) {
+                copy[i] = Math.max(copy[i], previous[i]);
+            }
+        }
+        samples.add(copy);
+        offsets.add(offsetMillis);
+    }
+
+    public synchronized int getSampleCount() {
+        return samples.size();
+    }
+
+    /**
+     * 最近一次采样的各表累计行数
+     */
+    public synchronized long[] latest() {
+        return samples.isEmpty() ? new long[tableCount] : samples.get(samples.size() - 1).clone();
+    }
+
+    /**
+     * 逐区间的各表写入速率 (行/秒)，第 i 个区间为第 i 次与第 i+1 次采样之间
+     */
+    public synchronized List<Interval> intervals() {
+        List<Interval> intervals = new ArrayList<>();
+        for (int s = 1; s < samples.size(); s++) {
+            long from = offsets.get(s - 1);
+            long to = offsets.get(s);
+            double seconds = Math.max(to - from, 1) / 1000.0;
+            long[] inserted = new long[tableCount];
+            double[] rates = new double[tableCount];
+            for (int i = 0; i < tableCount; i++) {
+                inserted[i] = samples.get(s)[i] - samples.get(s - 1)[i];
+                rates[i] = inserted[i] / seconds;
+            }
+            intervals.add(new Interval(from, to, rates, imbalance(inserted), imbalance(byDatabase(inserted))));
+        }
+        return intervals;
+    }
+
+    /**
+     * 按分表序号连续均分到各库 (与 ShardingUtil.databaseIndexOf 一致) 后的各库合计
+     */
+    public long[] byDatabase(long[] perTable) {
+        long[] perDatabase = new long[databaseCount];
+        for (int i = 0; i < tableCount; i++) {
+            perDatabase[ShardingUtil.databaseIndexOf(i, tableCount, databaseCount)] += perTable[i];
+        }
+        return perDatabase;
+    }
+
+    /**
+     * 不均衡指标，总量不足 MIN_ROWS_FOR_IMBALANCE 时返回 null
+     */
+    public static Imbalance imbalance(long[] values) {
+        long total = 0;
+        int hottest = 0;
+        int coldest = 0;
+        for (int i = 0; i < values.length; i++) {
+            total += values[i];
+            if (values[i] > values[hottest]) {
+                hottest = i;
+            }
+            if (values[i] < values[coldest]) {
+                coldest = i;
+            }
+        }
+        if (total < MIN_ROWS_FOR_IMBALANCE) {
+            return null;
+        }
+        double mean = (double) total / values.length;
+        return new Imbalance(values[hottest] / mean, gini(values), hottest, coldest);
+    }
+
+    /**
+     * Gini 系数：0 表示完全均匀，(n-1)/n 表示全部落在一张表
+     * 升序排列后 G = Σ(2i - n - 1)·x_i / (n·Σx)，i 从 1 开始
+     */
+    public static double gini(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        long total = 0;
+        double weighted = 0;
+        for (int i = 0; i < n; i++) {
+            total += sorted[i];
+            weighted += (2.0 * (i + 1) - n - 1) * sorted[i];
+        }
+        return total == 0 ? 0 : weighted / n / total;
+    }
+
+    /**
+     * 字符热力图：每行一张表，每列一个区间，深浅按全图最大速率归一化；末尾附逐区间不均衡指标
+     *
+     * @param maxColumns 区间过多时合并相邻区间，使列数不超过该值
+     */
+    public String toText(int maxColumns) {
+        List<Interval> intervals = intervals();
+        if (intervals.isEmpty()) {
+            return "(采样不足，无法生成热力图)";
+        }
+        int merge = (intervals.size() + maxColumns - 1) / maxColumns;
+        int columns = (intervals.size() + merge - 1) / merge;
+        double[][] cells = new double[tableCount][columns];
+        double peak = 0;
+        for (int c = 0; c < columns; c++) {
+            int from = c * merge;
+            int to = Math.min(from + merge, intervals.size());
+            for (int i = 0; i < tableCount; i++) {
+                double sum = 0;
+                for (int k = from; k < to; k++) {
+                    sum += intervals.get(k).rates()[i];
+                }
+                cells[i][c] = sum / (to - from);
+                peak = Math.max(peak, cells[i][c]);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(String.format("每列 %d 个采样区间 (%dms ~ %dms), 最深色 = %.1f 行/s, 色阶 \"%s\"%n",
+                merge, intervals.get(0).fromMillis(), intervals.get(intervals.size() - 1).toMillis(), peak,
+                new String(SHADES)));
+        int previousDatabase = -1;
+        for (int i = 0; i < tableCount; i++) {
+            int database = ShardingUtil.databaseIndexOf(i, tableCount, databaseCount);
+            if (databaseCount > 1 && database != previousDatabase) {
+                sb.append(String.format("-- db%d%n", database));
+            }
+            previousDatabase = database;
+            sb.append(String.format("t%-3d |", i));
+            for (int c = 0; c < columns; c++) {
+                int shade = peak == 0 ? 0 : (int) Math.round(cells[i][c] / peak * (SHADES.length - 1));
+                sb.append(SHADES[shade]);
+            }
+            sb.append('|').append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder("fromMillis,toMillis");
+        for (int i = 0; i < tableCount; i++) {
+            sb.append(",t").append(i);
+        }
+        sb.append(",maxOverMean,gini,dbMaxOverMean,dbGini").append(System.lineSeparator());
+        for (Interval interval : intervals()) {
+            sb.append(interval.fromMillis()).append(',').append(interval.toMillis());
+            for (double rate : interval.rates()) {
+                sb.append(',').append(String.format("%.1f", rate));
+            }
+            appendImbalance(sb, interval.tables());
+            appendImbalance(sb, interval.databases());
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 累计分布与逐区间分布的不均衡指标，逐区间取最差的一段
+     */
+    public String summary() {
+        long[] total = latest();
+        Imbalance tables = imbalance(total);
+        Imbalance databases = imbalance(byDatabase(total));
+        Interval worst = null;
+        for (Interval interval : intervals()) {
+            if (interval.tables() != null && (worst == null || interval.tables().gini() > worst.tables().gini())) {
+                worst = interval;
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d 张表 / %d 个库, 采样 %d 次, 累计写入 %d 行%n", tableCount, databaseCount,
+                getSampleCount(), Arrays.stream(total).sum()));
+        sb.append("累计 按表: ").append(describe(tables, "t")).append(System.lineSeparator());
+        sb.append("累计 按库: ").append(describe(databases, "db")).append(System.lineSeparator());
+        if (worst != null) {
+            sb.append(String.format("最不均衡区间 %dms ~ %dms: %s%n", worst.fromMillis(), worst.toMillis(),
+                    describe(worst.tables(), "t")));
+        }
+        return sb.toString();
+    }
+
+    private static String describe(Imbalance imbalance, String prefix) {
+        return imbalance == null ? "样本不足"
+                : String.format("max/mean=%.2f, Gini=%.3f, 最热 %s%d, 最冷 %s%d", imbalance.maxOverMean(), imbalance.gini(),
+                prefix, imbalance.hottest(), prefix, imbalance.coldest());
+    }
+
+    private static void appendImbalance(StringBuilder sb, Imbalance imbalance) {
+        if (imbalance == null) {
+            sb.append(",,");
+        } else {
+            sb.append(String.format(",%.3f,%.4f", imbalance.maxOverMean(), imbalance.gini()));
+        }
+    }
+
+    /**
+     * @param tables    该区间按表的不均衡指标，写入太少时为 null
+     * @param databases 该区间按库的不均衡指标，写入太少时为 null
+     */
+    public record Interval(long fromMillis, long toMillis, double[] rates, Imbalance tables, Imbalance databases) {
+    }
+
+    /**
+     * @param maxOverMean 最热分片 / 平均值，1 表示完全均匀
+     * @param gini        Gini 系数
+     */
+    public record Imbalance(double maxOverMean, double gini, int hottest, int coldest) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.jianbing.coupontest.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 滑动窗口延迟直方图
+ * 按秒分槽的环形数组，每秒一个 LatencyHistogram，槽位过期后在首次写入时替换，
+ * 内存固定为 窗口秒数 x 528 个桶，适合实时观测与长时间运行
+ */
+public class SlidingWindowHistogram {
+
+    private final int windowSeconds;
+    private final AtomicReferenceArray<Slot> slots;
+
+    public SlidingWindowHistogram(int windowSeconds) {
+        this.windowSeconds = windowSeconds;
+        // 多留一个槽给正在写入的当前秒
+        this.slots = new AtomicReferenceArray<>(windowSeconds + 1);
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void record(long nanos) {
+        record(System.nanoTime(), nanos);
+    }
+
+    public void record(long nowNanos, long nanos) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(nowNanos);
+        int index = (int) Math.floorMod(second, (long) slots.length());
+        while (true) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.second == second) {
+                slot.histogram.record(nanos);
+                return;
+            }
+            Slot fresh = new Slot(second);
+            if (slots.compareAndSet(index, slot, fresh)) {
+                fresh.histogram.record(nanos);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 最近 windowSeconds 个完整秒 (不含正在写入的当前秒) 合并后的直方图
+     */
+    public LatencyHistogram snapshot() {
+        long current = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        LatencyHistogram merged = new LatencyHistogram();
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.second < current && slot.second >= current - windowSeconds) {
+                merged.merge(slot.histogram);
+            }
+        }
+        return merged;
+    }
+
+    private static final class Slot {
+        private final long second;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        Slot(long second) {
+            this.second = second;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.jianbing.coupontest.load;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 稳态检测
+ * 按固定窗口统计吞吐与 p90 延迟，最近 N 个窗口的波动 ((max - min) / mean) 都不超过容差即视为稳态
+ */
+public class SteadyStateDetector {
+
+    private final int windows;
+    private final double tolerance;
+    private final Deque<double[]> history = new ArrayDeque<>();
+    private volatile LatencyHistogram current = new LatencyHistogram();
+    private long windowStartNanos = System.nanoTime();
+
+    public SteadyStateDetector(int windows, double tolerance) {
+        this.windows = windows;
+        this.tolerance = tolerance;
+    }
+
+    public void record(long latencyNanos) {
+        current.record(latencyNanos);
+    }
+
+    /**
+     * 结束当前窗口并判断是否已进入稳态 (由单个监控线程调用)
+     */
+    public boolean rollWindow() {
+        LatencyHistogram finished = current;
+        current = new LatencyHistogram();
+        long now = System.nanoTime();
+        double seconds = Math.max((now - windowStartNanos) / 1e9, 1e-3);
+        windowStartNanos = now;
+
+        history.addLast(new double[]{finished.getCount() / seconds, finished.percentileMillis(90)});
+        if (history.size() > windows) {
+            history.removeFirst();
+        }
+        return history.size() == windows && withinTolerance(0) && withinTolerance(1);
+    }
+
+    /**
+     * 最近一个窗口的 [吞吐, p90(ms)]
+     */
+    public double[] lastWindow() {
+        return history.isEmpty() ? new double[]{0, 0} : history.peekLast();
+    }
+
+    private boolean withinTolerance(int metric) {
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        double sum = 0;
+        for (double[] window : history) {
+            min = Math.min(min, window[metric]);
+            max = Math.max(max, window[metric]);
+            sum += window[metric];
+        }
+        double mean = sum / history.size();
+        return mean > 0 && (max - min) / mean <= tolerance;
+    }
+}
@@ -0,0 +1,159 @@
+package com.jianbing.coupontest.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 库存扣减 / 落库进度时间线
+ * 分别记录 Redis 剩余库存与全部分表行数的采样点 (相对起点的毫秒数)，
+ * 按固定网格对齐后输出扣减速率、落库速率以及二者之差 (已预扣但尚未落库的积压)
+ */
+public class StockDrainTimeline {
+
+    /**
+     * 计算速率的滑动窗口
+     */
+    private static final long RATE_WINDOW_MILLIS = 1000;
+
+    private final long initialStock;
+    private final List<long[]> stockPoints = new ArrayList<>();
+    private final List<long[]> rowPoints = new ArrayList<>();
+
+    public StockDrainTimeline(long initialStock) {
+        this.initialStock = initialStock;
+    }
+
+    public long getInitialStock() {
+        return initialStock;
+    }
+
+    public synchronized void recordStock(long offsetMillis, long stock) {
+        stockPoints.add(new long[]{offsetMillis, stock});
+    }
+
+    public synchronized void recordRows(long offsetMillis, long rows) {
+        rowPoints.add(new long[]{offsetMillis, rows});
+    }
+
+    /**
+     * 按 gridMillis 对齐的时间序列，两路采样频率不同，网格点取各自最近一次采样值
+     */
+    public synchronized List<Point> align(long gridMillis) {
+        List<Point> points = new ArrayList<>();
+        long end = Math.max(lastOffset(stockPoints), lastOffset(rowPoints));
+        for (long t = 0; t <= end; t += gridMillis) {
+            long deducted = initialStock - valueAt(stockPoints, t, initialStock);
+            long rows = valueAt(rowPoints, t, 0);
+            long windowStart = Math.max(0, t - RATE_WINDOW_MILLIS);
+            double seconds = Math.max(t - windowStart, 1) / 1000.0;
+            double drainRate = (deducted - (initialStock - valueAt(stockPoints, windowStart, initialStock))) / seconds;
+            double fillRate = (rows - valueAt(rowPoints, windowStart, 0)) / seconds;
+            points.add(new Point(t, initialStock - deducted, deducted, rows, deducted - rows, drainRate, fillRate));
+        }
+        return points;
+    }
+
+    public String toCsv(long gridMillis) {
+        StringBuilder sb = new StringBuilder("offsetMillis,redisStock,redisDeducted,dbRows,backlog,drainPerSec,fillPerSec")
+                .append(System.lineSeparator());
+        for (Point p : align(gridMillis)) {
+            sb.append(p.offsetMillis()).append(',').append(p.stock()).append(',').append(p.deducted()).append(',')
+                    .append(p.rows()).append(',').append(p.backlog()).append(',')
+                    .append(String.format("%.1f", p.drainRate())).append(',')
+                    .append(String.format("%.1f", p.fillRate())).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 峰值速率、最大积压、扣减平台期与落库停滞
+     *
+     * @param stallMillis 积压不为 0 而落库速率为 0 持续多久算停滞
+     */
+    public String summary(long gridMillis, long stallMillis) {
+        List<Point> points = align(gridMillis);
+        double peakDrain = 0;
+        double peakFill = 0;
+        Point maxBacklog = null;
+        long drainedAt = -1;
+        long filledAt = -1;
+        List<String> stalls = new ArrayList<>();
+        List<String> plateaus = new ArrayList<>();
+        long stallStart = -1;
+        long plateauStart = -1;
+        for (Point p : points) {
+            peakDrain = Math.max(peakDrain, p.drainRate());
+            peakFill = Math.max(peakFill, p.fillRate());
+            if (maxBacklog == null || p.backlog() > maxBacklog.backlog()) {
+                maxBacklog = p;
+            }
+            if (drainedAt < 0 && p.stock() <= 0) {
+                drainedAt = p.offsetMillis();
+            }
+            if (filledAt < 0 && p.deducted() > 0 && p.rows() >= p.deducted() && p.stock() <= 0) {
+                filledAt = p.offsetMillis();
+            }
+            // 落库停滞：有积压但落库速率为 0
+            boolean stalled = p.backlog() > 0 && p.fillRate() == 0;
+            stallStart = track(stalls, stalled, stallStart, p.offsetMillis(), stallMillis, "落库停滞");
+            // 扣减平台期：已开始扣减、库存未清空，但扣减速率为 0
+            boolean plateau = p.deducted() > 0 && p.stock() > 0 && p.drainRate() == 0;
+            plateauStart = track(plateaus, plateau, plateauStart, p.offsetMillis(), stallMillis, "扣减平台期");
+        }
+        long end = points.isEmpty() ? 0 : points.get(points.size() - 1).offsetMillis();
+        track(stalls, false, stallStart, end, stallMillis, "落库停滞");
+        track(plateaus, false, plateauStart, end, stallMillis, "扣减平台期");
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("初始库存 %d, Redis 采样 %d 次, DB 采样 %d 次%n", initialStock, stockPoints.size(), rowPoints.size()));
+        sb.append(String.format("峰值扣减 %.1f/s, 峰值落库 %.1f/s%n", peakDrain, peakFill));
+        if (maxBacklog != null) {
+            sb.append(String.format("最大积压 %d (t=%dms)%n", maxBacklog.backlog(), maxBacklog.offsetMillis()));
+        }
+        sb.append(String.format("库存清空 t=%s, 落库追平 t=%s%n", drainedAt < 0 ? "-" : drainedAt + "ms",
+                filledAt < 0 ? "-" : filledAt + "ms"));
+        stalls.forEach(line -> sb.append(line).append(System.lineSeparator()));
+        plateaus.forEach(line -> sb.append(line).append(System.lineSeparator()));
+        return sb.toString();
+    }
+
+    private static long track(List<String> spans, boolean active, long start, long now, long minMillis, String label) {
+        if (active) {
+            return start < 0 ? now : start;
+        }
+        if (start >= 0 && now - start >= minMillis) {
+            spans.add(String.format("%s: %dms ~ %dms (%dms)", label, start, now, now - start));
+        }
+        return -1;
+    }
+
+    private static long lastOffset(List<long[]> series) {
+        return series.isEmpty() ? 0 : series.get(series.size() - 1)[0];
+    }
+
+    /**
+     * t 时刻之前最近一次采样的值，之前没有采样时返回默认值
+     */
+    private static long valueAt(List<long[]> series, long offsetMillis, long defaultValue) {
+        int low = 0;
+        int high = series.size() - 1;
+        long value = defaultValue;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (series.get(mid)[0] <= offsetMillis) {
+                value = series.get(mid)[1];
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @param backlog 已在 Redis 预扣减但尚未落库的数量 (MQ 积压)
+     */
+    public record Point(long offsetMillis, long stock, long deducted, long rows, long backlog,
+                        double drainRate, double fillRate) {
+    }
+}
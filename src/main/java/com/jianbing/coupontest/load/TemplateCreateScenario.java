@@ -0,0 +1,52 @@
+package com.jianbing.coupontest.load;
+
+import com.alibaba.fastjson.JSON;
+import com.jianbing.coupontest.req.CouponTemplateReq;
+import com.jianbing.coupontest.service.EngineApi;
+import com.jianbing.coupontest.service.MerchantAdminApi;
+import com.jianbing.coupontest.utils.JsonFieldScanner;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 商家创建模板场景 (压测热路径版本)
+ * 与 MerchantAdminApi.createCouponTemplate 走同一个接口，但不经过 RestAssured / Allure，
+ * 并提供对引擎模板查询接口的单次探测，用于测量新模板的可见延迟
+ */
+public class TemplateCreateScenario {
+
+    private final String createUrl;
+    private final String queryUrlPrefix;
+    private final HttpSampler sampler;
+
+    public TemplateCreateScenario(String merchantUrl, String engineUrl, String shopNumber, HttpSampler sampler) {
+        this.createUrl = merchantUrl + MerchantAdminApi.TEMPLATE_CREATE_PATH;
+        this.queryUrlPrefix = engineUrl + EngineApi.TEMPLATE_QUERY_PATH
+                + "?shopNumber=" + URLEncoder.encode(shopNumber, StandardCharsets.UTF_8) + "&couponTemplateId=";
+        this.sampler = sampler;
+    }
+
+    public Outcome create(CouponTemplateReq req) throws InterruptedException {
+        HttpRequest request = HttpSampler.jsonRequest("POST", createUrl, JSON.toJSONString(req), Map.of());
+        return sampler.send(request, MerchantAdminApi.TEMPLATE_CREATE_PATH);
+    }
+
+    /**
+     * 查询一次模板，SUCCESS 即表示引擎侧已可见 (不存在时返回业务错误)
+     */
+    public Outcome query(String templateId) throws InterruptedException {
+        HttpRequest request = HttpSampler.jsonRequest("GET",
+                queryUrlPrefix + URLEncoder.encode(templateId, StandardCharsets.UTF_8), null, Map.of());
+        return sampler.send(request, EngineApi.TEMPLATE_QUERY_PATH);
+    }
+
+    /**
+     * 创建成功的响应中的模板ID，失败时为 null
+     */
+    public static String templateId(Outcome created) {
+        return created.isSuccess() ? JsonFieldScanner.topLevelValue(created.getBody(), "data") : null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.jianbing.coupontest.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 新模板可见延迟探测
+ * 创建接口返回后立即开始按固定间隔查询引擎，记录从创建成功到首次查询成功的时长。
+ * 探测在独立线程池中进行，不占用创建线程，避免拉低被测的创建并发；
+ * 结果精度受探测间隔限制 (最多晚一个间隔)，超时仍不可见的计入 invisible
+ */
+@Slf4j
+public class TemplateVisibilityProbe implements AutoCloseable {
+
+    private final TemplateCreateScenario scenario;
+    private final long pollIntervalMillis;
+    private final long timeoutMillis;
+    private final ScheduledExecutorService executor;
+    private final LatencyHistogram visibleAfter = new LatencyHistogram();
+    private final LoadMetrics polls;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder invisible = new LongAdder();
+    private final LongAdder notYetVisible = new LongAdder();
+
+    /**
+     * @param pollThreads        探测线程数，应能覆盖 创建速率 × 单次查询耗时
+     * @param pollIntervalMillis 同一模板两次查询的间隔
+     * @param timeoutMillis      超过该时长仍不可见即放弃
+     */
+    public TemplateVisibilityProbe(String name, TemplateCreateScenario scenario, int pollThreads,
+                                   long pollIntervalMillis, long timeoutMillis) {
+        this.scenario = scenario;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.polls = new LoadMetrics(name + "-visibility");
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(pollThreads, runnable -> {
+            Thread thread = new Thread(runnable, "visibility-probe-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param createdAtNanos 创建接口返回时刻 (System.nanoTime)
+     */
+    public void track(String templateId, long createdAtNanos) {
+        pending.incrementAndGet();
+        executor.execute(() -> poll(templateId, createdAtNanos));
+    }
+
+    /**
+     * 等待已登记的模板全部可见或超时
+     *
+     * @return 是否在 maxWaitMillis 内全部结束探测
+     */
+    public boolean awaitIdle(long maxWaitMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        while (pending.get() > 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(Math.min(pollIntervalMillis, 100));
+        }
+        return pending.get() == 0;
+    }
+
+    public LatencyHistogram getVisibleAfter() {
+        return visibleAfter;
+    }
+
+    /**
+     * 全部探测查询的延迟与错误码统计
+     */
+    public LoadMetrics getPolls() {
+        return polls;
+    }
+
+    public long getInvisible() {
+        return invisible.sum();
+    }
+
+    /**
+     * 查询时尚不可见的次数 (最终可见的模板也会计入)
+     */
+    public long getNotYetVisible() {
+        return notYetVisible.sum();
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void poll(String templateId, long createdAtNanos) {
+        try {
+            long sendAt = System.nanoTime();
+            Outcome outcome = scenario.query(templateId);
+            long endAt = System.nanoTime();
+            polls.record(outcome, sendAt, endAt);
+            if (outcome.isSuccess()) {
+                visibleAfter.record(Math.max(0, endAt - createdAtNanos));
+                pending.decrementAndGet();
+                return;
+            }
+            notYetVisible.increment();
+            if (TimeUnit.NANOSECONDS.toMillis(endAt - createdAtNanos) >= timeoutMillis) {
+                log.warn(">>> [可见性探测] 模板 {} {}ms 后仍不可见: {}", templateId, timeoutMillis, outcome.getMessage());
+                invisible.increment();
+                pending.decrementAndGet();
+                return;
+            }
+            executor.schedule(() -> poll(templateId, createdAtNanos), pollIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            pending.decrementAndGet();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.jianbing.coupontest.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按秒统计的吞吐时间线 (成功 / 失败分开计数)
+ * 超出容量的请求计入最后一秒，避免压测中扩容
+ */
+public class ThroughputTimeline {
+
+    /**
+     * 默认容量 4 小时
+     */
+    static final int DEFAULT_CAPACITY_SECONDS = 4 * 3600;
+
+    private final long startNanos;
+    private final AtomicLongArray success;
+    private final AtomicLongArray failure;
+
+    public ThroughputTimeline() {
+        this(System.nanoTime(), DEFAULT_CAPACITY_SECONDS);
+    }
+
+    public ThroughputTimeline(long startNanos, int capacitySeconds) {
+        this.startNanos = startNanos;
+        this.success = new AtomicLongArray(capacitySeconds);
+        this.failure = new AtomicLongArray(capacitySeconds);
+    }
+
+    public void record(long nowNanos, boolean ok) {
+        int second = secondOf(nowNanos);
+        if (ok) {
+            success.incrementAndGet(second);
+        } else {
+            failure.incrementAndGet(second);
+        }
+    }
+
+    /**
+     * 累加某一秒的计数 (用于合并其他进程的时间线)
+     */
+    public void add(int second, long ok, long fail) {
+        int index = Math.min(Math.max(second, 0), success.length() - 1);
+        success.addAndGet(index, ok);
+        failure.addAndGet(index, fail);
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public int capacity() {
+        return success.length();
+    }
+
+    public long successAt(int second) {
+        return success.get(second);
+    }
+
+    public long failureAt(int second) {
+        return failure.get(second);
+    }
+
+    /**
+     * 最后一个有数据的秒 + 1
+     */
+    public int length() {
+        for (int i = success.length() - 1; i >= 0; i--) {
+            if (success.get(i) > 0 || failure.get(i) > 0) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder("second,success,failure,total").append(System.lineSeparator());
+        int length = length();
+        for (int i = 0; i < length; i++) {
+            long ok = success.get(i);
+            long fail = failure.get(i);
+            sb.append(i).append(',').append(ok).append(',').append(fail).append(',').append(ok + fail)
+                    .append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private int secondOf(long nowNanos) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(nowNanos - startNanos);
+        return (int) Math.min(Math.max(second, 0), success.length() - 1);
+    }
+}
@@ -0,0 +1,56 @@
+package com.jianbing.coupontest.load.distributed;
+
+import com.alibaba.fastjson.JSON;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Coordinator 与 Worker 之间的消息，一行一个 JSON
+ * HELLO (W->C) -> ASSIGN (C->W) -> READY (W->C) -> GO (C->W，携带统一开始时刻) -> REPORT (W->C)
+ */
+@Data
+@NoArgsConstructor
+public class DistributedMessage {
+
+    public enum Type {
+        HELLO, ASSIGN, READY, GO, REPORT
+    }
+
+    private Type type;
+    private String host;
+    private WorkerAssignment assignment;
+    /**
+     * 统一开始时刻 (epoch 毫秒)，跨机器时依赖各机器时钟同步 (NTP)
+     */
+    private long startAtMillis;
+    private WorkerReport report;
+
+    public static DistributedMessage of(Type type) {
+        DistributedMessage message = new DistributedMessage();
+        message.type = type;
+        return message;
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        writer.write(JSON.toJSONString(this));
+        writer.write('\n');
+        writer.flush();
+    }
+
+    public static DistributedMessage readFrom(BufferedReader reader, Type expected) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new EOFException("连接已关闭，等待消息 " + expected);
+        }
+        DistributedMessage message = JSON.parseObject(line, DistributedMessage.class);
+        if (message.getType() != expected) {
+            throw new IOException("期望消息 " + expected + "，实际收到 " + message.getType());
+        }
+        return message;
+    }
+}
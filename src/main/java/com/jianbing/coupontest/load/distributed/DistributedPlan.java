@@ -0,0 +1,56 @@
+package com.jianbing.coupontest.load.distributed;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分布式抢券压测计划：Worker 数量、每个 Worker 的线程数、总目标速率
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributedPlan {
+    private String name;
+    private String engineUrl;
+    private String templateId;
+    private String shopNumber;
+
+    @Builder.Default
+    private int workers = 2;
+
+    @Builder.Default
+    private int threadsPerWorker = 100;
+
+    /**
+     * 全部 Worker 合计的目标速率 (req/s)，按 Worker 数均分；0 表示不限速
+     */
+    @Builder.Default
+    private double targetRate = 0;
+
+    /**
+     * 单个请求的截止时间 (毫秒)，通常取 test-config.timeout
+     */
+    @Builder.Default
+    private int timeoutMillis = 10000;
+
+    /**
+     * 全部 Worker 就绪后延迟多久统一开始 (毫秒)，需大于 GO 消息的网络传输时间
+     */
+    @Builder.Default
+    private long startDelayMillis = 1000;
+
+    /**
+     * 等待 Worker 连接的最长时间 (秒)
+     */
+    @Builder.Default
+    private int connectTimeoutSeconds = 60;
+
+    /**
+     * 等待 Worker 上报结果的最长时间 (秒)
+     */
+    @Builder.Default
+    private int reportTimeoutSeconds = 600;
+}
@@ -0,0 +1,19 @@
+package com.jianbing.coupontest.load.distributed;
+
+import com.jianbing.coupontest.load.LoadMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 全部 Worker 合并后的结果
+ */
+@Getter
+@AllArgsConstructor
+public class DistributedResult {
+    private final LoadMetrics metrics;
+    private final Set<String> successUserIds;
+    private final List<WorkerReport> reports;
+}
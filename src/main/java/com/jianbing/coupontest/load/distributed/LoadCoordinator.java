@@ -0,0 +1,174 @@
+package com.jianbing.coupontest.load.distributed;
+
+import com.jianbing.coupontest.load.LoadMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式压测协调者
+ * 监听 TCP 端口等待 Worker 连接，按 Worker 数切分用户与目标速率，全部就绪后下发统一开始时刻
+ * (相当于跨进程的 CountDownLatch start)，最后合并各 Worker 的直方图、错误码统计与成功用户。
+ * <p>
+ * 本机多进程：{@link #spawnLocalWorkers(int)}；跨机器：在各压测机上启动
+ * java -cp coupontest.jar -Dloader.main=com.jianbing.coupontest.load.distributed.LoadWorker
+ * org.springframework.boot.loader.launch.PropertiesLauncher --coordinator=host:port
+ */
+@Slf4j
+public class LoadCoordinator implements AutoCloseable {
+
+    private static final Path WORKER_LOG_DIR = Path.of("target", "distributed");
+
+    private final ServerSocket serverSocket;
+    private final List<Process> localWorkers = new ArrayList<>();
+
+    /**
+     * @param port 监听端口，0 表示随机端口 (本机 Worker 由 spawnLocalWorkers 自动传入)
+     */
+    public LoadCoordinator(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * 以当前 JVM 的 classpath 在本机启动若干 Worker 进程，输出写入 target/distributed/worker-i.log
+     */
+    public void spawnLocalWorkers(int count) throws IOException {
+        Files.createDirectories(WORKER_LOG_DIR);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (int i = 0; i < count; i++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    LoadWorker.class.getName(), "--coordinator=127.0.0.1:" + getPort());
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(WORKER_LOG_DIR.resolve("worker-" + i + ".log").toFile());
+            localWorkers.add(builder.start());
+        }
+        log.info(">>> [分布式压测] 本机启动 {} 个 Worker 进程", count);
+    }
+
+    public DistributedResult run(DistributedPlan plan, List<String> userIds) throws IOException, InterruptedException {
+        int workers = plan.getWorkers();
+        List<Socket> sockets = new ArrayList<>(workers);
+        List<BufferedReader> readers = new ArrayList<>(workers);
+        List<Writer> writers = new ArrayList<>(workers);
+        try {
+            // 1. 等待全部 Worker 连接
+            serverSocket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(plan.getConnectTimeoutSeconds()));
+            while (sockets.size() < workers) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    throw new IOException("等待 Worker 连接超时，已连接 " + sockets.size() + "/" + workers, e);
+                }
+                sockets.add(socket);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                readers.add(reader);
+                writers.add(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                DistributedMessage hello = DistributedMessage.readFrom(reader, DistributedMessage.Type.HELLO);
+                log.info(">>> [分布式压测] Worker {} 已连接: {}", sockets.size() - 1, hello.getHost());
+            }
+
+            // 2. 切分用户与速率，下发任务并等待就绪
+            for (int i = 0; i < workers; i++) {
+                DistributedMessage assign = DistributedMessage.of(DistributedMessage.Type.ASSIGN);
+                assign.setAssignment(WorkerAssignment.builder()
+                        .workerIndex(i)
+                        .workerCount(workers)
+                        .scenario(plan.getName())
+                        .engineUrl(plan.getEngineUrl())
+                        .templateId(plan.getTemplateId())
+                        .shopNumber(plan.getShopNumber())
+                        .threads(plan.getThreadsPerWorker())
+                        .targetRate(plan.getTargetRate() / workers)
+                        .timeoutMillis(plan.getTimeoutMillis())
+                        .userIds(new ArrayList<>(userIds.subList(userIds.size() * i / workers, userIds.size() * (i + 1) / workers)))
+                        .build());
+                assign.writeTo(writers.get(i));
+            }
+            for (int i = 0; i < workers; i++) {
+                sockets.get(i).setSoTimeout((int) TimeUnit.SECONDS.toMillis(plan.getConnectTimeoutSeconds()));
+                DistributedMessage.readFrom(readers.get(i), DistributedMessage.Type.READY);
+            }
+
+            // 3. 统一开始
+            long startAtMillis = System.currentTimeMillis() + plan.getStartDelayMillis();
+            DistributedMessage go = DistributedMessage.of(DistributedMessage.Type.GO);
+            go.setStartAtMillis(startAtMillis);
+            for (Writer writer : writers) {
+                go.writeTo(writer);
+            }
+            log.info(">>> [分布式压测] {} 个 Worker 全部就绪，{} ms 后统一开始", workers, plan.getStartDelayMillis());
+
+            // 4. 收集并合并结果
+            List<WorkerReport> reports = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                sockets.get(i).setSoTimeout((int) TimeUnit.SECONDS.toMillis(plan.getReportTimeoutSeconds()));
+                WorkerReport report = DistributedMessage.readFrom(readers.get(i), DistributedMessage.Type.REPORT).getReport();
+                log.info(">>> [分布式压测] Worker {} ({}) 上报: total={}, success={}", report.getWorkerIndex(), report.getHost(),
+                        report.getMetrics().getLatency().toHistogram().getCount(), report.getSuccessUserIds().size());
+                reports.add(report);
+            }
+            return merge(plan.getName(), reports);
+        } finally {
+            for (Socket socket : sockets) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    static DistributedResult merge(String name, List<WorkerReport> reports) {
+        long startMillis = reports.stream().mapToLong(r -> r.getMetrics().getStartMillis()).min().orElse(System.currentTimeMillis());
+        long finishMillis = reports.stream().mapToLong(r -> r.getMetrics().getFinishMillis()).max().orElse(startMillis);
+        LoadMetrics merged = new LoadMetrics(name, startMillis);
+        Set<String> successUserIds = new HashSet<>();
+        for (WorkerReport report : reports) {
+            report.getMetrics().mergeInto(merged);
+            successUserIds.addAll(report.getSuccessUserIds());
+        }
+        merged.markFinished(finishMillis);
+        log.info(">>> [分布式压测] 合并 {} 个 Worker: {}", reports.size(), merged.summary());
+        return new DistributedResult(merged, successUserIds, reports);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Process process : localWorkers) {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        serverSocket.close();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // 连接关闭失败不影响结果
+        }
+    }
+}
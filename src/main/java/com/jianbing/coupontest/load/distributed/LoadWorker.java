@@ -0,0 +1,99 @@
+package com.jianbing.coupontest.load.distributed;
+
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.load.RedeemScenario;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分布式压测 Worker 进程
+ * 不启动 Spring 上下文，只依赖 JDK HttpClient：连接 Coordinator，领取用户切片，
+ * 等到统一开始时刻后发压，结束后把指标快照与成功用户回传。
+ * <p>
+ * java -cp ... com.jianbing.coupontest.load.distributed.LoadWorker --coordinator=host:port
+ */
+@Slf4j
+public class LoadWorker {
+
+    public static void main(String[] args) throws Exception {
+        String coordinator = null;
+        for (String arg : args) {
+            if (arg.startsWith("--coordinator=")) {
+                coordinator = arg.substring("--coordinator=".length());
+            }
+        }
+        if (coordinator == null) {
+            throw new IllegalArgumentException("缺少参数 --coordinator=host:port");
+        }
+        int split = coordinator.lastIndexOf(':');
+        run(coordinator.substring(0, split), Integer.parseInt(coordinator.substring(split + 1)));
+        System.exit(0);
+    }
+
+    static void run(String host, int port) throws Exception {
+        String localHost = InetAddress.getLocalHost().getHostName() + "/" + ProcessHandle.current().pid();
+        try (Socket socket = new Socket(host, port)) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+
+            DistributedMessage hello = DistributedMessage.of(DistributedMessage.Type.HELLO);
+            hello.setHost(localHost);
+            hello.writeTo(writer);
+
+            WorkerAssignment assignment = DistributedMessage.readFrom(reader, DistributedMessage.Type.ASSIGN).getAssignment();
+            List<String> userIds = assignment.getUserIds();
+            RedeemScenario scenario = new RedeemScenario(assignment.getEngineUrl(), assignment.getTemplateId(),
+                    assignment.getShopNumber(), HttpSampler.withTimeoutMillis(assignment.getTimeoutMillis()));
+            LoadEngine engine = new LoadEngine(LoadPlan.builder()
+                    .name(assignment.getScenario() + "-worker-" + assignment.getWorkerIndex())
+                    .threads(assignment.getThreads())
+                    .loops(-1)
+                    .targetRate(assignment.getTargetRate())
+                    .build());
+            log.info(">>> [Worker {}/{}] 领取 {} 个用户, threads={}, rate={}", assignment.getWorkerIndex(),
+                    assignment.getWorkerCount(), userIds.size(), assignment.getThreads(), assignment.getTargetRate());
+            DistributedMessage.of(DistributedMessage.Type.READY).writeTo(writer);
+
+            long startAtMillis = DistributedMessage.readFrom(reader, DistributedMessage.Type.GO).getStartAtMillis();
+            long waitMillis = startAtMillis - System.currentTimeMillis();
+            if (waitMillis > 0) {
+                Thread.sleep(waitMillis);
+            }
+
+            Set<String> successUserIds = ConcurrentHashMap.newKeySet();
+            AtomicInteger cursor = new AtomicInteger();
+            LoadMetrics metrics = engine.run((threadIndex, iteration) -> {
+                int index = cursor.getAndIncrement();
+                if (index >= userIds.size()) {
+                    return null;
+                }
+                Outcome outcome = scenario.redeem(userIds.get(index));
+                if (outcome.isSuccess()) {
+                    successUserIds.add(userIds.get(index));
+                }
+                return outcome;
+            });
+
+            DistributedMessage report = DistributedMessage.of(DistributedMessage.Type.REPORT);
+            report.setReport(new WorkerReport(assignment.getWorkerIndex(), localHost, MetricsSnapshot.of(metrics),
+                    new ArrayList<>(successUserIds)));
+            report.writeTo(writer);
+        }
+    }
+}
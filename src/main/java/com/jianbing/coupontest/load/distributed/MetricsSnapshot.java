@@ -0,0 +1,104 @@
+package com.jianbing.coupontest.load.distributed;
+
+import com.jianbing.coupontest.load.LatencyHistogram;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.OutcomeCategory;
+import com.jianbing.coupontest.load.OutcomeCounters;
+import com.jianbing.coupontest.load.ThroughputTimeline;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LoadMetrics 的可序列化快照，Worker 上报给 Coordinator 后按桶 / 按错误码 / 按秒累加合并
+ */
+@Data
+@NoArgsConstructor
+public class MetricsSnapshot {
+
+    private String scenario;
+    private long startMillis;
+    private long finishMillis;
+    private HistogramSnapshot latency;
+    private Map<String, HistogramSnapshot> endpointLatency = new LinkedHashMap<>();
+    private List<OutcomeCount> outcomes = new ArrayList<>();
+    private Map<String, List<String>> exemplars = new LinkedHashMap<>();
+    private long[] timelineSuccess;
+    private long[] timelineFailure;
+
+    public static MetricsSnapshot of(LoadMetrics metrics) {
+        MetricsSnapshot snapshot = new MetricsSnapshot();
+        snapshot.scenario = metrics.getScenario();
+        snapshot.startMillis = metrics.getStartMillis();
+        snapshot.finishMillis = metrics.getFinishMillis();
+        snapshot.latency = HistogramSnapshot.of(metrics.getLatency());
+        metrics.getEndpointLatency().forEach((endpoint, histogram) ->
+                snapshot.endpointLatency.put(endpoint, HistogramSnapshot.of(histogram)));
+        OutcomeCounters outcomes = metrics.getOutcomes();
+        for (OutcomeCounters.OutcomeRow row : outcomes.rows()) {
+            snapshot.outcomes.add(new OutcomeCount(row.getEndpoint(), row.getStatus(), row.getCode(), row.getCategory(), row.getCount()));
+        }
+        snapshot.exemplars = outcomes.exemplars();
+
+        ThroughputTimeline timeline = metrics.getTimeline();
+        int length = timeline.length();
+        snapshot.timelineSuccess = new long[length];
+        snapshot.timelineFailure = new long[length];
+        for (int i = 0; i < length; i++) {
+            snapshot.timelineSuccess[i] = timeline.successAt(i);
+            snapshot.timelineFailure[i] = timeline.failureAt(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 累加到汇总指标中，时间线按开始时间的差值对齐到秒
+     */
+    public void mergeInto(LoadMetrics target) {
+        target.getLatency().merge(latency.toHistogram());
+        endpointLatency.forEach((endpoint, histogram) -> target.getEndpointLatency()
+                .computeIfAbsent(endpoint, k -> new LatencyHistogram()).merge(histogram.toHistogram()));
+        for (OutcomeCount row : outcomes) {
+            target.getOutcomes().add(row.getEndpoint(), row.getStatus(), row.getCode(), row.getCategory(), row.getCount());
+        }
+        exemplars.forEach((code, bodies) -> bodies.forEach(body -> target.getOutcomes().addExemplar(code, body)));
+
+        int offset = (int) Math.round((startMillis - target.getStartMillis()) / 1000.0);
+        for (int i = 0; i < timelineSuccess.length; i++) {
+            target.getTimeline().add(offset + i, timelineSuccess[i], timelineFailure[i]);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HistogramSnapshot {
+        private long[] bucketCounts;
+        private long totalMicros;
+        private long maxMicros;
+
+        static HistogramSnapshot of(LatencyHistogram histogram) {
+            return new HistogramSnapshot(histogram.bucketCounts(), histogram.getTotalMicros(), histogram.getMaxMicros());
+        }
+
+        LatencyHistogram toHistogram() {
+            return LatencyHistogram.fromBucketCounts(bucketCounts, totalMicros, maxMicros);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OutcomeCount {
+        private String endpoint;
+        private int status;
+        private String code;
+        private OutcomeCategory category;
+        private long count;
+    }
+}
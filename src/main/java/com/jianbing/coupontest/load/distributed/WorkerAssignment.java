@@ -0,0 +1,38 @@
+package com.jianbing.coupontest.load.distributed;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Coordinator 下发给单个 Worker 的任务：负责的用户切片、线程数与分摊后的目标速率
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkerAssignment {
+    private int workerIndex;
+    private int workerCount;
+    private String scenario;
+
+    // ---------- 抢券场景 ----------
+    private String engineUrl;
+    private String templateId;
+    private String shopNumber;
+
+    // ---------- 发压参数 ----------
+    private int threads;
+    /**
+     * 本 Worker 的目标速率 (req/s)，0 表示不限速
+     */
+    private double targetRate;
+    /**
+     * 单个请求的截止时间 (毫秒)
+     */
+    private int timeoutMillis;
+    private List<String> userIds;
+}
@@ -0,0 +1,23 @@
+package com.jianbing.coupontest.load.distributed;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Worker 压测结束后上报的结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkerReport {
+    private int workerIndex;
+    private String host;
+    private MetricsSnapshot metrics;
+    /**
+     * 抢券成功的用户，用于汇总后的一致性校验
+     */
+    private List<String> successUserIds;
+}
@@ -0,0 +1,219 @@
+package com.jianbing.coupontest.load.fault;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本机回环 TCP 故障代理
+ * 压测请求发往 {@link #getUrl()}，代理透传到真实引擎，并按 {@link FaultSchedule} 在指定时间窗内
+ * 注入延迟尖刺、连接重置与带宽限制，用于验证客户端超时是否生效、故障下是否出现不一致。
+ * <p>
+ * 故障按数据块生效：每个连接两个方向各一个转发线程，读到一块数据后先判定当前时间窗再转发，
+ * 因此已建立的 keep-alive 连接同样会受到后续时间窗的影响。
+ */
+@Slf4j
+public class FaultProxy implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String targetHost;
+    private final int targetPort;
+    private final FaultSchedule schedule;
+    private final ServerSocket serverSocket;
+    private final ExecutorService pumps;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final long startNanos;
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong delayedChunks = new AtomicLong();
+    private final AtomicLong throttledBytes = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * 创建后立即开始监听，时间表从此刻起计时
+     */
+    public FaultProxy(String targetHost, int targetPort, FaultSchedule schedule) throws IOException {
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        this.schedule = schedule;
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        this.pumps = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "fault-proxy-pump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.startNanos = System.nanoTime();
+        Thread acceptor = new Thread(this::acceptLoop, "fault-proxy-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info(">>> [故障代理] 127.0.0.1:{} -> {}:{}，故障时间表:\n{}", getPort(), targetHost, targetPort, schedule.describe());
+    }
+
+    /**
+     * 以 http://host:port 形式的目标地址创建代理
+     */
+    public static FaultProxy forUrl(String url, FaultSchedule schedule) throws IOException {
+        URI uri = URI.create(url);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+        return new FaultProxy(uri.getHost(), port, schedule);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    public FaultSchedule getSchedule() {
+        return schedule;
+    }
+
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 当前所处故障阶段，压测时可作为 endpoint 维度区分各阶段的延迟与错误码
+     */
+    public String currentPhase() {
+        return schedule.phaseAt(elapsedMillis());
+    }
+
+    public String stats() {
+        return String.format("connections=%d, resets=%d, delayedChunks=%d, throttledBytes=%d",
+                connections.get(), resets.get(), delayedChunks.get(), throttledBytes.get());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeQuietly(serverSocket);
+        for (Socket socket : sockets) {
+            closeQuietly(socket);
+        }
+        pumps.shutdownNow();
+        log.info(">>> [故障代理] 已关闭: {}", stats());
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn(">>> [故障代理] accept 失败: {}", e.getMessage());
+                }
+                return;
+            }
+            connections.incrementAndGet();
+            sockets.add(client);
+            if (schedule.active(FaultSchedule.Type.RESET, elapsedMillis()) != null) {
+                reset(client, null);
+                continue;
+            }
+            Socket upstream = new Socket();
+            try {
+                upstream.connect(new InetSocketAddress(targetHost, targetPort), 5000);
+                upstream.setTcpNoDelay(true);
+                client.setTcpNoDelay(true);
+            } catch (IOException e) {
+                log.warn(">>> [故障代理] 连接目标 {}:{} 失败: {}", targetHost, targetPort, e.getMessage());
+                closeQuietly(upstream);
+                closeQuietly(client);
+                sockets.remove(client);
+                continue;
+            }
+            sockets.add(upstream);
+            pumps.execute(() -> pump(client, upstream, false));
+            pumps.execute(() -> pump(upstream, client, true));
+        }
+    }
+
+    /**
+     * @param response true 表示服务端 -> 客户端方向，延迟尖刺只作用于该方向
+     */
+    private void pump(Socket from, Socket to, boolean response) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            while (!closed) {
+                FaultSchedule.Fault bandwidth = schedule.active(FaultSchedule.Type.BANDWIDTH, elapsedMillis());
+                // 限速时每次只读约 100ms 的配额，使字节流均匀而不是整块突发
+                int limit = bandwidth == null ? buffer.length
+                        : (int) Math.max(1, Math.min(buffer.length, bandwidth.value() / 10));
+                int n = in.read(buffer, 0, limit);
+                if (n < 0) {
+                    break;
+                }
+                long elapsed = elapsedMillis();
+                if (schedule.active(FaultSchedule.Type.RESET, elapsed) != null) {
+                    reset(from, to);
+                    return;
+                }
+                FaultSchedule.Fault latency = response ? schedule.active(FaultSchedule.Type.LATENCY, elapsed) : null;
+                if (latency != null) {
+                    delayedChunks.incrementAndGet();
+                    Thread.sleep(latency.value());
+                }
+                if (bandwidth != null && bandwidth.value() > 0) {
+                    throttledBytes.addAndGet(n);
+                    Thread.sleep(n * 1000L / bandwidth.value());
+                }
+                out.write(buffer, 0, n);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // 对端关闭或被重置，结束转发
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+            sockets.remove(from);
+            sockets.remove(to);
+        }
+    }
+
+    /**
+     * SO_LINGER=0 后关闭，内核发送 RST 而不是 FIN，客户端表现为 Connection reset
+     */
+    private void reset(Socket client, Socket other) {
+        resets.incrementAndGet();
+        for (Socket socket : new Socket[]{client, other}) {
+            if (socket == null) {
+                continue;
+            }
+            try {
+                socket.setSoLinger(true, 0);
+            } catch (IOException ignored) {
+                // 已关闭的连接无需重置
+            }
+            closeQuietly(socket);
+            sockets.remove(socket);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // 关闭失败不影响压测
+        }
+    }
+}
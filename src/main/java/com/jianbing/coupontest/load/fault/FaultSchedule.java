@@ -0,0 +1,120 @@
+package com.jianbing.coupontest.load.fault;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 故障时间表：相对代理启动时刻的若干时间窗，每个时间窗注入一种故障
+ * 时间窗可以重叠，同类故障取最先登记的一个
+ */
+public class FaultSchedule {
+
+    public static final String NORMAL = "normal";
+
+    public enum Type {
+        /**
+         * 服务端返回的每个数据块延迟 value 毫秒 (延迟尖刺)
+         */
+        LATENCY,
+        /**
+         * 新建及活跃连接被 RST 重置
+         */
+        RESET,
+        /**
+         * 每个连接每个方向限速 value 字节/秒
+         */
+        BANDWIDTH
+    }
+
+    public record Fault(Type type, long fromMillis, long toMillis, long value) {
+
+        boolean activeAt(long elapsedMillis) {
+            return elapsedMillis >= fromMillis && elapsedMillis < toMillis;
+        }
+
+        String label() {
+            return switch (type) {
+                case LATENCY -> "latency-" + value + "ms";
+                case RESET -> "reset";
+                case BANDWIDTH -> "bandwidth-" + value + "Bps";
+            };
+        }
+    }
+
+    private final List<Fault> faults;
+
+    private FaultSchedule(List<Fault> faults) {
+        this.faults = List.copyOf(faults);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 不注入任何故障，代理只做透传
+     */
+    public static FaultSchedule none() {
+        return new FaultSchedule(List.of());
+    }
+
+    public List<Fault> getFaults() {
+        return faults;
+    }
+
+    public Fault active(Type type, long elapsedMillis) {
+        for (Fault fault : faults) {
+            if (fault.type() == type && fault.activeAt(elapsedMillis)) {
+                return fault;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 某时刻所处阶段的名称，用作统计维度 (例如 "latency-300ms+bandwidth-2048Bps")
+     */
+    public String phaseAt(long elapsedMillis) {
+        StringBuilder sb = new StringBuilder();
+        for (Fault fault : faults) {
+            if (fault.activeAt(elapsedMillis)) {
+                sb.append(sb.length() == 0 ? "" : "+").append(fault.label());
+            }
+        }
+        return sb.length() == 0 ? NORMAL : sb.toString();
+    }
+
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (Fault fault : faults) {
+            sb.append(String.format("%6.1fs ~ %6.1fs  %s%n", fault.fromMillis() / 1000.0, fault.toMillis() / 1000.0, fault.label()));
+        }
+        return sb.toString();
+    }
+
+    public static class Builder {
+        private final List<Fault> faults = new ArrayList<>();
+
+        public Builder latency(int fromSecond, int toSecond, long delayMillis) {
+            return add(Type.LATENCY, fromSecond, toSecond, delayMillis);
+        }
+
+        public Builder reset(int fromSecond, int toSecond) {
+            return add(Type.RESET, fromSecond, toSecond, 0);
+        }
+
+        public Builder bandwidth(int fromSecond, int toSecond, long bytesPerSecond) {
+            return add(Type.BANDWIDTH, fromSecond, toSecond, bytesPerSecond);
+        }
+
+        public FaultSchedule build() {
+            return new FaultSchedule(faults);
+        }
+
+        private Builder add(Type type, int fromSecond, int toSecond, long value) {
+            faults.add(new Fault(type, TimeUnit.SECONDS.toMillis(fromSecond), TimeUnit.SECONDS.toMillis(toSecond), value));
+            return this;
+        }
+    }
+}
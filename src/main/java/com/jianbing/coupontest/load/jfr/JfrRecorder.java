@@ -0,0 +1,206 @@
+package com.jianbing.coupontest.load.jfr;
+
+import io.qameta.allure.Allure;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 压测端 Java Flight Recorder 录制
+ * 使用 JDK 自带的 profile 配置 (10ms 方法采样、分配采样、锁竞争、GC)，并启用本包的自定义事件，
+ * 录制结束后生成热点方法 / 分配 / 停顿摘要，与 .jfr 文件一起挂到 Allure，
+ * 用于判断延迟尖刺是压测端自身卡顿 (GC、锁、线程饥饿) 还是服务端变慢。
+ * <p>
+ * -Dload.jfr=true 开启 (LoadPlan.recordJfr 的默认值)
+ */
+@Slf4j
+public class JfrRecorder {
+
+    private static final Path OUTPUT_DIR = Path.of("target", "jfr");
+    private static final int TOP = 15;
+
+    private final String name;
+    private final Path file;
+    private final Recording recording;
+    private boolean stopped;
+
+    private JfrRecorder(String name, Path file, Recording recording) {
+        this.name = name;
+        this.file = file;
+        this.recording = recording;
+    }
+
+    public static boolean isRequested() {
+        return Boolean.getBoolean("load.jfr");
+    }
+
+    /**
+     * 开始录制；JFR 不可用 (例如 JVM 禁用) 时记录告警并返回 null，不影响压测
+     */
+    public static JfrRecorder start(String name) {
+        try {
+            Files.createDirectories(OUTPUT_DIR);
+            String fileName = name.replaceAll("[^\\w\\u4e00-\\u9fa5-]", "_") + "-"
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr";
+            Path file = OUTPUT_DIR.resolve(fileName);
+            Recording recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setName(name);
+            recording.setToDisk(true);
+            recording.setDestination(file);
+            recording.enable(RequestEvent.class);
+            recording.enable(VerificationPollEvent.class);
+            recording.enable(PhaseEvent.class);
+            recording.start();
+            log.info(">>> [JFR] {} 开始录制: {}", name, file.toAbsolutePath());
+            return new JfrRecorder(name, file, recording);
+        } catch (Exception e) {
+            log.warn(">>> [JFR] {} 无法开始录制: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 停止录制并写出 .jfr 文件
+     */
+    public synchronized Path stop() {
+        if (!stopped) {
+            stopped = true;
+            recording.stop();
+            recording.close();
+            log.info(">>> [JFR] {} 录制结束: {}", name, file.toAbsolutePath());
+        }
+        return file;
+    }
+
+    /**
+     * 停止录制，把 .jfr 文件与摘要挂到 Allure
+     */
+    public void stopAndAttach() {
+        attach(name, stop());
+    }
+
+    public static void attach(String name, Path path) {
+        String summary = summarize(path);
+        log.info(">>> [JFR] {} 摘要:\n{}", name, summary);
+        Allure.addAttachment(name + " - JFR 摘要", "text/plain", summary, ".txt");
+        try (InputStream in = Files.newInputStream(path)) {
+            Allure.addAttachment(name + " - JFR 录制", "application/octet-stream", in, ".jfr");
+        } catch (IOException e) {
+            log.warn(">>> [JFR] 附加录制文件失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 热点方法 (栈顶采样数)、分配热点 (按采样权重)、GC / 锁停顿、最慢的请求与阶段边界
+     */
+    public static String summarize(Path path) {
+        Map<String, Long> hotMethods = new HashMap<>();
+        Map<String, Long> allocations = new HashMap<>();
+        long samples = 0;
+        long gcCount = 0;
+        Duration gcTotal = Duration.ZERO;
+        Duration gcMax = Duration.ZERO;
+        long lockCount = 0;
+        Duration lockTotal = Duration.ZERO;
+        long requests = 0;
+        long polls = 0;
+        PriorityQueue<RecordedEvent> slowest = new PriorityQueue<>(Comparator.comparing(RecordedEvent::getDuration));
+        StringBuilder phases = new StringBuilder();
+        Instant origin = null;
+        try (RecordingFile file = new RecordingFile(path)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (origin == null || event.getStartTime().isBefore(origin)) {
+                    origin = event.getStartTime();
+                }
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        samples++;
+                        String method = topFrame(event.getStackTrace());
+                        if (method != null) {
+                            hotMethods.merge(method, 1L, Long::sum);
+                        }
+                    }
+                    case "jdk.ObjectAllocationSample" ->
+                            allocations.merge(event.getClass("objectClass").getName(), event.getLong("weight"), Long::sum);
+                    case "jdk.GarbageCollection" -> {
+                        gcCount++;
+                        gcTotal = gcTotal.plus(event.getDuration());
+                        gcMax = event.getDuration().compareTo(gcMax) > 0 ? event.getDuration() : gcMax;
+                    }
+                    case "jdk.JavaMonitorEnter" -> {
+                        lockCount++;
+                        lockTotal = lockTotal.plus(event.getDuration());
+                    }
+                    case "coupontest.Request" -> {
+                        requests++;
+                        slowest.offer(event);
+                        if (slowest.size() > 10) {
+                            slowest.poll();
+                        }
+                    }
+                    case "coupontest.VerificationPoll" -> polls++;
+                    case "coupontest.Phase" -> phases.append(String.format("  %-20s %-16s start=%s duration=%dms%n",
+                            event.getString("scenario"), event.getString("phase"), event.getStartTime(),
+                            event.getDuration().toMillis()));
+                    default -> {
+                    }
+                }
+            }
+        } catch (IOException e) {
+            return "JFR 文件解析失败: " + e.getMessage();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("文件: %s%n方法采样 %d 次, 请求事件 %d 个, 校验轮询 %d 次%n", path.toAbsolutePath(), samples, requests, polls));
+        sb.append(String.format("GC %d 次, 累计 %dms, 最长 %dms; 锁竞争 %d 次, 累计 %dms%n",
+                gcCount, gcTotal.toMillis(), gcMax.toMillis(), lockCount, lockTotal.toMillis()));
+        sb.append(System.lineSeparator()).append("阶段:").append(System.lineSeparator()).append(phases);
+        sb.append(System.lineSeparator()).append("热点方法 (栈顶采样):").append(System.lineSeparator());
+        appendTop(sb, hotMethods, samples, "");
+        sb.append(System.lineSeparator()).append("分配热点 (采样权重):").append(System.lineSeparator());
+        appendTop(sb, allocations, allocations.values().stream().mapToLong(Long::longValue).sum(), "B");
+        sb.append(System.lineSeparator()).append("最慢的请求 (相对录制开始):").append(System.lineSeparator());
+        List<RecordedEvent> slow = slowest.stream().sorted(Comparator.<RecordedEvent, Duration>comparing(RecordedEvent::getDuration).reversed()).toList();
+        for (RecordedEvent event : slow) {
+            sb.append(String.format("  +%8dms %8dms %-40s %s%n",
+                    Duration.between(origin, event.getStartTime()).toMillis(), event.getDuration().toMillis(),
+                    event.getString("endpoint"), event.getString("category")));
+        }
+        return sb.toString();
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return null;
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private static void appendTop(StringBuilder sb, Map<String, Long> counts, long total, String unit) {
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP)
+                .forEach(entry -> sb.append(String.format("  %6.2f%% %14d%s  %s%n",
+                        total == 0 ? 0 : entry.getValue() * 100.0 / total, entry.getValue(), unit, entry.getKey())));
+    }
+}
@@ -0,0 +1,38 @@
+package com.jianbing.coupontest.load.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 压测阶段 (预热 / 正式统计 / 等待消费等)，开始与结束时刻即阶段边界
+ */
+@Name("coupontest.Phase")
+@Label("Load Phase")
+@Category({"Coupontest", "Load"})
+@Description("压测阶段边界")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+
+    @Label("Scenario")
+    String scenario;
+
+    @Label("Phase")
+    String phase;
+
+    public static PhaseEvent start(String scenario, String phase) {
+        PhaseEvent event = new PhaseEvent();
+        event.scenario = scenario;
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    public void complete() {
+        end();
+        commit();
+    }
+}
@@ -0,0 +1,56 @@
+package com.jianbing.coupontest.load.jfr;
+
+import com.jianbing.coupontest.load.Outcome;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次压测请求 (发出 -> 收到响应)，持续时间即客户端观测到的延迟
+ * 没有进行中的 JFR 录制时 begin/commit 几乎无开销
+ */
+@Name("coupontest.Request")
+@Label("Load Request")
+@Category({"Coupontest", "Load"})
+@Description("压测请求从发出到收到响应")
+@StackTrace(false)
+public class RequestEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("HTTP Status")
+    int status;
+
+    @Label("Code")
+    String code;
+
+    @Label("Category")
+    String category;
+
+    /**
+     * 在发出请求前调用
+     */
+    public static RequestEvent start() {
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 收到响应 (或异常分类) 后调用
+     */
+    public void complete(Outcome outcome) {
+        end();
+        if (shouldCommit()) {
+            endpoint = outcome.getEndpoint();
+            status = outcome.getStatus();
+            code = outcome.getCode();
+            category = outcome.getCategory() == null ? null : outcome.getCategory().name();
+            commit();
+        }
+    }
+}
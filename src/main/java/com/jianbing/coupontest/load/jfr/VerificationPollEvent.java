@@ -0,0 +1,48 @@
+package com.jianbing.coupontest.load.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一轮一致性校验轮询 (例如检查 MQ 消费进度)，持续时间为本轮检查耗时
+ */
+@Name("coupontest.VerificationPoll")
+@Label("Verification Poll")
+@Category({"Coupontest", "Verification"})
+@Description("一致性校验的一轮轮询")
+@StackTrace(false)
+public class VerificationPollEvent extends Event {
+
+    @Label("Target")
+    String target;
+
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Confirmed")
+    long confirmed;
+
+    @Label("Expected")
+    long expected;
+
+    public static VerificationPollEvent start(String target, int attempt) {
+        VerificationPollEvent event = new VerificationPollEvent();
+        event.target = target;
+        event.attempt = attempt;
+        event.begin();
+        return event;
+    }
+
+    public void complete(long confirmed, long expected) {
+        end();
+        if (shouldCommit()) {
+            this.confirmed = confirmed;
+            this.expected = expected;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.jianbing.coupontest.load.jmx;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * CSV 数据源，对应 JMeter CSVDataSet 的 "所有线程共享" 模式
+ * 文件一次性读入内存，各线程通过原子游标取行
+ */
+public class CsvFeed {
+
+    private final List<String> names;
+    private final List<String[]> rows;
+    private final boolean recycle;
+    private final AtomicLong cursor = new AtomicLong();
+
+    private CsvFeed(List<String> names, List<String[]> rows, boolean recycle) {
+        this.names = names;
+        this.rows = rows;
+        this.recycle = recycle;
+    }
+
+    /**
+     * @param baseDir 相对路径的基准目录 (通常是 jmx 文件所在目录)
+     */
+    public static CsvFeed open(JmxTestPlan.CsvDataSet config, Path baseDir) {
+        Path file = Path.of(config.getFilename());
+        if (!file.isAbsolute() && baseDir != null) {
+            file = baseDir.resolve(file);
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("CSV 数据文件读取失败: " + file, e);
+        }
+        Pattern splitter = Pattern.compile(Pattern.quote(config.getDelimiter()));
+        List<String> names = config.getVariableNames() == null ? new ArrayList<>() : new ArrayList<>(config.getVariableNames());
+        int from = 0;
+        if (names.isEmpty() && !lines.isEmpty()) {
+            // 未声明变量名时，首行即变量名
+            names = List.of(splitter.split(lines.get(0).trim()));
+            from = 1;
+        } else if (config.isIgnoreFirstLine()) {
+            from = 1;
+        }
+        List<String[]> rows = new ArrayList<>(Math.max(lines.size() - from, 0));
+        for (int i = from; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (!line.isEmpty()) {
+                rows.add(splitter.split(line));
+            }
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("CSV 数据文件为空: " + file);
+        }
+        return new CsvFeed(names, rows, config.isRecycle());
+    }
+
+    /**
+     * @return 下一行 (变量名 -> 值)；不循环且已读完时返回 null
+     */
+    public Map<String, String> next() {
+        long index = cursor.getAndIncrement();
+        if (!recycle && index >= rows.size()) {
+            return null;
+        }
+        String[] row = rows.get((int) (index % rows.size()));
+        Map<String, String> vars = new HashMap<>(names.size() * 2);
+        for (int i = 0; i < names.size() && i < row.length; i++) {
+            vars.put(names.get(i), row[i]);
+        }
+        return vars;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+}
@@ -0,0 +1,126 @@
+package com.jianbing.coupontest.load.jmx;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JMeter .jmx 脚本解析器
+ * 只解析本项目脚本用到的元素：ThreadGroup、HTTPSamplerProxy、HeaderManager、CSVDataSet，
+ * 每类元素取脚本中的第一个
+ */
+public class JmxPlanLoader {
+
+    private JmxPlanLoader() {
+    }
+
+    public static JmxTestPlan load(Path jmxFile) {
+        Document doc;
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            doc = factory.newDocumentBuilder().parse(jmxFile.toFile());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("JMX 脚本解析失败: " + jmxFile, e);
+        }
+
+        Element threadGroup = firstElement(doc, "ThreadGroup");
+        Element sampler = firstElement(doc, "HTTPSamplerProxy");
+        if (threadGroup == null || sampler == null) {
+            throw new IllegalArgumentException("JMX 脚本缺少 ThreadGroup 或 HTTPSamplerProxy: " + jmxFile);
+        }
+
+        boolean scheduler = Boolean.parseBoolean(prop(threadGroup, "ThreadGroup.scheduler", "false"));
+        boolean forever = Boolean.parseBoolean(prop(threadGroup, "LoopController.continue_forever", "false"));
+        long loops = Long.parseLong(prop(threadGroup, "LoopController.loops", "1"));
+
+        Element testPlan = firstElement(doc, "TestPlan");
+        return JmxTestPlan.builder()
+                .name(testPlan == null ? jmxFile.getFileName().toString() : testPlan.getAttribute("testname"))
+                .threads(Integer.parseInt(prop(threadGroup, "ThreadGroup.num_threads", "1")))
+                .rampUpSeconds(Integer.parseInt(prop(threadGroup, "ThreadGroup.ramp_time", "0")))
+                .loops(forever || loops < 0 ? -1 : loops)
+                .durationSeconds(scheduler ? Long.parseLong(prop(threadGroup, "ThreadGroup.duration", "0")) : 0)
+                .samplerName(sampler.getAttribute("testname"))
+                .protocol(prop(sampler, "HTTPSampler.protocol", "http"))
+                .domain(prop(sampler, "HTTPSampler.domain", "127.0.0.1"))
+                .port(prop(sampler, "HTTPSampler.port", ""))
+                .path(prop(sampler, "HTTPSampler.path", "/"))
+                .method(prop(sampler, "HTTPSampler.method", "GET"))
+                .body(prop(sampler, "Argument.value", null))
+                .headers(headers(firstElement(doc, "HeaderManager")))
+                .csvDataSet(csvDataSet(firstElement(doc, "CSVDataSet")))
+                .build();
+    }
+
+    private static Map<String, String> headers(Element headerManager) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (headerManager == null) {
+            return headers;
+        }
+        NodeList children = headerManager.getElementsByTagName("elementProp");
+        for (int i = 0; i < children.getLength(); i++) {
+            Element header = (Element) children.item(i);
+            String name = prop(header, "Header.name", null);
+            if (name != null) {
+                headers.put(name, prop(header, "Header.value", ""));
+            }
+        }
+        return headers;
+    }
+
+    private static JmxTestPlan.CsvDataSet csvDataSet(Element csv) {
+        if (csv == null) {
+            return null;
+        }
+        String variableNames = prop(csv, "variableNames", "");
+        String delimiter = prop(csv, "delimiter", ",");
+        List<String> names = variableNames.isBlank() ? new ArrayList<>()
+                : new ArrayList<>(Arrays.asList(variableNames.split("\\s*,\\s*")));
+        return JmxTestPlan.CsvDataSet.builder()
+                .filename(prop(csv, "filename", ""))
+                .variableNames(names)
+                .delimiter("\\t".equals(delimiter) ? "\t" : delimiter)
+                .ignoreFirstLine(Boolean.parseBoolean(prop(csv, "ignoreFirstLine", "false")))
+                .recycle(Boolean.parseBoolean(prop(csv, "recycle", "true")))
+                .build();
+    }
+
+    private static Element firstElement(Document doc, String tag) {
+        NodeList nodes = doc.getElementsByTagName(tag);
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element element = (Element) nodes.item(i);
+            // 跳过被禁用的元素
+            if (!"false".equals(element.getAttribute("enabled"))) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在元素子树中查找 name 属性匹配的 xxxProp 节点
+     */
+    private static String prop(Element scope, String name, String defaultValue) {
+        NodeList nodes = scope.getElementsByTagName("*");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node instanceof Element element && element.getTagName().endsWith("Prop")
+                    && name.equals(element.getAttribute("name"))) {
+                return element.getTextContent().trim();
+            }
+        }
+        return defaultValue;
+    }
+}
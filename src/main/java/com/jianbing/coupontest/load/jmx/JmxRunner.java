@@ -0,0 +1,98 @@
+package com.jianbing.coupontest.load.jmx;
+
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 在进程内执行 JMeter 脚本
+ * 线程组 / 取样器 / CSV 配置映射到 LoadEngine + HttpSampler，结果进入统一的 LoadMetrics 报告流程
+ */
+@Slf4j
+public class JmxRunner {
+
+    private final JmxTestPlan plan;
+    private final Path baseDir;
+    private final HttpSampler sampler = new HttpSampler();
+    private String baseUrlOverride;
+    private volatile LoadEngine engine;
+
+    public JmxRunner(JmxTestPlan plan, Path baseDir) {
+        this.plan = plan;
+        this.baseDir = baseDir;
+    }
+
+    public static JmxRunner fromFile(Path jmxFile) {
+        return new JmxRunner(JmxPlanLoader.load(jmxFile), jmxFile.toAbsolutePath().getParent());
+    }
+
+    public JmxTestPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * 覆盖脚本中写死的协议/域名/端口 (例如使用 EnvConfig 中的 engineUrl)
+     */
+    public JmxRunner baseUrl(String baseUrl) {
+        this.baseUrlOverride = baseUrl;
+        return this;
+    }
+
+    public LoadEngine getEngine() {
+        return engine;
+    }
+
+    public LoadMetrics run() throws InterruptedException {
+        CsvFeed feed = plan.getCsvDataSet() == null ? null : CsvFeed.open(plan.getCsvDataSet(), baseDir);
+        String url = (baseUrlOverride != null ? baseUrlOverride : plan.baseUrl()) + plan.getPath();
+        String endpoint = plan.getPath();
+        String method = plan.getMethod().toUpperCase();
+        log.info(">>> [JMX] {} -> {} {}, threads={}, rampUp={}s, loops={}, csv={}", plan.getName(), method, url,
+                plan.getThreads(), plan.getRampUpSeconds(), plan.getLoops(), feed == null ? "无" : feed.size() + "行");
+
+        // 不含变量的请求直接复用同一个 HttpRequest
+        HttpRequest fixedRequest = feed == null
+                ? HttpSampler.jsonRequest(method, url, plan.getBody(), plan.getHeaders()) : null;
+
+        engine = new LoadEngine(LoadPlan.builder()
+                .name(plan.getName())
+                .threads(plan.getThreads())
+                .rampUpSeconds(plan.getRampUpSeconds())
+                .loops(plan.getLoops())
+                .durationSeconds(plan.getDurationSeconds())
+                .build());
+        return engine.run((threadIndex, iteration) -> {
+            if (fixedRequest != null) {
+                return sampler.send(fixedRequest, endpoint);
+            }
+            Map<String, String> vars = feed.next();
+            if (vars == null) {
+                return null;
+            }
+            Map<String, String> headers = new LinkedHashMap<>(plan.getHeaders().size() * 2);
+            plan.getHeaders().forEach((name, value) -> headers.put(name, render(value, vars)));
+            return sampler.send(HttpSampler.jsonRequest(method, url, render(plan.getBody(), vars), headers), endpoint);
+        });
+    }
+
+    /**
+     * 替换 ${var} 形式的 JMeter 变量
+     */
+    static String render(String template, Map<String, String> vars) {
+        if (template == null || template.indexOf("${") < 0) {
+            return template;
+        }
+        String result = template;
+        for (Map.Entry<String, String> entry : vars.entrySet()) {
+            result = result.replace("${" + entry.getKey() + "}", entry.getValue());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package com.jianbing.coupontest.load.jmx;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从 JMeter 脚本中解析出的压测配置 (线程组 + HTTP 取样器 + 信息头 + CSV 数据源)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JmxTestPlan {
+    private String name;
+
+    // ---------- 线程组 ----------
+    private int threads;
+    private int rampUpSeconds;
+    /**
+     * 每线程循环次数，-1 表示永远循环
+     */
+    private long loops;
+    /**
+     * 线程组持续时间 (秒)，0 表示未配置
+     */
+    private long durationSeconds;
+
+    // ---------- HTTP 取样器 ----------
+    private String samplerName;
+    private String protocol;
+    private String domain;
+    private String port;
+    private String path;
+    private String method;
+    private String body;
+
+    // ---------- HTTP 信息头管理器 ----------
+    @Builder.Default
+    private Map<String, String> headers = new LinkedHashMap<>();
+
+    // ---------- CSV 数据文件设置 (可选) ----------
+    private CsvDataSet csvDataSet;
+
+    public String baseUrl() {
+        String scheme = protocol == null || protocol.isEmpty() ? "http" : protocol.toLowerCase();
+        return port == null || port.isEmpty() ? scheme + "://" + domain : scheme + "://" + domain + ":" + port;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CsvDataSet {
+        private String filename;
+        /**
+         * 变量名，为空时取文件首行
+         */
+        private List<String> variableNames;
+        @Builder.Default
+        private String delimiter = ",";
+        private boolean ignoreFirstLine;
+        /**
+         * 读到文件末尾后是否从头循环
+         */
+        @Builder.Default
+        private boolean recycle = true;
+    }
+}
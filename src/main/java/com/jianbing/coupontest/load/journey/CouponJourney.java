@@ -0,0 +1,180 @@
+package com.jianbing.coupontest.load.journey;
+
+import com.alibaba.fastjson.JSON;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.load.OutcomeCategory;
+import com.jianbing.coupontest.load.ResponseClassifier;
+import com.jianbing.coupontest.load.replay.WorkloadLogWriter;
+import com.jianbing.coupontest.req.CouponTemplateRedeemReq;
+import com.jianbing.coupontest.service.EngineApi;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多步骤用户会话 (压测热路径版本)
+ * 一个会话依次经过模板查询 (缓存)、领券 (Lua 扣库存 + MQ / Canal 落库)、查看券列表，步骤间插入思考时间，
+ * 并按上一步的结果分支：查询失败离开、库存不足离开、可重试错误按配置重试、领取上限直接去看列表。
+ * <p>
+ * 每个步骤的延迟与结果写入 {@link #getStepMetrics()}；{@link #run(String)} 返回的会话结果交给 LoadEngine，
+ * 其延迟为整个会话时长 (含思考时间)，endpoint 为会话去向，例如 journey/redeemed
+ * <p>
+ * 传入 WorkloadLogWriter 时查询与领券请求 (MQ / Canal) 发出前先记入工作负载日志，可用 WorkloadReplayer 重放；
+ * 券列表步骤不是 HTTP 请求，不录制
+ */
+public class CouponJourney {
+
+    public static final String STEP_LIST = "user-coupon-list";
+    private static final String JOURNEY_PREFIX = "journey/";
+
+    /**
+     * 券列表查询：引擎没有列表接口，由调用方实现 (例如读 Redis user-template-list)
+     */
+    @FunctionalInterface
+    public interface ListLookup {
+        /**
+         * @return 用户的券列表中是否已包含该模板的券
+         */
+        boolean contains(String userId) throws Exception;
+    }
+
+    private final String queryUrl;
+    private final String mqUrl;
+    private final String canalUrl;
+    private final String templateId;
+    private final String redeemBody;
+    private final HttpSampler sampler;
+    private final JourneyPlan plan;
+    private final ListLookup listLookup;
+    private final WorkloadLogWriter workloadLog;
+    private final LoadMetrics stepMetrics;
+    private final Map<String, LongAdder> exits = new ConcurrentHashMap<>();
+    private final LongAdder listVisible = new LongAdder();
+    private final LongAdder listNotYetVisible = new LongAdder();
+
+    public CouponJourney(String name, String engineUrl, String templateId, String shopNumber, HttpSampler sampler,
+                         JourneyPlan plan, ListLookup listLookup) {
+        this(name, engineUrl, templateId, shopNumber, sampler, plan, listLookup, null);
+    }
+
+    public CouponJourney(String name, String engineUrl, String templateId, String shopNumber, HttpSampler sampler,
+                         JourneyPlan plan, ListLookup listLookup, WorkloadLogWriter workloadLog) {
+        this.queryUrl = engineUrl + EngineApi.TEMPLATE_QUERY_PATH
+                + "?couponTemplateId=" + URLEncoder.encode(templateId, StandardCharsets.UTF_8)
+                + "&shopNumber=" + URLEncoder.encode(shopNumber, StandardCharsets.UTF_8);
+        this.mqUrl = engineUrl + EngineApi.REDEEM_MQ_PATH;
+        this.canalUrl = engineUrl + EngineApi.REDEEM_CANAL_PATH;
+        this.templateId = templateId;
+        this.redeemBody = JSON.toJSONString(CouponTemplateRedeemReq.builder()
+                .source(0)
+                .shopNumber(shopNumber)
+                .couponTemplateId(templateId)
+                .build());
+        this.sampler = sampler;
+        this.plan = plan;
+        this.listLookup = listLookup;
+        this.workloadLog = workloadLog;
+        this.stepMetrics = new LoadMetrics(name + "-steps");
+    }
+
+    public Outcome run(String userId) throws InterruptedException {
+        // 1. 查看模板
+        Outcome query = step(EngineApi.TEMPLATE_QUERY_PATH, userId,
+                HttpSampler.jsonRequest("GET", queryUrl, null, Map.of()));
+        if (!query.isSuccess()) {
+            return exit("query-failed", query);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < plan.getBrowseOnlyRatio()) {
+            return exit("browse-only", query);
+        }
+        plan.getQueryThink().pause();
+
+        // 2. 领券，可重试错误按配置重试
+        boolean canal = random.nextDouble() < plan.getCanalRatio();
+        String url = canal ? canalUrl : mqUrl;
+        String endpoint = canal ? EngineApi.REDEEM_CANAL_PATH : EngineApi.REDEEM_MQ_PATH;
+        Outcome redeem;
+        int attempt = 0;
+        while (true) {
+            redeem = step(endpoint, userId, HttpSampler.jsonRequest("POST", url, redeemBody, Map.of("userId", userId)));
+            if (!plan.getRetryOn().contains(redeem.getCategory()) || attempt++ >= plan.getMaxRedeemRetries()) {
+                break;
+            }
+            plan.getRetryThink().pause();
+        }
+
+        // 3. 领到或已领过的用户去看券列表，其余离开
+        OutcomeCategory category = redeem.getCategory();
+        if (category != OutcomeCategory.SUCCESS && category != OutcomeCategory.USER_LIMIT) {
+            return exit(category == OutcomeCategory.STOCK_EMPTY ? "stock-empty" : "gave-up", redeem);
+        }
+        plan.getRedeemThink().pause();
+        listStep(userId);
+        return exit(category == OutcomeCategory.SUCCESS ? "redeemed" : "already-redeemed", redeem);
+    }
+
+    /**
+     * 各步骤 (查询 / MQ 领券 / Canal 领券 / 券列表) 的延迟与结果
+     */
+    public LoadMetrics getStepMetrics() {
+        return stepMetrics;
+    }
+
+    /**
+     * 领券后打开列表时，列表里还看不到这张券的次数 (异步落库未完成，读己之写不一致)
+     */
+    public long getListNotYetVisible() {
+        return listNotYetVisible.sum();
+    }
+
+    public long getListVisible() {
+        return listVisible.sum();
+    }
+
+    public String describeExits() {
+        StringBuilder sb = new StringBuilder();
+        long total = exits.values().stream().mapToLong(LongAdder::sum).sum();
+        new TreeMap<>(exits).forEach((exit, count) -> sb.append(String.format("%-20s %10d %7.2f%%%n",
+                exit, count.sum(), total == 0 ? 0 : count.sum() * 100.0 / total)));
+        sb.append(String.format("券列表可见 %d 次, 尚不可见 %d 次%n", listVisible.sum(), listNotYetVisible.sum()));
+        return sb.toString();
+    }
+
+    private Outcome step(String endpoint, String userId, HttpRequest request) throws InterruptedException {
+        if (workloadLog != null) {
+            workloadLog.append(endpoint, userId, templateId);
+        }
+        long start = System.nanoTime();
+        Outcome outcome = sampler.send(request, endpoint);
+        stepMetrics.record(outcome, start, System.nanoTime());
+        return outcome;
+    }
+
+    private void listStep(String userId) {
+        long start = System.nanoTime();
+        Outcome outcome;
+        try {
+            boolean visible = listLookup.contains(userId);
+            (visible ? listVisible : listNotYetVisible).increment();
+            outcome = new Outcome(STEP_LIST, 200, ResponseClassifier.SUCCESS_CODE, null, OutcomeCategory.SUCCESS, null);
+        } catch (Exception e) {
+            outcome = ResponseClassifier.networkError(STEP_LIST, e);
+        }
+        stepMetrics.record(outcome, start, System.nanoTime());
+    }
+
+    private Outcome exit(String reason, Outcome last) {
+        exits.computeIfAbsent(reason, k -> new LongAdder()).increment();
+        return new Outcome(JOURNEY_PREFIX + reason, last.getStatus(), last.getCode(), last.getMessage(),
+                last.getCategory(), last.getBody());
+    }
+}
@@ -0,0 +1,69 @@
+package com.jianbing.coupontest.load.journey;
+
+import com.jianbing.coupontest.load.OutcomeCategory;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 用户会话脚本的行为配比：查询模板 -> (思考) -> MQ / Canal 领券 -> (思考) -> 查看我的券列表
+ * 会话到达速率、并发上限与时长由 LoadPlan 控制 (每次迭代 = 一个会话)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JourneyPlan {
+
+    /**
+     * 只查看模板不领券就离开的会话占比
+     */
+    @Builder.Default
+    private double browseOnlyRatio = 0.2;
+
+    /**
+     * 领券会话中走 Canal 同步链路的占比，其余走 MQ 异步链路
+     */
+    @Builder.Default
+    private double canalRatio = 0.2;
+
+    /**
+     * 查看模板后到点击领券的思考时间
+     */
+    @Builder.Default
+    private ThinkTime queryThink = ThinkTime.uniform(500, 2000);
+
+    /**
+     * 领券成功到打开券列表的思考时间
+     */
+    @Builder.Default
+    private ThinkTime redeemThink = ThinkTime.exponential(1000);
+
+    /**
+     * 领券失败后重试前的等待
+     */
+    @Builder.Default
+    private ThinkTime retryThink = ThinkTime.constant(500);
+
+    /**
+     * 领券失败时最多重试次数
+     */
+    @Builder.Default
+    private int maxRedeemRetries = 1;
+
+    /**
+     * 哪些领券结果会让用户重试，其他失败直接离开
+     */
+    @Builder.Default
+    private Set<OutcomeCategory> retryOn = EnumSet.of(OutcomeCategory.RATE_LIMITED, OutcomeCategory.SERVER_ERROR,
+            OutcomeCategory.NETWORK_ERROR, OutcomeCategory.TIMEOUT);
+
+    public String describe() {
+        return String.format("browseOnly=%.2f, canal=%.2f, queryThink=%s, redeemThink=%s, retryThink=%s, maxRetries=%d, retryOn=%s",
+                browseOnlyRatio, canalRatio, queryThink, redeemThink, retryThink, maxRedeemRetries, retryOn);
+    }
+}
@@ -0,0 +1,109 @@
+package com.jianbing.coupontest.load.journey;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户步骤之间的思考时间分布
+ * 支持从字符串解析，便于通过系统属性配置：
+ * none | const:500 | uniform:200-1500 | exp:800 | normal:800,200 (单位毫秒)
+ */
+public final class ThinkTime {
+
+    private enum Kind { NONE, CONSTANT, UNIFORM, EXPONENTIAL, NORMAL }
+
+    /**
+     * 指数分布的长尾截断为均值的 10 倍，避免个别会话挂起数分钟
+     */
+    private static final double EXPONENTIAL_CAP = 10;
+
+    private final Kind kind;
+    private final long a;
+    private final long b;
+
+    private ThinkTime(Kind kind, long a, long b) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    public static ThinkTime none() {
+        return new ThinkTime(Kind.NONE, 0, 0);
+    }
+
+    public static ThinkTime constant(long millis) {
+        return new ThinkTime(Kind.CONSTANT, millis, 0);
+    }
+
+    public static ThinkTime uniform(long minMillis, long maxMillis) {
+        return new ThinkTime(Kind.UNIFORM, minMillis, Math.max(minMillis, maxMillis));
+    }
+
+    public static ThinkTime exponential(long meanMillis) {
+        return new ThinkTime(Kind.EXPONENTIAL, meanMillis, 0);
+    }
+
+    /**
+     * 截断正态分布 (小于 0 的取 0)
+     */
+    public static ThinkTime normal(long meanMillis, long stdMillis) {
+        return new ThinkTime(Kind.NORMAL, meanMillis, stdMillis);
+    }
+
+    public static ThinkTime parse(String spec) {
+        String value = spec == null ? "" : spec.trim().toLowerCase();
+        if (value.isEmpty() || "none".equals(value) || "0".equals(value)) {
+            return none();
+        }
+        int colon = value.indexOf(':');
+        String type = colon < 0 ? "const" : value.substring(0, colon);
+        String args = colon < 0 ? value : value.substring(colon + 1);
+        try {
+            return switch (type) {
+                case "const" -> constant(Long.parseLong(args));
+                case "uniform" -> {
+                    String[] range = args.split("-");
+                    yield uniform(Long.parseLong(range[0].trim()), Long.parseLong(range[1].trim()));
+                }
+                case "exp" -> exponential(Long.parseLong(args));
+                case "normal" -> {
+                    String[] params = args.split(",");
+                    yield normal(Long.parseLong(params[0].trim()), Long.parseLong(params[1].trim()));
+                }
+                default -> throw new IllegalArgumentException("未知的思考时间分布: " + type);
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("思考时间格式错误: " + spec
+                    + " (none | const:500 | uniform:200-1500 | exp:800 | normal:800,200)", e);
+        }
+    }
+
+    public long sampleMillis() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (kind) {
+            case NONE -> 0;
+            case CONSTANT -> a;
+            case UNIFORM -> a == b ? a : random.nextLong(a, b + 1);
+            case EXPONENTIAL -> (long) Math.min(-Math.log(1 - random.nextDouble()) * a, a * EXPONENTIAL_CAP);
+            case NORMAL -> Math.max(0, Math.round(a + random.nextGaussian() * b));
+        };
+    }
+
+    public void pause() throws InterruptedException {
+        long millis = sampleMillis();
+        if (millis > 0) {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case NONE -> "none";
+            case CONSTANT -> "const:" + a;
+            case UNIFORM -> "uniform:" + a + "-" + b;
+            case EXPONENTIAL -> "exp:" + a;
+            case NORMAL -> "normal:" + a + "," + b;
+        };
+    }
+}
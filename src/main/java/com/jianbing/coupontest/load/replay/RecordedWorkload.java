@@ -0,0 +1,50 @@
+package com.jianbing.coupontest.load.replay;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 读入内存的工作负载 (按偏移量排序)
+ */
+public class RecordedWorkload {
+
+    private final Path file;
+    private final long startEpochMillis;
+    private final List<WorkloadRecord> records;
+
+    RecordedWorkload(Path file, long startEpochMillis, List<WorkloadRecord> records) {
+        this.file = file;
+        this.startEpochMillis = startEpochMillis;
+        this.records = List.copyOf(records);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public List<WorkloadRecord> getRecords() {
+        return records;
+    }
+
+    public long getDurationMicros() {
+        return records.isEmpty() ? 0 : records.get(records.size() - 1).offsetMicros();
+    }
+
+    public String describe() {
+        Map<String, Long> byEndpoint = new TreeMap<>(records.stream()
+                .collect(Collectors.groupingBy(WorkloadRecord::endpoint, Collectors.counting())));
+        long users = records.stream().map(WorkloadRecord::userId).distinct().count();
+        return String.format("%s: 录制于 %s, %d 个请求, %d 个用户, 时长 %.1fs, 平均 %.1f req/s, 接口分布 %s",
+                file.getFileName(), Instant.ofEpochMilli(startEpochMillis), records.size(), users,
+                getDurationMicros() / 1e6, getDurationMicros() == 0 ? 0 : records.size() * 1e6 / getDurationMicros(),
+                byEndpoint);
+    }
+}
@@ -0,0 +1,25 @@
+package com.jianbing.coupontest.load.replay;
+
+/**
+ * 工作负载日志的二进制格式 (只追加)
+ * <pre>
+ * 文件头: magic "CTWL" | version (1 byte) | 录制开始时刻 epochMillis (8 bytes)
+ * 条目:   tag (1 byte) + 内容
+ *   TAG_STRING   varint 长度 + UTF-8，按出现顺序编号进入字符串字典 (接口、模板ID 只写一次)
+ *   TAG_REQUEST  varlong offsetMicros | varint 接口编号 | varint 模板编号 | varlong 数字 userId
+ *   TAG_REQUEST_STRING_USER  同上，但 userId 为 varint 长度 + UTF-8 (非数字用户ID)
+ * </pre>
+ * 一条 MQ 领券请求通常只占 10 ~ 14 字节
+ */
+final class WorkloadLog {
+
+    static final byte[] MAGIC = {'C', 'T', 'W', 'L'};
+    static final int VERSION = 1;
+
+    static final int TAG_STRING = 0;
+    static final int TAG_REQUEST = 1;
+    static final int TAG_REQUEST_STRING_USER = 2;
+
+    private WorkloadLog() {
+    }
+}
@@ -0,0 +1,87 @@
+package com.jianbing.coupontest.load.replay;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 工作负载日志读取器
+ * 多线程写入时条目之间可能有微小乱序，读取后按偏移量重新排序；
+ * 文件尾部不完整的条目 (录制进程被强杀) 直接丢弃
+ */
+public final class WorkloadLogReader {
+
+    private WorkloadLogReader() {
+    }
+
+    public static RecordedWorkload read(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            byte[] magic = new byte[WorkloadLog.MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, WorkloadLog.MAGIC)) {
+                throw new IllegalArgumentException("不是工作负载日志: " + file);
+            }
+            int version = in.readUnsignedByte();
+            if (version != WorkloadLog.VERSION) {
+                throw new IllegalArgumentException("不支持的工作负载日志版本 " + version + ": " + file);
+            }
+            long startEpochMillis = in.readLong();
+
+            List<String> dictionary = new ArrayList<>();
+            List<WorkloadRecord> records = new ArrayList<>();
+            while (true) {
+                int tag = in.read();
+                if (tag < 0) {
+                    break;
+                }
+                try {
+                    switch (tag) {
+                        case WorkloadLog.TAG_STRING -> dictionary.add(readString(in));
+                        case WorkloadLog.TAG_REQUEST, WorkloadLog.TAG_REQUEST_STRING_USER -> {
+                            long offset = readVarLong(in);
+                            String endpoint = dictionary.get((int) readVarLong(in));
+                            String templateId = dictionary.get((int) readVarLong(in));
+                            String userId = tag == WorkloadLog.TAG_REQUEST
+                                    ? String.valueOf(readVarLong(in)) : readString(in);
+                            records.add(new WorkloadRecord(offset, endpoint, userId, templateId));
+                        }
+                        default -> throw new IllegalArgumentException("工作负载日志损坏，未知条目类型 " + tag + ": " + file);
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+            records.sort(Comparator.comparingLong(WorkloadRecord::offsetMicros));
+            return new RecordedWorkload(file, startEpochMillis, records);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取工作负载日志失败: " + file, e);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("varint 过长");
+    }
+}
@@ -0,0 +1,131 @@
+package com.jianbing.coupontest.load.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工作负载日志写入器 (线程安全)
+ * 各压测线程在发出请求前调用 {@link #append}，偏移量以创建时刻为零点；格式见 {@link WorkloadLog}
+ */
+public class WorkloadLogWriter implements AutoCloseable {
+
+    private final Path file;
+    private final DataOutputStream out;
+    private final long startNanos;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private long count;
+
+    public WorkloadLogWriter(Path file) {
+        this.file = file;
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+            out.write(WorkloadLog.MAGIC);
+            out.writeByte(WorkloadLog.VERSION);
+            out.writeLong(System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建工作负载日志失败: " + file, e);
+        }
+        this.startNanos = System.nanoTime();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public void append(String endpoint, String userId, String templateId) {
+        long offsetMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        synchronized (this) {
+            try {
+                int endpointRef = ref(endpoint);
+                int templateRef = ref(templateId);
+                long numericUser = parseUserId(userId);
+                out.writeByte(numericUser >= 0 ? WorkloadLog.TAG_REQUEST : WorkloadLog.TAG_REQUEST_STRING_USER);
+                writeVarLong(offsetMicros);
+                writeVarLong(endpointRef);
+                writeVarLong(templateRef);
+                if (numericUser >= 0) {
+                    writeVarLong(numericUser);
+                } else {
+                    writeString(userId);
+                }
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("写入工作负载日志失败: " + file, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("关闭工作负载日志失败: " + file, e);
+        }
+    }
+
+    private int ref(String value) throws IOException {
+        String key = value == null ? "" : value;
+        Integer ref = dictionary.get(key);
+        if (ref == null) {
+            ref = dictionary.size();
+            dictionary.put(key, ref);
+            out.writeByte(WorkloadLog.TAG_STRING);
+            writeString(key);
+        }
+        return ref;
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * 纯数字、无前导零且不超过 long 范围的用户ID按数字存储，否则返回 -1
+     */
+    private static long parseUserId(String userId) {
+        if (userId == null || userId.isEmpty() || userId.length() > 19 || (userId.length() > 1 && userId.charAt(0) == '0')) {
+            return -1;
+        }
+        for (int i = 0; i < userId.length(); i++) {
+            char c = userId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        try {
+            return Long.parseLong(userId);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.jianbing.coupontest.load.replay;
+
+/**
+ * 工作负载日志中的一次请求
+ *
+ * @param offsetMicros 相对录制开始的发出时刻 (微秒)
+ * @param endpoint     接口路径
+ * @param userId       用户ID
+ * @param templateId   优惠券模板ID
+ */
+public record WorkloadRecord(long offsetMicros, String endpoint, String userId, String templateId) {
+}
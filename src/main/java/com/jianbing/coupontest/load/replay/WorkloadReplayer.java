@@ -0,0 +1,144 @@
+package com.jianbing.coupontest.load.replay;
+
+import com.alibaba.fastjson.JSON;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LatencyHistogram;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.req.CouponTemplateRedeemReq;
+import com.jianbing.coupontest.service.EngineApi;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * 工作负载回放器
+ * 复用 LoadEngine 的线程模型：各线程从共享游标领取下一条记录，睡到 回放起点 + 偏移量 / 倍速 再发出，
+ * 因此请求顺序与间隔与录制时一致，而不受回放线程调度影响。
+ * 线程不够 (全部阻塞在慢请求上) 时请求会晚于计划时刻发出，晚发的时长记入调度滞后直方图，
+ * 滞后明显时说明回放本身失真，应加线程而不是解读结果。
+ * <p>
+ * 对新版本重放同一段突发流量时，模板ID 需要映射到新建的模板，用户ID 可映射到新的命名空间，
+ * 映射必须对同一个原始ID 返回同一个结果，才能保持“同一用户重复领取”这类关系
+ */
+@Slf4j
+public class WorkloadReplayer {
+
+    private final String engineUrl;
+    private final String shopNumber;
+    private final HttpSampler sampler;
+    private final UnaryOperator<String> templateMapper;
+    private final UnaryOperator<String> userMapper;
+    private final Map<String, String> redeemBodies = new ConcurrentHashMap<>();
+    private final LatencyHistogram scheduleLag = new LatencyHistogram();
+    private final Set<String> successUserIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param templateMapper 录制时的模板ID -> 回放目标模板ID
+     * @param userMapper     录制时的用户ID -> 回放用户ID
+     */
+    public WorkloadReplayer(String engineUrl, String shopNumber, HttpSampler sampler,
+                            UnaryOperator<String> templateMapper, UnaryOperator<String> userMapper) {
+        this.engineUrl = engineUrl;
+        this.shopNumber = shopNumber;
+        this.sampler = sampler;
+        this.templateMapper = templateMapper;
+        this.userMapper = userMapper;
+    }
+
+    /**
+     * @param speed   回放倍速，1 为原速，2 为两倍速 (间隔减半)
+     * @param threads 回放线程数，应不少于 峰值速率 × 慢请求耗时
+     */
+    public LoadMetrics replay(String name, RecordedWorkload workload, double speed, int threads) throws InterruptedException {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("回放倍速必须大于 0: " + speed);
+        }
+        List<WorkloadRecord> records = workload.getRecords();
+        records.stream().map(WorkloadRecord::endpoint).distinct().forEach(WorkloadReplayer::checkSupported);
+        log.info(">>> [负载回放] {} 开始: {}, speed={}x, threads={}", name, workload.describe(), speed, threads);
+
+        AtomicInteger cursor = new AtomicInteger();
+        AtomicLong replayStart = new AtomicLong();
+        LoadEngine engine = new LoadEngine(LoadPlan.builder()
+                .name(name)
+                .threads(threads)
+                .loops(-1)
+                .build());
+        // 不设 durationSeconds：回放滞后时按时长截断会丢掉尾部请求，结束由游标耗尽决定
+        LoadMetrics metrics = engine.run((threadIndex, iteration) -> {
+            int index = cursor.getAndIncrement();
+            if (index >= records.size()) {
+                return null;
+            }
+            replayStart.compareAndSet(0, System.nanoTime());
+            WorkloadRecord record = records.get(index);
+            long dueAt = replayStart.get() + (long) (TimeUnit.MICROSECONDS.toNanos(record.offsetMicros()) / speed);
+            long wait = dueAt - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            scheduleLag.record(Math.max(0, System.nanoTime() - dueAt));
+            return send(record);
+        });
+        log.info(">>> [负载回放] {} 结束: 调度滞后 p50={}ms, p99={}ms, max={}ms", name,
+                scheduleLag.percentileMillis(50), scheduleLag.percentileMillis(99), scheduleLag.getMaxMicros() / 1000.0);
+        return metrics;
+    }
+
+    /**
+     * 实际发出时刻相对计划时刻的滞后分布
+     */
+    public LatencyHistogram getScheduleLag() {
+        return scheduleLag;
+    }
+
+    /**
+     * 领券成功的用户 (映射后的ID)
+     */
+    public Set<String> getSuccessUserIds() {
+        return successUserIds;
+    }
+
+    private Outcome send(WorkloadRecord record) throws InterruptedException {
+        String templateId = templateMapper.apply(record.templateId());
+        String userId = userMapper.apply(record.userId());
+        String endpoint = record.endpoint();
+        if (EngineApi.TEMPLATE_QUERY_PATH.equals(endpoint)) {
+            String url = engineUrl + EngineApi.TEMPLATE_QUERY_PATH
+                    + "?couponTemplateId=" + URLEncoder.encode(templateId, StandardCharsets.UTF_8)
+                    + "&shopNumber=" + URLEncoder.encode(shopNumber, StandardCharsets.UTF_8);
+            return sampler.send(HttpSampler.jsonRequest("GET", url, null, Map.of()), endpoint);
+        }
+        String body = redeemBodies.computeIfAbsent(templateId, id -> JSON.toJSONString(CouponTemplateRedeemReq.builder()
+                .source(0)
+                .shopNumber(shopNumber)
+                .couponTemplateId(id)
+                .build()));
+        HttpRequest request = HttpSampler.jsonRequest("POST", engineUrl + endpoint, body, Map.of("userId", userId));
+        Outcome outcome = sampler.send(request, endpoint);
+        if (outcome.isSuccess()) {
+            successUserIds.add(userId);
+        }
+        return outcome;
+    }
+
+    private static void checkSupported(String endpoint) {
+        if (!EngineApi.REDEEM_MQ_PATH.equals(endpoint) && !EngineApi.REDEEM_CANAL_PATH.equals(endpoint)
+                && !EngineApi.TEMPLATE_QUERY_PATH.equals(endpoint)) {
+            throw new IllegalArgumentException("工作负载中包含无法回放的接口: " + endpoint);
+        }
+    }
+}
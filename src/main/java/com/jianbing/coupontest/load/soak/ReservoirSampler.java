@@ -0,0 +1,43 @@
+package com.jianbing.coupontest.load.soak;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 固定容量的蓄水池抽样 (Algorithm R)
+ * 无论流入多少元素，只保留 capacity 个且每个元素被保留的概率相同，用于长时间压测中抽查一致性
+ */
+public class ReservoirSampler<T> {
+
+    private final int capacity;
+    private final List<T> samples;
+    private long seen;
+
+    public ReservoirSampler(int capacity) {
+        this.capacity = capacity;
+        this.samples = new ArrayList<>(capacity);
+    }
+
+    public synchronized void offer(T item) {
+        seen++;
+        if (samples.size() < capacity) {
+            samples.add(item);
+            return;
+        }
+        long slot = ThreadLocalRandom.current().nextLong(seen);
+        if (slot < capacity) {
+            samples.set((int) slot, item);
+        }
+    }
+
+    /**
+     * 取出当前样本并清空，开始下一轮抽样
+     */
+    public synchronized List<T> drain() {
+        List<T> drained = new ArrayList<>(samples);
+        samples.clear();
+        seen = 0;
+        return drained;
+    }
+}
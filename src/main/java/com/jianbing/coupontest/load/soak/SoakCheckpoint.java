@@ -0,0 +1,47 @@
+package com.jianbing.coupontest.load.soak;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 稳定性压测的一个检查点：上一检查点以来的区间指标 + 累计值，按行写入检查点文件
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SoakCheckpoint {
+
+    private int index;
+    private long timestamp;
+    private long elapsedSeconds;
+    /**
+     * 区间内完成的请求数与吞吐
+     */
+    private long intervalRequests;
+    private double intervalThroughput;
+    private double intervalErrorRate;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double maxMillis;
+    private long totalRequests;
+    private long totalErrors;
+    /**
+     * 本检查点抽查的成功样本数及其中未通过一致性校验的数量 (抽查的是上一区间的样本，给异步链路留出时间)
+     */
+    private int sampled;
+    private int sampleMissing;
+    /**
+     * 压测进程自身的堆使用，用于区分被测服务退化与压测端泄漏
+     */
+    private long usedHeapMb;
+    /**
+     * 自定义指标，例如剩余库存
+     */
+    private Map<String, Double> gauges;
+}
@@ -0,0 +1,333 @@
+package com.jianbing.coupontest.load.soak;
+
+import com.alibaba.fastjson.JSON;
+import com.jianbing.coupontest.load.LatencyHistogram;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.OutcomeCategory;
+import com.jianbing.coupontest.load.RunRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 长时间稳定性压测 (Soak) 监控
+ * 内存与运行时长无关：
+ * 1. 延迟只保留引擎的累计直方图，每个检查点用两次桶快照之差得到区间分位值；
+ * 2. 成功用户不全部保存，每个区间蓄水池抽样固定数量，下一个检查点再做一致性校验 (给 MQ 等异步链路留出一个区间)；
+ * 3. 退化趋势用最小二乘在线累计 (只存 5 个累加量)，不保留检查点列表。
+ * 每个检查点追加写入 JSON Lines 文件，进程中途崩溃时已完成的检查点不会丢失
+ */
+@Slf4j
+public class SoakMonitor implements AutoCloseable {
+
+    private final String scenario;
+    private final Supplier<LoadMetrics> metrics;
+    private final Path file;
+    private final long checkpointMillis;
+    private final ReservoirSampler<String> sampler;
+    private final Predicate<String> consistencyCheck;
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final long startNanos = System.nanoTime();
+
+    private LoadMetrics lastMetrics;
+    private long[] lastCounts = new long[LatencyHistogram.BUCKET_COUNT];
+    private long lastTotalMicros;
+    private long lastErrors;
+    private long lastCheckpointNanos = startNanos;
+    private List<String> pending = List.of();
+    private long pendingSinceNanos;
+    private int index;
+    private long totalSampled;
+    private long totalMissing;
+    private SoakCheckpoint firstCheckpoint;
+    private SoakCheckpoint lastCheckpoint;
+    private final Trend p99Trend = new Trend();
+    private final Trend throughputTrend = new Trend();
+    private final Trend heapTrend = new Trend();
+
+    /**
+     * @param metrics            当前指标 (传 engine::getActiveMetrics 时预热切换后自动跟随正式指标)
+     * @param file               检查点文件 (JSON Lines，追加写)
+     * @param checkpointSeconds  检查点间隔
+     * @param samplesPerInterval 每个区间抽查的成功样本数
+     * @param consistencyCheck   样本是否一致 (例如 Redis limit Key 与分表记录都存在)
+     */
+    public SoakMonitor(String scenario, Supplier<LoadMetrics> metrics, Path file, int checkpointSeconds,
+                       int samplesPerInterval, Predicate<String> consistencyCheck) {
+        this.scenario = scenario;
+        this.metrics = metrics;
+        this.file = file;
+        this.checkpointMillis = TimeUnit.SECONDS.toMillis(checkpointSeconds);
+        this.sampler = new ReservoirSampler<>(samplesPerInterval);
+        this.consistencyCheck = consistencyCheck;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "soak-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::safeCheckpoint, checkpointMillis, checkpointMillis, TimeUnit.MILLISECONDS);
+        log.info(">>> [稳定性压测] {} 每 {}s 写一次检查点: {}", scenario, checkpointMillis / 1000, file.toAbsolutePath());
+    }
+
+    /**
+     * 成功的业务键 (例如 userId) 进入抽样，调用方不需要自己保存
+     */
+    public void offerSample(String key) {
+        sampler.offer(key);
+    }
+
+    /**
+     * 每个检查点额外记录的指标；采集失败时该检查点跳过此项
+     */
+    public void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * 写入最后一个检查点：等最后一批样本满一个区间后再校验
+     */
+    @Override
+    public void close() throws InterruptedException {
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        checkpoint();
+        long waitMillis = checkpointMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pendingSinceNanos);
+        if (!pending.isEmpty() && waitMillis > 0) {
+            log.info(">>> [稳定性压测] 等待 {}ms 后校验最后 {} 个样本", waitMillis, pending.size());
+            Thread.sleep(waitMillis);
+        }
+        synchronized (this) {
+            int missing = verify(pending);
+            pending = List.of();
+            log.info(">>> [稳定性压测] {} 结束: 检查点 {} 个, 抽查 {} 个样本, 不一致 {} 个", scenario, index,
+                    totalSampled, totalMissing);
+            if (missing > 0) {
+                log.warn(">>> [稳定性压测] 最后一批样本中 {} 个不一致", missing);
+            }
+        }
+    }
+
+    public long getTotalSampled() {
+        return totalSampled;
+    }
+
+    public long getTotalMissing() {
+        return totalMissing;
+    }
+
+    public int getCheckpointCount() {
+        return index;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 按线性趋势推算的整个运行期间 p99 变化百分比，正数表示变慢
+     */
+    public synchronized double p99RisePercent() {
+        return p99Trend.risePercent();
+    }
+
+    /**
+     * 按线性趋势推算的整个运行期间吞吐变化百分比，负数表示下降
+     */
+    public synchronized double throughputChangePercent() {
+        return throughputTrend.risePercent();
+    }
+
+    public synchronized String describe() {
+        StringBuilder sb = new StringBuilder(String.format("[%s] 检查点 %d 个，间隔 %ds%n", scenario, index, checkpointMillis / 1000));
+        if (firstCheckpoint != null) {
+            sb.append("首个检查点: ").append(format(firstCheckpoint)).append(System.lineSeparator());
+            sb.append("最后检查点: ").append(format(lastCheckpoint)).append(System.lineSeparator());
+        }
+        sb.append(String.format("趋势: p99 %+.1f%%, 吞吐 %+.1f%%, 压测端堆 %+.1f%%%n",
+                p99Trend.risePercent(), throughputTrend.risePercent(), heapTrend.risePercent()));
+        sb.append(String.format("一致性抽查: %d 个样本, 不一致 %d 个%n", totalSampled, totalMissing));
+        return sb.toString();
+    }
+
+    private void safeCheckpoint() {
+        try {
+            checkpoint();
+        } catch (Exception e) {
+            // 单个检查点失败 (Redis 抖动、磁盘满等) 不能中断后续检查点
+            log.error(">>> [稳定性压测] 检查点写入失败", e);
+        }
+    }
+
+    private synchronized void checkpoint() {
+        LoadMetrics current = metrics.get();
+        if (current == null) {
+            return;
+        }
+        if (current != lastMetrics) {
+            // 预热切换到正式指标后从零开始计算区间
+            lastMetrics = current;
+            lastCounts = new long[LatencyHistogram.BUCKET_COUNT];
+            lastTotalMicros = 0;
+            lastErrors = 0;
+        }
+        long now = System.nanoTime();
+        long[] counts = current.getLatency().bucketCounts();
+        long totalMicros = current.getLatency().getTotalMicros();
+        LatencyHistogram interval = LatencyHistogram.delta(counts, totalMicros, lastCounts, lastTotalMicros);
+        long errors = 0;
+        for (OutcomeCategory category : OutcomeCategory.values()) {
+            if (RunRecord.isError(category)) {
+                errors += current.getOutcomes().count(category);
+            }
+        }
+        double intervalSeconds = Math.max(now - lastCheckpointNanos, 1) / 1e9;
+        long intervalErrors = errors - lastErrors;
+
+        // 校验上一区间的样本，再把本区间的样本挂起到下一个检查点
+        int sampled = pending.size();
+        int missing = verify(pending);
+        pending = sampler.drain();
+        pendingSinceNanos = now;
+
+        Map<String, Double> gaugeValues = new LinkedHashMap<>();
+        gauges.forEach((name, gauge) -> {
+            try {
+                gaugeValues.put(name, gauge.getAsDouble());
+            } catch (Exception e) {
+                log.debug("指标 {} 采集失败: {}", name, e.getMessage());
+            }
+        });
+        Runtime runtime = Runtime.getRuntime();
+        SoakCheckpoint checkpoint = SoakCheckpoint.builder()
+                .index(++index)
+                .timestamp(System.currentTimeMillis())
+                .elapsedSeconds(TimeUnit.NANOSECONDS.toSeconds(now - startNanos))
+                .intervalRequests(interval.getCount())
+                .intervalThroughput(interval.getCount() / intervalSeconds)
+                .intervalErrorRate(interval.getCount() == 0 ? 0 : (double) intervalErrors / interval.getCount())
+                .p50Millis(interval.percentileMillis(50))
+                .p90Millis(interval.percentileMillis(90))
+                .p99Millis(interval.percentileMillis(99))
+                .maxMillis(interval.getMaxMicros() / 1000.0)
+                .totalRequests(current.getLatency().getCount())
+                .totalErrors(errors)
+                .sampled(sampled)
+                .sampleMissing(missing)
+                .usedHeapMb((runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024))
+                .gauges(gaugeValues)
+                .build();
+        append(checkpoint);
+
+        lastCounts = counts;
+        lastTotalMicros = totalMicros;
+        lastErrors = errors;
+        lastCheckpointNanos = now;
+        if (firstCheckpoint == null) {
+            firstCheckpoint = checkpoint;
+        }
+        lastCheckpoint = checkpoint;
+        if (checkpoint.getIntervalRequests() > 0) {
+            double hours = checkpoint.getElapsedSeconds() / 3600.0;
+            p99Trend.add(hours, checkpoint.getP99Millis());
+            throughputTrend.add(hours, checkpoint.getIntervalThroughput());
+            heapTrend.add(hours, checkpoint.getUsedHeapMb());
+        }
+        log.info(">>> [稳定性压测] 检查点 #{}: {}", checkpoint.getIndex(), format(checkpoint));
+    }
+
+    private int verify(List<String> samples) {
+        int missing = 0;
+        for (String key : samples) {
+            boolean consistent;
+            try {
+                consistent = consistencyCheck.test(key);
+            } catch (Exception e) {
+                log.warn(">>> [稳定性压测] 样本 {} 校验异常: {}", key, e.getMessage());
+                consistent = false;
+            }
+            if (!consistent) {
+                missing++;
+                log.warn(">>> [稳定性压测] 样本 {} 一致性校验未通过", key);
+            }
+        }
+        totalSampled += samples.size();
+        totalMissing += missing;
+        return missing;
+    }
+
+    private void append(SoakCheckpoint checkpoint) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(JSON.toJSONString(checkpoint));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            log.error(">>> [稳定性压测] 写入检查点文件失败: {}", file, e);
+        }
+    }
+
+    private static String format(SoakCheckpoint c) {
+        return String.format("t=%ds, rps=%.1f, err=%.2f%%, p50=%.2fms, p99=%.2fms, max=%.2fms, total=%d, 抽查=%d/%d, heap=%dMB, %s",
+                c.getElapsedSeconds(), c.getIntervalThroughput(), c.getIntervalErrorRate() * 100, c.getP50Millis(),
+                c.getP99Millis(), c.getMaxMillis(), c.getTotalRequests(), c.getSampleMissing(), c.getSampled(),
+                c.getUsedHeapMb(), c.getGauges());
+    }
+
+    /**
+     * 在线最小二乘：y = a + b·x，只保留累加量
+     */
+    private static final class Trend {
+        private long n;
+        private double sumX;
+        private double sumY;
+        private double sumXY;
+        private double sumXX;
+        private double minX = Double.NaN;
+        private double maxX = Double.NaN;
+
+        void add(double x, double y) {
+            n++;
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+            minX = Double.isNaN(minX) ? x : Math.min(minX, x);
+            maxX = Double.isNaN(maxX) ? x : Math.max(maxX, x);
+        }
+
+        /**
+         * 拟合直线从首个到最后一个检查点的变化，相对于起点的百分比
+         */
+        double risePercent() {
+            double denominator = n * sumXX - sumX * sumX;
+            if (n < 2 || denominator == 0) {
+                return 0;
+            }
+            double slope = (n * sumXY - sumX * sumY) / denominator;
+            double intercept = (sumY - slope * sumX) / n;
+            double start = intercept + slope * minX;
+            return start <= 0 ? 0 : slope * (maxX - minX) / start * 100;
+        }
+    }
+}
@@ -8,9 +8,17 @@ import io.restassured.response.Response;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+/**
+ * 功能用例使用的接口封装，每次调用生成一个 Allure 步骤。
+ * 压测流量不要走这里，使用 load 包中基于 HttpSampler 的 RedeemScenario / CouponJourney
+ */
 @Service
 @RequiredArgsConstructor
 public class EngineApi {
+    public static final String REDEEM_MQ_PATH = "/api/engine/user-coupon/redeem-mq";
+    public static final String REDEEM_CANAL_PATH = "/api/engine/user-coupon/redeem";
+    public static final String TEMPLATE_QUERY_PATH = "/api/engine/coupon-template/query";
+
     private final EnvConfig envConfig;
     private final RestClient restClient;
 
@@ -24,7 +32,7 @@ public class EngineApi {
         }
         return request
                 .when()
-                .post("/api/engine/user-coupon/redeem-mq");
+                .post(REDEEM_MQ_PATH);
 
     }
     @Step("API:Canal同步抢卷 [User: {userId}]")
@@ -37,7 +45,7 @@ public class EngineApi {
         }
         return request
                 .when()
-                .post("/api/engine/user-coupon/redeem");
+                .post(REDEEM_CANAL_PATH);
 
     }
 
@@ -48,6 +56,6 @@ public class EngineApi {
                 .queryParam("couponTemplateId", templateId)
                 .queryParam("shopNumber", shopNumber)
                 .when()
-                .get("/api/engine/coupon-template/query");
+                .get(TEMPLATE_QUERY_PATH);
     }
 }
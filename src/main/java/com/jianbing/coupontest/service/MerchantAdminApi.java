@@ -1,29 +1,43 @@
 package com.jianbing.coupontest.service;
 
 import com.jianbing.coupontest.component.RestClient;
+import com.jianbing.coupontest.component.TestDataRegistry;
 import com.jianbing.coupontest.config.EnvConfig;
 import com.jianbing.coupontest.req.CouponTaskReq;
 import com.jianbing.coupontest.req.CouponTemplateRedeemReq;
 import com.jianbing.coupontest.req.CouponTemplateReq;
+import com.jianbing.coupontest.utils.JsonFieldScanner;
 import io.qameta.allure.Step;
 import io.restassured.response.Response;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+/**
+ * 功能用例使用的接口封装，每次调用生成一个 Allure 步骤。
+ * 压测流量不要走这里，使用 load 包中基于 HttpSampler 的 TemplateCreateScenario
+ */
 @Service
 @RequiredArgsConstructor
 public class MerchantAdminApi {
+    public static final String TEMPLATE_CREATE_PATH = "/api/merchant-admin/coupon-template/create";
+    public static final String TASK_CREATE_PATH = "/api/merchant-admin/coupon-task/create";
 
     private final RestClient restClient;
     private final EnvConfig envConfig;
+    private final TestDataRegistry testDataRegistry;
 
     @Step("API: 创建优惠卷模版")
     public Response createCouponTemplate(CouponTemplateReq req){
-        return restClient.getRequest()
+        Response response = restClient.getRequest()
                 .baseUri(envConfig.getMerchantUrl())
                 .body(req)
                 .when()
-                .post("/api/merchant-admin/coupon-template/create");
+                .post(TEMPLATE_CREATE_PATH);
+        // 登记本次运行创建的模板，便于后续批量清理
+        if (response.statusCode() == 200) {
+            testDataRegistry.registerTemplate(JsonFieldScanner.topLevelValue(response.asString(), "data"));
+        }
+        return response;
     }
 
     @Step("API: 创建优惠券分发任务")
@@ -32,6 +46,6 @@ public class MerchantAdminApi {
                 .baseUri(envConfig.getMerchantUrl())
                 .body(req)
                 .when()
-                .post("/api/merchant-admin/coupon-task/create");
+                .post(TASK_CREATE_PATH);
     }
 }
@@ -0,0 +1,108 @@
+package com.jianbing.coupontest.utils;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.annotation.write.style.ColumnWidth;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 优惠券分发 Excel 生成工具
+ * 大文件按批次流式写入，百万行时内存中只保留一个批次
+ */
+@Slf4j
+public class DistributionExcelGenerator {
+
+    private static final String SHEET_NAME = "优惠券推送列表";
+    private static final int WRITE_BATCH_SIZE = 10000;
+
+    /**
+     * 兼容各操作系统的临时目录
+     */
+    public static final String EXCEL_BASE_PATH = Paths.get("").toAbsolutePath().getParent() + File.separator + "tmp";
+
+    private DistributionExcelGenerator() {
+    }
+
+    public static String newFilePath(String prefix) {
+        if (!FileUtil.exist(EXCEL_BASE_PATH)) {
+            FileUtil.mkdir(EXCEL_BASE_PATH);
+        }
+        return EXCEL_BASE_PATH + File.separator + prefix + "_" + IdUtil.simpleUUID() + ".xlsx";
+    }
+
+    /**
+     * 写入指定用户列表
+     */
+    public static void write(String fullPath, List<ExcelUser> users) {
+        EasyExcel.write(fullPath, ExcelUser.class)
+                .sheet(SHEET_NAME)
+                .doWrite(users);
+        log.info(">>> Excel 生成完毕: {}, 共 {} 条数据", fullPath, users.size());
+    }
+
+    /**
+     * 流式写入 count 个全新用户 (雪花ID)，返回第一个用户ID用于抽查
+     */
+    public static String writeRandom(String fullPath, int count) {
+        String firstUserId = null;
+        ExcelWriter writer = EasyExcel.write(fullPath, ExcelUser.class).build();
+        try {
+            WriteSheet sheet = EasyExcel.writerSheet(SHEET_NAME).build();
+            List<ExcelUser> batch = new ArrayList<>(Math.min(count, WRITE_BATCH_SIZE));
+            for (int i = 0; i < count; i++) {
+                String userId = IdUtil.getSnowflakeNextIdStr();
+                if (firstUserId == null) {
+                    firstUserId = userId;
+                }
+                batch.add(ExcelUser.builder()
+                        .userId(userId)
+                        .phone(String.format("1%010d", i))
+                        .mail("user" + i + "@coupontest.com")
+                        .build());
+                if (batch.size() == WRITE_BATCH_SIZE) {
+                    writer.write(batch, sheet);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                writer.write(batch, sheet);
+            }
+        } finally {
+            writer.finish();
+        }
+        log.info(">>> Excel 生成完毕: {}, 共 {} 条数据", fullPath, count);
+        return firstUserId;
+    }
+
+    // ================= Excel 模型 =================
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ExcelUser {
+        @ColumnWidth(30)
+        @ExcelProperty("用户ID")
+        private String userId;
+
+        @ColumnWidth(20)
+        @ExcelProperty("手机号")
+        private String phone;
+
+        @ColumnWidth(30)
+        @ExcelProperty("邮箱")
+        private String mail;
+    }
+}
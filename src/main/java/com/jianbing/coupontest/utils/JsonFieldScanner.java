@@ -0,0 +1,227 @@
+package com.jianbing.coupontest.utils;
+
+/**
+ * 轻量级 JSON 字段扫描工具
+ * 压测热路径上只需要读取响应体的 code / message 两个顶层字段，
+ * 使用 jsonPath() 会为每个响应构建一棵完整的 GPath 树，这里改为单次顺序扫描，
+ * 命中字段后立即返回，除字段值本身外不产生额外对象。
+ */
+public class JsonFieldScanner {
+
+    private JsonFieldScanner() {
+    }
+
+    /**
+     * 读取根对象中某个字段的值
+     *
+     * @param json  响应体
+     * @param field 字段名 (不含引号，不支持转义字符)
+     * @return 字符串值去掉引号；数字/布尔原样返回；字段不存在或为 null 时返回 null
+     */
+    public static String topLevelValue(CharSequence json, String field) {
+        if (field == null) {
+            return null;
+        }
+        return topLevelValues(json, field)[0];
+    }
+
+    /**
+     * 一次扫描读取根对象中的多个字段，全部命中后立即返回
+     *
+     * @return 与 fields 一一对应的值，规则同 {@link #topLevelValue}
+     */
+    public static String[] topLevelValues(CharSequence json, String... fields) {
+        String[] values = new String[fields.length];
+        if (json == null) {
+            return values;
+        }
+        int remaining = fields.length;
+        int len = json.length();
+        int depth = 0;
+        int i = 0;
+        while (i < len && remaining > 0) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                int end = skipString(json, i);
+                if (depth == 1) {
+                    int index = fieldIndex(json, i + 1, end - i - 2, fields);
+                    int colon = skipWhitespace(json, end);
+                    if (index >= 0 && colon < len && json.charAt(colon) == ':') {
+                        if (values[index] == null) {
+                            values[index] = readValue(json, skipWhitespace(json, colon + 1));
+                            // 值为 null 的字段也算命中
+                            remaining--;
+                        }
+                    }
+                }
+                i = end;
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+            i++;
+        }
+        return values;
+    }
+
+    private static int fieldIndex(CharSequence json, int from, int length, String[] fields) {
+        for (int f = 0; f < fields.length; f++) {
+            if (fields[f].length() == length && regionEquals(json, from, fields[f])) {
+                return f;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 返回字符串结束引号之后的下标
+     */
+    private static int skipString(CharSequence json, int quote) {
+        int len = json.length();
+        int j = quote + 1;
+        while (j < len) {
+            char ch = json.charAt(j);
+            if (ch == '\\') {
+                j += 2;
+            } else if (ch == '"') {
+                return j + 1;
+            } else {
+                j++;
+            }
+        }
+        return len;
+    }
+
+    private static int skipWhitespace(CharSequence json, int from) {
+        int len = json.length();
+        int j = from;
+        while (j < len && Character.isWhitespace(json.charAt(j))) {
+            j++;
+        }
+        return j;
+    }
+
+    private static boolean regionEquals(CharSequence json, int from, String field) {
+        for (int k = 0; k < field.length(); k++) {
+            if (json.charAt(from + k) != field.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readValue(CharSequence json, int pos) {
+        int len = json.length();
+        if (pos >= len) {
+            return null;
+        }
+        char first = json.charAt(pos);
+        if (first == '"') {
+            return readString(json, pos);
+        }
+        if (first == '{' || first == '[') {
+            // 嵌套结构不是本工具的目标，原样截取
+            int end = skipNested(json, pos);
+            return json.subSequence(pos, end).toString();
+        }
+        int end = pos;
+        while (end < len) {
+            char ch = json.charAt(end);
+            if (ch == ',' || ch == '}' || ch == ']' || Character.isWhitespace(ch)) {
+                break;
+            }
+            end++;
+        }
+        String literal = json.subSequence(pos, end).toString();
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private static String readString(CharSequence json, int quote) {
+        int len = json.length();
+        int j = quote + 1;
+        // 快速路径：不含转义字符时直接截取
+        int k = j;
+        while (k < len && json.charAt(k) != '"' && json.charAt(k) != '\\') {
+            k++;
+        }
+        if (k < len && json.charAt(k) == '"') {
+            return json.subSequence(j, k).toString();
+        }
+        StringBuilder sb = new StringBuilder(k - j + 16);
+        sb.append(json, j, k);
+        j = k;
+        while (j < len) {
+            char ch = json.charAt(j);
+            if (ch == '"') {
+                break;
+            }
+            if (ch == '\\' && j + 1 < len) {
+                char esc = json.charAt(j + 1);
+                switch (esc) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        int code = j + 5 < len ? hex4(json, j + 2) : -1;
+                        if (code >= 0) {
+                            sb.append((char) code);
+                            j += 4;
+                        } else {
+                            // 非法的 Unicode 转义按字面保留，不让畸形响应体在压测线程里抛异常
+                            sb.append('\\').append('u');
+                        }
+                    }
+                    default -> sb.append(esc);
+                }
+                j += 2;
+            } else {
+                sb.append(ch);
+                j++;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return 4 位十六进制对应的值，含非十六进制字符时返回 -1
+     */
+    private static int hex4(CharSequence json, int from) {
+        int value = 0;
+        for (int k = from; k < from + 4; k++) {
+            int digit = Character.digit(json.charAt(k), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static int skipNested(CharSequence json, int pos) {
+        int len = json.length();
+        int depth = 0;
+        int j = pos;
+        while (j < len) {
+            char ch = json.charAt(j);
+            if (ch == '"') {
+                j = skipString(json, j);
+                continue;
+            }
+            if (ch == '{' || ch == '[') {
+                depth++;
+            } else if (ch == '}' || ch == ']') {
+                depth--;
+                if (depth == 0) {
+                    return j + 1;
+                }
+            }
+            j++;
+        }
+        return len;
+    }
+}
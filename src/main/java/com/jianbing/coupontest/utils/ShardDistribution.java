@@ -0,0 +1,146 @@
+package com.jianbing.coupontest.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 用户在各用户券分表上的目标分布
+ * 用于构造“均匀”或“刻意倾斜”的用户群，配合分表热力图验证路由与热点：
+ * natural (随机 19 位ID，由后端哈希取模自然分布) | uniform | hot:0,1,2:0.5 (列出的表合计占 50%) | zipf:1.0
+ */
+public final class ShardDistribution {
+
+    private final String spec;
+    /**
+     * 各分表权重之和为 1；natural 时为 null
+     */
+    private final double[] weights;
+
+    private ShardDistribution(String spec, double[] weights) {
+        this.spec = spec;
+        this.weights = weights;
+    }
+
+    public static ShardDistribution natural() {
+        return new ShardDistribution("natural", null);
+    }
+
+    public static ShardDistribution uniform() {
+        double[] weights = new double[ShardingUtil.SHARDING_COUNT];
+        Arrays.fill(weights, 1.0 / weights.length);
+        return new ShardDistribution("uniform", weights);
+    }
+
+    /**
+     * @param hotTables 热点分表
+     * @param hotShare  热点分表合计占比 (其余分表均分剩下的部分)
+     */
+    public static ShardDistribution hot(int[] hotTables, double hotShare) {
+        if (hotTables.length == 0 || hotTables.length >= ShardingUtil.SHARDING_COUNT || hotShare < 0 || hotShare > 1) {
+            throw new IllegalArgumentException("热点分表配置无效: " + Arrays.toString(hotTables) + ", share=" + hotShare);
+        }
+        double[] weights = new double[ShardingUtil.SHARDING_COUNT];
+        Arrays.fill(weights, (1 - hotShare) / (weights.length - hotTables.length));
+        for (int table : hotTables) {
+            weights[table] = hotShare / hotTables.length;
+        }
+        return new ShardDistribution("hot:" + Arrays.toString(hotTables) + ":" + hotShare, weights);
+    }
+
+    /**
+     * 第 i 张表的权重正比于 1 / (i+1)^s
+     */
+    public static ShardDistribution zipf(double exponent) {
+        double[] weights = new double[ShardingUtil.SHARDING_COUNT];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1 / Math.pow(i + 1, exponent);
+            sum += weights[i];
+        }
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] /= sum;
+        }
+        return new ShardDistribution("zipf:" + exponent, weights);
+    }
+
+    public static ShardDistribution parse(String spec) {
+        String value = spec == null ? "" : spec.trim().toLowerCase();
+        try {
+            if (value.isEmpty() || "natural".equals(value)) {
+                return natural();
+            }
+            if ("uniform".equals(value)) {
+                return uniform();
+            }
+            String[] parts = value.split(":");
+            return switch (parts[0]) {
+                case "hot" -> hot(Arrays.stream(parts[1].split(",")).mapToInt(t -> Integer.parseInt(t.trim())).toArray(),
+                        Double.parseDouble(parts[2]));
+                case "zipf" -> zipf(Double.parseDouble(parts[1]));
+                default -> throw new IllegalArgumentException("未知的分表分布: " + parts[0]);
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("分表分布格式错误: " + spec
+                    + " (natural | uniform | hot:0,1,2:0.5 | zipf:1.0)", e);
+        }
+    }
+
+    public boolean isNatural() {
+        return weights == null;
+    }
+
+    /**
+     * 按最大余数法把 count 个用户分配到各分表，natural 时返回 null
+     */
+    public int[] allocate(int count) {
+        if (weights == null) {
+            return null;
+        }
+        int[] allocation = new int[weights.length];
+        double[] remainders = new double[weights.length];
+        int assigned = 0;
+        for (int i = 0; i < weights.length; i++) {
+            double exact = weights[i] * count;
+            allocation[i] = (int) exact;
+            remainders[i] = exact - allocation[i];
+            assigned += allocation[i];
+        }
+        while (assigned < count) {
+            int best = 0;
+            for (int i = 1; i < remainders.length; i++) {
+                if (remainders[i] > remainders[best]) {
+                    best = i;
+                }
+            }
+            allocation[best]++;
+            remainders[best] = -1;
+            assigned++;
+        }
+        return allocation;
+    }
+
+    /**
+     * 生成 count 个符合该分布的用户ID (打乱顺序，避免压测时按表成批到达)
+     */
+    public List<String> userIds(TestNamespace namespace, int count) {
+        int[] allocation = allocate(count);
+        if (allocation == null) {
+            return new ArrayList<>(Arrays.asList(UserDataGenerator.randomUserIds(count)));
+        }
+        List<String> userIds = new ArrayList<>(count);
+        for (int table = 0; table < allocation.length; table++) {
+            for (int i = 0; i < allocation[table]; i++) {
+                userIds.add(namespace.userIdForTable(table));
+            }
+        }
+        Collections.shuffle(userIds);
+        return userIds;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
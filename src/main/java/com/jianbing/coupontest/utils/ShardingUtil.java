@@ -1,5 +1,7 @@
 package com.jianbing.coupontest.utils;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * 分库分表路由工具类
  * 用于生成特定落库的 ID，确保自动化测试能查到数据
@@ -7,22 +9,67 @@ package com.jianbing.coupontest.utils;
 public class ShardingUtil {
 
     // 总分片数 (根据 onecoupon.sql 确认共有 32 张表)
-    private static final int SHARDING_COUNT = 32;
+    public static final int SHARDING_COUNT = 32;
+
+    // 优惠券模板分表数 (t_coupon_template_0 ~ 15，按 shop_number 分片)
+    public static final int TEMPLATE_SHARDING_COUNT = 16;
+
+    private static final String USER_COUPON_TABLE_PREFIX = "t_user_coupon_";
+    private static final String TEMPLATE_TABLE_PREFIX = "t_coupon_template_";
+
+    public static String tableName(int tableIndex) {
+        return USER_COUPON_TABLE_PREFIX + tableIndex;
+    }
+
+    public static String templateTableName(int tableIndex) {
+        return TEMPLATE_TABLE_PREFIX + tableIndex;
+    }
+
+    // 全局游标，保证多线程 / 多个测试类并行时生成的 ID 不重复
+    private static final AtomicLong CURSOR = new AtomicLong(System.nanoTime());
+
+    /**
+     * 计算 userId 所在分表序号
+     * 根据源码: Math.abs(id.hashCode()) % 32
+     */
+    public static int tableIndexOf(long userId) {
+        return Math.abs(Long.valueOf(userId).hashCode()) % SHARDING_COUNT;
+    }
+
+    /**
+     * 计算分表所在的库序号
+     * 与后端 DBHashModShardingAlgorithm 一致：分表按序号连续均分到各库，
+     * 例如 32 张表 2 个库时 0~15 在 0 库，16~31 在 1 库。
+     * 先乘后除：库数多于表数时不会除零，表数不能整除库数时也不会算出越界的库序号
+     */
+    public static int databaseIndexOf(int tableIndex, int tableCount, int databaseCount) {
+        if (databaseCount <= 0 || tableCount < databaseCount) {
+            throw new IllegalArgumentException("分片配置错误: " + tableCount + " 张表 / " + databaseCount + " 个库");
+        }
+        if (tableIndex < 0 || tableIndex >= tableCount) {
+            throw new IllegalArgumentException("分表序号越界: " + tableIndex + " (共 " + tableCount + " 张表)");
+        }
+        return (int) ((long) tableIndex * databaseCount / tableCount);
+    }
 
     /**
      * 生成一个必定落在 t_user_coupon_0 表的 userId
      * 原理：暴力计算，直到找到一个 id % 32 == 0
      */
     public static String generateUserIdForTable0() {
-        long baseId = System.nanoTime();
+        return generateUserIdForTable(CURSOR, 0);
+    }
+
+    /**
+     * 从给定游标开始向后查找第一个落在指定分表的 ID，游标随之前移
+     * 假设后端算法是简单的取模 (实际需根据 TableHashModShardingAlgorithm 调整)
+     */
+    public static String generateUserIdForTable(AtomicLong cursor, int tableIndex) {
         while (true) {
-            // 假设后端算法是简单的取模 (实际需根据 TableHashModShardingAlgorithm 调整)
-            // 根据源码: Math.abs(id.hashCode()) % 32
-            // 这里我们直接用 long 模拟，确保生成的 ID 是纯数字字符串
-            if (Math.abs(Long.valueOf(baseId).hashCode()) % SHARDING_COUNT == 0) {
-                return String.valueOf(baseId);
+            long candidate = cursor.getAndIncrement();
+            if (tableIndexOf(candidate) == tableIndex) {
+                return String.valueOf(candidate);
             }
-            baseId++;
         }
     }
 }
\ No newline at end of file
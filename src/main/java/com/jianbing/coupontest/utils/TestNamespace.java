@@ -0,0 +1,81 @@
+package com.jianbing.coupontest.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 测试命名空间
+ * 每个测试类一个实例，为其分配互不重叠的模板名称、用户ID段和伪造ID，
+ * 使多个测试类可以并行执行而不会互相踩数据
+ */
+public class TestNamespace {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    /**
+     * 本次运行的随机盐，避免与历史运行遗留的数据重叠
+     */
+    private static final long RUN_SALT = ThreadLocalRandom.current().nextLong(100_000);
+
+    /**
+     * 每个命名空间独占的用户ID段宽度
+     */
+    private static final long USER_RANGE = 100_000_000_000_000L;
+    private static final long USER_BASE = 1_000_000_000_000_000_000L;
+    private static final long FAKE_ID_BASE = 900_000_000_000L;
+    /**
+     * 固定的伪造模板ID (低于 fakeTemplateId 的区间)，专门用来写入布隆过滤器模拟误判。
+     * 布隆过滤器不能删除元素，每次运行复用同一个ID，过滤器中永远只多这一个
+     */
+    public static final String BLOOM_SENTINEL_TEMPLATE_ID = String.valueOf(FAKE_ID_BASE - 1);
+
+    private final String name;
+    private final int index;
+    private final AtomicLong userCursor;
+    private final AtomicInteger nameSequence = new AtomicInteger();
+    private final AtomicInteger fakeIdSequence = new AtomicInteger();
+
+    private TestNamespace(String name, int index) {
+        this.name = name;
+        this.index = index;
+        this.userCursor = new AtomicLong(USER_BASE + index * USER_RANGE + RUN_SALT * 1_000_000_000L);
+    }
+
+    public static TestNamespace of(Class<?> suite) {
+        int index = SEQUENCE.getAndIncrement();
+        return new TestNamespace(suite.getSimpleName(), index);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 带命名空间的唯一名称，例如模板名
+     */
+    public String name(String prefix) {
+        return prefix + "_" + name + "_" + RUN_SALT + "_" + nameSequence.incrementAndGet();
+    }
+
+    /**
+     * 本命名空间内的全新用户ID
+     */
+    public String userId() {
+        return String.valueOf(userCursor.getAndIncrement());
+    }
+
+    /**
+     * 本命名空间内必定落在指定分表的用户ID
+     */
+    public String userIdForTable(int tableIndex) {
+        return ShardingUtil.generateUserIdForTable(userCursor, tableIndex);
+    }
+
+    /**
+     * 一个不存在的模板ID (12 位，远小于雪花ID)，各命名空间互不重复
+     */
+    public String fakeTemplateId() {
+        long id = FAKE_ID_BASE + RUN_SALT * 1_000_000L + index * 1_000L + fakeIdSequence.incrementAndGet();
+        return String.valueOf(id);
+    }
+}
@@ -9,13 +9,26 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 public class UserDataGenerator {
 
-    private static final String CSV_FILE_PATH = "users_5w.csv";
+    public static final String CSV_FILE_PATH = "users_5w.csv";
     private static final int USER_COUNT = 50000;
 
+    /**
+     * 内存中生成 count 个不重复的 19 位用户ID (不依赖 Faker，适合压测启动阶段)
+     */
+    public static String[] randomUserIds(int count) {
+        Set<Long> userIds = new HashSet<>(count * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (userIds.size() < count) {
+            userIds.add(random.nextLong(1_000_000_000_000_000_000L, Long.MAX_VALUE));
+        }
+        return userIds.stream().map(String::valueOf).toArray(String[]::new);
+    }
+
     public static void generateCsv() {
         // 使用中文 Locale，虽然生成 ID 用不到，但好习惯
         Faker faker = new Faker(new Locale("zh-CN"));
@@ -1,28 +1,103 @@
 package com.jianbing.coupontest.cases;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import cn.hutool.core.date.DateUtil;
 import com.jianbing.coupontest.CoupontestApplication;
-import com.jianbing.coupontest.dao.entity.UserCouponDO;
-import com.jianbing.coupontest.dao.mapper.UserCouponMapper;
+import com.jianbing.coupontest.component.ShardRowCounter;
+import com.jianbing.coupontest.config.EngineRedisKeys;
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.req.CouponTemplateReq;
+import com.jianbing.coupontest.service.MerchantAdminApi;
+import com.jianbing.coupontest.utils.TestNamespace;
+import io.restassured.response.Response;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testng.Assert;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 @SpringBootTest(classes = CoupontestApplication.class)
 public class BaseTest extends AbstractTestNGSpringContextTests {
 
+    /**
+     * 商家店铺号，需与后端商家上下文一致，所有测试类共用；
+     * 数据隔离依靠各测试类自己创建的模板及命名空间内的用户
+     */
+    protected static final String SHOP_NUMBER = System.getProperty("test.shopNumber", "1810714735922956666");
+
+    /**
+     * 压测 / 基准类的 TestNG 分组：功能用例之间并行执行，这一组在其后单独串行执行，
+     * 避免延迟与吞吐数据互相干扰 (这些数据会写入 .perf-history 作为回退基线)
+     */
+    protected static final String PERFORMANCE = "performance";
+
+    /**
+     * 当前测试类的命名空间 (模板名、用户ID段、伪造ID)，保证测试类之间可以并行
+     */
+    protected final TestNamespace namespace = TestNamespace.of(getClass());
+
+    @Autowired
+    private ShardRowCounter shardRowCounter;
+
+    @Autowired
+    private EnvConfig baseEnvConfig;
+
     @Autowired
-    private UserCouponMapper userCouponMapper;
+    private MerchantAdminApi baseMerchantAdminApi;
+
+    @Autowired
+    private StringRedisTemplate baseRedisTemplate;
+
+    /**
+     * 创建一张压测 / 校验用的普通券模板 (每人限领 1 张，有效期从现在起 30 天)，返回模板ID
+     *
+     * @param name 模板名前缀，会加上当前命名空间
+     */
+    protected String createTemplate(String name, int stock) {
+        CouponTemplateReq req = CouponTemplateReq.builder()
+                .name(namespace.name(name))
+                .source(0).target(0).goods(name).type(0)
+                .validStartTime(DateUtil.now())
+                .validEndTime(DateUtil.offsetDay(new Date(), 30).toString())
+                .stock(stock)
+                .receiveRule("{\"limitPerPerson\":1,\"usageInstructions\":\"Load Test\"}")
+                .consumeRule("{\"termsOfUse\":10,\"maximumDiscountAmount\":5,\"validityPeriod\":48}")
+                .build();
+        Response resp = baseMerchantAdminApi.createCouponTemplate(req);
+        Assert.assertEquals(resp.getStatusCode(), 200);
+        String templateId = resp.jsonPath().getString("data");
+        Assert.assertNotNull(templateId, "模板创建失败: " + resp.asString());
+        return templateId;
+    }
+
+    /**
+     * 用户是否已有该模板的领取记录 (Lua 扣库存成功时写入的 limit Key)
+     */
+    protected boolean hasLimitKey(String userId, String templateId) {
+        return Boolean.TRUE.equals(baseRedisTemplate.hasKey(String.format(EngineRedisKeys.USER_TEMPLATE_LIMIT, userId, templateId)));
+    }
+
+    /**
+     * 等待并发请求全部结束
+     * 每个请求最多耗时 test-config.timeout，上限取 超时 x (串行轮数 + 1)，后端卡死时用例失败而不是无限挂起
+     *
+     * @param rounds 每个线程依次发出的请求数 (请求总数 / 线程数，向上取整)
+     */
+    protected void awaitRequests(CountDownLatch latch, int rounds) throws InterruptedException {
+        long budgetMillis = (long) Math.max(baseEnvConfig.getTimeout(), 1000) * (rounds + 1);
+        Assert.assertTrue(latch.await(budgetMillis, TimeUnit.MILLISECONDS),
+                "等待请求结束超时 (" + budgetMillis + "ms)，仍有 " + latch.getCount() + " 个请求未完成");
+    }
 
     /**
-     * 查询数据库中某张券的领取数量(仅查询 one_coupon_0 库作为抽样验证)
+     * 查询数据库中某张券的领取数量(汇总全部分库分表)
      */
     public Long getDBReceivedCount(String couponTemplateId){
         try {
-            LambdaQueryWrapper<UserCouponDO> queryWrapper = Wrappers.lambdaQuery(UserCouponDO.class)
-                    .eq(UserCouponDO::getCouponTemplateId,Long.valueOf(couponTemplateId));
-            return userCouponMapper.selectCount(queryWrapper);
+            return shardRowCounter.countTotal(Long.valueOf(couponTemplateId));
         }catch (Exception e){
             return -1L;
         }
@@ -3,6 +3,7 @@ package com.jianbing.coupontest.cases;
 import com.jianbing.coupontest.req.CouponTemplateReq;
 import com.jianbing.coupontest.service.EngineApi;
 import com.jianbing.coupontest.service.MerchantAdminApi;
+import com.jianbing.coupontest.utils.TestNamespace;
 import io.qameta.allure.*;
 import io.restassured.response.Response;
 import lombok.extern.slf4j.Slf4j;
@@ -41,8 +42,8 @@ public class CacheProtectionTest extends BaseTest {
     @Story("BloomFilter拦截")
     public void testBloomFilterInterception() {
         // 1. 构造一个绝对不存在的 ID (例如负数或超大随机数)
-        String notExistId = "999999999999";
-        String shopNumber = "1810714735922956666";
+        String notExistId = namespace.fakeTemplateId();
+        String shopNumber = SHOP_NUMBER;
 
         log.info(">>> [防穿透] 请求不存在的ID: {}", notExistId);
         Response resp = engineApi.findCouponTemplate(notExistId, shopNumber);
@@ -61,21 +62,22 @@ public class CacheProtectionTest extends BaseTest {
     @Test(description = "场景2: 模拟布隆过滤器误判，验证空值缓存兜底 (防穿透Layer2)")
     @Story("空值缓存兜底")
     public void testNullValueCache() {
-        // 1. 准备一个不存在的 ID
-        String fakeId = "888888888888";
-        String shopNumber = "1810714735922956666";
+        // 1. 准备一个不存在的 ID (固定的哨兵ID，不在每次运行时往布隆过滤器里追加新元素)
+        String fakeId = TestNamespace.BLOOM_SENTINEL_TEMPLATE_ID;
+        String shopNumber = SHOP_NUMBER;
 
         // 2. 【核心步骤】手动向布隆过滤器添加这个假 ID，模拟“误判”
-        // 这样请求就会绕过第一道防线
+        // 这样请求就会绕过第一道防线；上次运行留下的空值缓存先删掉，保证本次确实穿透到 DB
         RBloomFilter<String> bloomFilter = redissonClient.getBloomFilter(BLOOM_FILTER_KEY);
         bloomFilter.add(fakeId);
+        String nullKey = String.format(NULL_CACHE_KEY_PATTERN, fakeId);
+        stringRedisTemplate.delete(nullKey);
         log.info(">>> [防穿透] 已手动伪造布隆过滤器误判: {}", fakeId);
 
         // 3. 第1次请求：应该穿透到 DB -> 发现没数据 -> 写入空值缓存
         engineApi.findCouponTemplate(fakeId, shopNumber);
 
         // 4. 验证：Redis 中必须存在 Null Key
-        String nullKey = String.format(NULL_CACHE_KEY_PATTERN, fakeId);
         String nullVal = stringRedisTemplate.opsForValue().get(nullKey);
         log.info(">>> [防穿透] 检查空值缓存: Key={}, Val={}", nullKey, nullVal);
 
@@ -95,7 +97,7 @@ public class CacheProtectionTest extends BaseTest {
     public void testCacheBreakdownLock() throws InterruptedException {
         // 1. 准备一条真实存在的优惠券数据
         String templateId = createValidTemplate();
-        String shopNumber = "1810714735922956666"; // 需用创建时的 shopNumber，这里简化写死
+        String shopNumber = SHOP_NUMBER; // 需用创建时的 shopNumber
 
         // 2. 【核心步骤】手动删除 Redis 缓存，模拟缓存刚刚过期/失效
         String cacheKey = String.format(CACHE_KEY_PATTERN, templateId);
@@ -123,7 +125,7 @@ public class CacheProtectionTest extends BaseTest {
 
         // 4. 瞬间释放流量
         startGate.countDown();
-        endGate.await();
+        awaitRequests(endGate, 1);
         executor.shutdown();
 
         // 5. 验证结果
@@ -138,7 +140,7 @@ public class CacheProtectionTest extends BaseTest {
     // 辅助方法：创建一个可用的优惠券
     private String createValidTemplate() {
         CouponTemplateReq req = CouponTemplateReq.builder()
-                .name("防击穿测试券_" + System.currentTimeMillis())
+                .name(namespace.name("防击穿测试券"))
                 .source(0).target(0).goods("item").type(0)
                 .validStartTime("2025-09-01 00:00:00")
                 .validEndTime("2025-12-31 23:59:59")
@@ -1,9 +1,6 @@
 package com.jianbing.coupontest.cases;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
-import com.jianbing.coupontest.dao.entity.UserCouponDO;
-import com.jianbing.coupontest.dao.mapper.UserCouponMapper;
+import com.jianbing.coupontest.dao.UserCouponShardDao;
 import com.jianbing.coupontest.req.CouponTemplateRedeemReq;
 import com.jianbing.coupontest.req.CouponTemplateReq;
 import com.jianbing.coupontest.service.EngineApi;
@@ -28,7 +25,7 @@ public class ConsistencyTest_Canal extends BaseTest {
     @Autowired
     private EngineApi engineApi;
     @Autowired
-    private UserCouponMapper userCouponMapper;
+    private UserCouponShardDao userCouponShardDao;
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
 
@@ -43,7 +40,7 @@ public class ConsistencyTest_Canal extends BaseTest {
     @Story("构造测试数据")
     public void prepareData() {
         CouponTemplateReq req = CouponTemplateReq.builder()
-                .name("Canal强一致测试券_" + System.currentTimeMillis())
+                .name(namespace.name("Canal强一致测试券"))
                 .source(0).target(0).goods("CanalGoods").type(0)
                 .validStartTime("2025-12-05 00:00:00")
                 .validEndTime("2025-12-31 23:59:59")
@@ -62,13 +59,13 @@ public class ConsistencyTest_Canal extends BaseTest {
     @Story("核心验证：接口返回即落库，Redis异步同步")
     @Severity(SeverityLevel.CRITICAL)
     public void testStrongConsistencyAndCanalSync() throws InterruptedException {
-        // 1. 构造必定落在 t_user_coupon_0 表的用户 ID
-        String userId = ShardingUtil.generateUserIdForTable0();
-        log.info(">>> [Canal方案] 构造用户ID: {} (定向路由至 Table_0)", userId);
+        // 1. 构造用户 ID (按后端分片规则路由到对应库表查询)
+        String userId = namespace.userId();
+        log.info(">>> [Canal方案] 构造用户ID: {} (落在 {})", userId, ShardingUtil.tableName(ShardingUtil.tableIndexOf(Long.parseLong(userId))));
 
         CouponTemplateRedeemReq req = CouponTemplateRedeemReq.builder()
                 .source(0)
-                .shopNumber("1810714735922956666")
+                .shopNumber(SHOP_NUMBER)
                 .couponTemplateId(templateId)
                 .build();
 
@@ -89,12 +86,8 @@ public class ConsistencyTest_Canal extends BaseTest {
         // --------------------------------------------------------------------------------
         log.info(">>> [Canal方案] 步骤1：立即校验数据库 (Expecting Record Immediately)...");
 
-        LambdaQueryWrapper<UserCouponDO> query = Wrappers.lambdaQuery(UserCouponDO.class)
-                .eq(UserCouponDO::getUserId, Long.valueOf(userId))
-                .eq(UserCouponDO::getCouponTemplateId, Long.valueOf(templateId));
-
         // 直接查询，如果不为 1 则说明事务没提交就返回了，属于严重 Bug
-        Long dbCount = userCouponMapper.selectCount(query);
+        Long dbCount = (long) userCouponShardDao.findByUser(Long.valueOf(userId), Long.valueOf(templateId)).size();
         log.info(">>> [Canal方案] 数据库查询结果: {}", dbCount);
 
         Assert.assertEquals(dbCount.intValue(), 1,
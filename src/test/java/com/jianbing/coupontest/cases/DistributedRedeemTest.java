@@ -0,0 +1,81 @@
+package com.jianbing.coupontest.cases;
+
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.LoadReport;
+import com.jianbing.coupontest.load.OutcomeCategory;
+import com.jianbing.coupontest.load.distributed.DistributedPlan;
+import com.jianbing.coupontest.load.distributed.DistributedResult;
+import com.jianbing.coupontest.load.distributed.LoadCoordinator;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多进程分布式抢券
+ * 单个 JVM 的线程与连接数有限，由 Coordinator 把用户与目标速率均分给多个 Worker 进程，
+ * 统一时刻开抢后合并各进程的延迟直方图、错误码统计与成功用户，再做超卖 / 一致性校验
+ */
+@Slf4j
+@Epic("全链路压测")
+@Feature("多进程分布式发压")
+public class DistributedRedeemTest extends BaseTest {
+
+    @Autowired
+    private EnvConfig envConfig;
+
+    // 【配置区域】Worker 数、每个 Worker 线程数、总目标速率 (0 不限速)、监听端口 (跨机器时固定端口并关闭本机启动)
+    private static final int WORKERS = Integer.getInteger("distributed.workers", 2);
+    private static final int THREADS_PER_WORKER = Integer.getInteger("distributed.threads", 100);
+    private static final double TARGET_RATE = Double.parseDouble(System.getProperty("distributed.rate", "0"));
+    private static final int PORT = Integer.getInteger("distributed.port", 0);
+    private static final boolean SPAWN_LOCAL = Boolean.parseBoolean(System.getProperty("distributed.spawnLocal", "true"));
+
+    private static final int STOCK = 1000;
+    private static final int USER_COUNT = 5000;
+
+    @Test(groups = PERFORMANCE, description = "多个 Worker 进程统一开抢，合并结果后验证不超卖且成功用户全部落 Redis")
+    @Story("分布式发压与结果合并")
+    @Severity(SeverityLevel.CRITICAL)
+    public void testDistributedRedeem() throws Exception {
+        String templateId = createTemplate("分布式压测券", STOCK);
+
+        List<String> userIds = new ArrayList<>(USER_COUNT);
+        for (int i = 0; i < USER_COUNT; i++) {
+            userIds.add(namespace.userId());
+        }
+
+        DistributedResult result;
+        try (LoadCoordinator coordinator = new LoadCoordinator(PORT)) {
+            log.info(">>> [分布式压测] Coordinator 监听端口 {}", coordinator.getPort());
+            if (SPAWN_LOCAL) {
+                coordinator.spawnLocalWorkers(WORKERS);
+            }
+            result = coordinator.run(DistributedPlan.builder()
+                    .name("分布式抢券")
+                    .engineUrl(envConfig.getEngineUrl())
+                    .templateId(templateId)
+                    .shopNumber(SHOP_NUMBER)
+                    .workers(WORKERS)
+                    .threadsPerWorker(THREADS_PER_WORKER)
+                    .targetRate(TARGET_RATE)
+                    .timeoutMillis(envConfig.getTimeout())
+                    .build(), userIds);
+        }
+        LoadReport.attach(result.getMetrics());
+
+        long success = result.getMetrics().getOutcomes().count(OutcomeCategory.SUCCESS);
+        Assert.assertEquals(result.getMetrics().getLatency().getCount(), USER_COUNT, "部分用户未发出请求");
+        Assert.assertEquals(result.getSuccessUserIds().size(), (int) success, "成功用户去重后数量与成功计数不一致");
+        Assert.assertTrue(success <= STOCK, "超卖：成功 " + success + " > 库存 " + STOCK);
+
+        long missing = result.getSuccessUserIds().stream()
+                .filter(uid -> !hasLimitKey(uid, templateId))
+                .count();
+        Assert.assertEquals(missing, 0, "成功用户缺失 limit Key");
+    }
+}
@@ -0,0 +1,159 @@
+package com.jianbing.coupontest.cases;
+
+import cn.hutool.core.date.DateUtil;
+import com.alibaba.fastjson.JSON;
+import com.jianbing.coupontest.component.TestDataRegistry;
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LatencyHistogram;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import com.jianbing.coupontest.load.LoadReport;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.req.CouponTemplateReq;
+import com.jianbing.coupontest.service.MerchantAdminApi;
+import com.jianbing.coupontest.utils.JsonFieldScanner;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.http.HttpRequest;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 防重复提交锁风暴基准
+ * 在 IdempotencyTest (20 线程 / 同一请求) 的基础上放大到数千并发，按比例混合相同请求与不同请求，
+ * 对比纯不同请求的基线，量化 MD5 分布式锁给正常请求带来的额外延迟以及重复请求被拒绝的速度
+ */
+@Slf4j
+@Epic("系统健壮性测试")
+@Feature("防重幂等性机制验证")
+public class DuplicateSubmitStormTest extends BaseTest {
+
+    @Autowired
+    private EnvConfig envConfig;
+    @Autowired
+    private TestDataRegistry testDataRegistry;
+
+    // 【配置区域】并发提交者数量、重复请求占比、重复请求分组数 (每组内请求完全相同)
+    private static final int SUBMITTERS = Integer.getInteger("storm.submitters", 2000);
+    private static final double DUPLICATE_RATIO = Double.parseDouble(System.getProperty("storm.duplicateRatio", "0.5"));
+    private static final int DUPLICATE_GROUPS = Integer.getInteger("storm.duplicateGroups", 10);
+    /**
+     * 混合风暴中不同请求的 p99 相对基线允许增加的毫秒数 (防重锁不应串行化无关请求)
+     */
+    private static final double MAX_LOCK_P99_MILLIS = Double.parseDouble(System.getProperty("storm.maxLockP99Millis", "200"));
+
+    private static final String DISTINCT = "distinct";
+    private static final String DUPLICATE = "duplicate";
+
+    private HttpSampler sampler;
+
+    @Test(groups = PERFORMANCE, description = "数千并发混合相同/不同请求，验证防重锁不会串行化无关请求")
+    @Story("防重锁高并发开销")
+    @Severity(SeverityLevel.CRITICAL)
+    public void testDuplicateSubmitLockStorm() throws InterruptedException {
+        sampler = HttpSampler.withTimeoutMillis(envConfig.getTimeout());
+
+        // 1. 基线：全部为不同请求
+        AtomicInteger baselineSuccess = new AtomicInteger();
+        LoadMetrics baseline = storm("防重锁基线(全部不同请求)", 0, baselineSuccess, null);
+        LoadReport.attach(baseline);
+        Assert.assertEquals(baselineSuccess.get(), SUBMITTERS, "基线中的不同请求未全部创建成功:\n"
+                + baseline.getOutcomes().toTable());
+
+        // 2. 混合风暴
+        int duplicateSubmitters = (int) Math.round(SUBMITTERS * DUPLICATE_RATIO);
+        AtomicInteger mixedSuccess = new AtomicInteger();
+        AtomicIntegerArray groupSuccess = new AtomicIntegerArray(DUPLICATE_GROUPS);
+        LoadMetrics mixed = storm("防重锁风暴(重复占比" + DUPLICATE_RATIO + ")", DUPLICATE_RATIO, mixedSuccess, groupSuccess);
+        LoadReport.attach(mixed);
+
+        LatencyHistogram baselineDistinct = baseline.getEndpointLatency().get(DISTINCT);
+        LatencyHistogram mixedDistinct = mixed.getEndpointLatency().get(DISTINCT);
+        LatencyHistogram duplicates = mixed.getEndpointLatency().get(DUPLICATE);
+        String report = String.format("不同请求(基线): %s%n不同请求(混合): %s%n重复请求(混合): %s%n锁开销 p50=%+.2fms, p99=%+.2fms",
+                baselineDistinct.summary(),
+                mixedDistinct == null ? "-" : mixedDistinct.summary(),
+                duplicates == null ? "-" : duplicates.summary(),
+                mixedDistinct == null ? 0 : mixedDistinct.percentileMillis(50) - baselineDistinct.percentileMillis(50),
+                mixedDistinct == null ? 0 : mixedDistinct.percentileMillis(99) - baselineDistinct.percentileMillis(99));
+        log.info(">>> [防重风暴] \n{}", report);
+        Allure.addAttachment("防重锁开销对比", "text/plain", report, ".txt");
+
+        // 3. 不同请求在混合风暴中也全部成功，每组相同请求恰好成功一次
+        Assert.assertEquals(mixedSuccess.get(), SUBMITTERS - duplicateSubmitters, "混合风暴中的不同请求未全部创建成功");
+        for (int group = 0; group < Math.min(DUPLICATE_GROUPS, duplicateSubmitters); group++) {
+            Assert.assertEquals(groupSuccess.get(group), 1, "重复请求组 " + group + " 成功了 " + groupSuccess.get(group) + " 次，应恰好一次");
+        }
+
+        // 4. 防重锁给不同请求带来的 p99 开销有上限
+        if (mixedDistinct != null) {
+            double p99Overhead = mixedDistinct.percentileMillis(99) - baselineDistinct.percentileMillis(99);
+            Assert.assertTrue(p99Overhead <= MAX_LOCK_P99_MILLIS, String.format(
+                    "混合风暴中不同请求的 p99 比基线高 %.2fms，超过 %.2fms (-Dstorm.maxLockP99Millis)", p99Overhead, MAX_LOCK_P99_MILLIS));
+        }
+    }
+
+    /**
+     * @param distinctSuccess 不同请求的成功数
+     * @param groupSuccess    各重复组的成功数，无重复请求时为 null
+     */
+    private LoadMetrics storm(String name, double duplicateRatio, AtomicInteger distinctSuccess,
+                              AtomicIntegerArray groupSuccess) throws InterruptedException {
+        String url = envConfig.getMerchantUrl() + MerchantAdminApi.TEMPLATE_CREATE_PATH;
+        String runId = namespace.name("防重风暴");
+        int duplicateSubmitters = (int) Math.round(SUBMITTERS * duplicateRatio);
+
+        // 预先序列化请求体，发令枪响后只剩网络开销；有效期整场共用一份，保证同组请求体完全相同
+        String validStart = DateUtil.now();
+        String validEnd = DateUtil.offsetDay(new Date(), 30).toString();
+        String[] bodies = new String[SUBMITTERS];
+        for (int i = 0; i < SUBMITTERS; i++) {
+            boolean duplicate = i < duplicateSubmitters;
+            String payloadName = duplicate ? runId + "_dup_" + (i % DUPLICATE_GROUPS) : runId + "_" + i;
+            bodies[i] = JSON.toJSONString(templateReq(payloadName, validStart, validEnd));
+        }
+
+        LoadEngine engine = new LoadEngine(LoadPlan.builder()
+                .name(name)
+                .threads(SUBMITTERS)
+                .loops(1)
+                .build());
+        return engine.run((threadIndex, iteration) -> {
+            boolean duplicate = threadIndex < duplicateSubmitters;
+            HttpRequest request = HttpSampler.jsonRequest("POST", url, bodies[threadIndex], Map.of());
+            Outcome outcome = sampler.send(request, duplicate ? DUPLICATE : DISTINCT);
+            if (outcome.isSuccess()) {
+                testDataRegistry.registerTemplate(JsonFieldScanner.topLevelValue(outcome.getBody(), "data"));
+                if (duplicate) {
+                    groupSuccess.incrementAndGet(threadIndex % DUPLICATE_GROUPS);
+                } else {
+                    distinctSuccess.incrementAndGet();
+                }
+            }
+            return outcome;
+        });
+    }
+
+    private CouponTemplateReq templateReq(String name, String validStart, String validEnd) {
+        return CouponTemplateReq.builder()
+                .name(name)
+                .source(0)
+                .target(0)
+                .goods("TestGoods")
+                .type(0)
+                .validStartTime(validStart)
+                .validEndTime(validEnd)
+                .stock(100)
+                .receiveRule("{\"limitPerPerson\":1,\"usageInstructions\":\"Test\"}")
+                .consumeRule("{\"termsOfUse\":10,\"maximumDiscountAmount\":5,\"validityPeriod\":48}")
+                .build();
+    }
+}
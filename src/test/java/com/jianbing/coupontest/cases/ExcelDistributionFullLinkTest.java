@@ -1,31 +1,24 @@
 package com.jianbing.coupontest.cases;
 
 import cn.hutool.core.date.DateUtil;
-import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.RandomUtil;
-import com.alibaba.excel.EasyExcel;
-import com.alibaba.excel.annotation.ExcelProperty;
-import com.alibaba.excel.annotation.write.style.ColumnWidth;
 import com.alibaba.fastjson.JSON;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.github.javafaker.Faker;
-import com.jianbing.coupontest.dao.entity.UserCouponDO;
-import com.jianbing.coupontest.dao.mapper.UserCouponMapper;
+import com.jianbing.coupontest.dao.UserCouponShardDao;
 import com.jianbing.coupontest.req.CouponTaskReq;
 import com.jianbing.coupontest.req.CouponTemplateReq;
 import com.jianbing.coupontest.service.MerchantAdminApi;
+import com.jianbing.coupontest.utils.DistributionExcelGenerator;
+import com.jianbing.coupontest.utils.DistributionExcelGenerator.ExcelUser;
 import io.qameta.allure.*;
 import io.restassured.response.Response;
-import lombok.*;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
-import java.io.File;
-import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 
@@ -41,11 +34,9 @@ public class ExcelDistributionFullLinkTest extends BaseTest {
     private MerchantAdminApi merchantAdminApi; // 注入封装好的 API 服务
 
     @Autowired
-    private UserCouponMapper userCouponMapper; // 注入 Mapper 进行白盒验证
+    private UserCouponShardDao userCouponShardDao; // 按分库分表路由进行白盒验证
 
     private final Faker faker = new Faker(Locale.CHINA);
-    // 兼容各操作系统的临时目录
-    private final String excelBasePath = Paths.get("").toAbsolutePath().getParent() + File.separator + "tmp";
 
     @Test(description = "创建模板 -> 生成Excel -> 提交任务 -> 验证DB落库")
     @Story("验证百万级分发功能的正确性与最终一致性")
@@ -102,11 +93,7 @@ public class ExcelDistributionFullLinkTest extends BaseTest {
 
     @Step("步骤2: 生成 Excel 文件")
     private String generateExcelFileStep(List<ExcelUser> targetList, int count) {
-        if (!FileUtil.exist(excelBasePath)) {
-            FileUtil.mkdir(excelBasePath);
-        }
-        String fileName = "分发_Test_" + IdUtil.simpleUUID() + ".xlsx";
-        String fullPath = excelBasePath + File.separator + fileName;
+        String fullPath = DistributionExcelGenerator.newFilePath("分发_Test");
 
         for (int i = 0; i < count; i++) {
             targetList.add(ExcelUser.builder()
@@ -116,11 +103,7 @@ public class ExcelDistributionFullLinkTest extends BaseTest {
                     .build());
         }
 
-        EasyExcel.write(fullPath, ExcelUser.class)
-                .sheet("优惠券推送列表")
-                .doWrite(targetList);
-
-        log.info(">>> Excel 生成完毕: {}, 共 {} 条数据", fullPath, count);
+        DistributionExcelGenerator.write(fullPath, targetList);
         return fullPath;
     }
 
@@ -155,11 +138,7 @@ public class ExcelDistributionFullLinkTest extends BaseTest {
         String checkUserId = users.get(0).getUserId();
 
         while (System.currentTimeMillis() - startTime < maxWaitTime) {
-            LambdaQueryWrapper<UserCouponDO> query = Wrappers.lambdaQuery(UserCouponDO.class)
-                    .eq(UserCouponDO::getUserId, Long.valueOf(checkUserId))
-                    .eq(UserCouponDO::getCouponTemplateId, Long.valueOf(templateId));
-
-            Long count = userCouponMapper.selectCount(query);
+            int count = userCouponShardDao.findByUser(Long.valueOf(checkUserId), Long.valueOf(templateId)).size();
 
             if (count > 0) {
                 allSuccess = true;
@@ -173,23 +152,4 @@ public class ExcelDistributionFullLinkTest extends BaseTest {
 
         Assert.assertTrue(allSuccess, "超时未在数据库中查找到分发记录，测试失败！(可能是RocketMQ消费延迟或Excel解析失败)");
     }
-
-    // ================= 内部类定义 (Excel 模型) =================
-    @Data
-    @NoArgsConstructor
-    @AllArgsConstructor
-    @Builder
-    public static class ExcelUser {
-        @ColumnWidth(30)
-        @ExcelProperty("用户ID")
-        private String userId;
-
-        @ColumnWidth(20)
-        @ExcelProperty("手机号")
-        private String phone;
-
-        @ColumnWidth(30)
-        @ExcelProperty("邮箱")
-        private String mail;
-    }
-}
\ No newline at end of file
+}
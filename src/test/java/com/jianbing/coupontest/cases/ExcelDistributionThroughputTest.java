@@ -0,0 +1,135 @@
+package com.jianbing.coupontest.cases;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.RandomUtil;
+import com.alibaba.fastjson.JSON;
+import com.jianbing.coupontest.component.ShardRowCounter;
+import com.jianbing.coupontest.load.ProgressCurve;
+import com.jianbing.coupontest.req.CouponTaskReq;
+import com.jianbing.coupontest.req.CouponTemplateReq;
+import com.jianbing.coupontest.service.MerchantAdminApi;
+import com.jianbing.coupontest.utils.DistributionExcelGenerator;
+import io.qameta.allure.*;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Excel 分发吞吐基准
+ * 依次提交规模递增的分发文件，固定间隔采样全部分表的落库行数，
+ * 输出 Excel解析 -> MQ -> 落库 整条链路随文件规模的扩展情况
+ */
+@Slf4j
+@Epic("优惠券系统-全链路测试")
+@Feature("场景：Excel分发吞吐与落库进度曲线")
+public class ExcelDistributionThroughputTest extends BaseTest {
+
+    @Autowired
+    private MerchantAdminApi merchantAdminApi;
+    @Autowired
+    private ShardRowCounter shardRowCounter;
+
+    // 【配置区域】文件规模，例如 -Ddistribution.sizes=10000,100000,1000000
+    private static final int[] SIZES = Arrays.stream(System.getProperty("distribution.sizes", "10000,100000,1000000")
+            .split(",")).mapToInt(size -> Integer.parseInt(size.trim())).toArray();
+    private static final long SAMPLE_INTERVAL_MILLIS = Long.getLong("distribution.sampleIntervalMs", 1000L);
+    // 按每秒至少 1000 行估算超时，最少 2 分钟
+    private static final long MIN_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    @Test(groups = PERFORMANCE, description = "规模递增的分发文件 -> 固定间隔采样落库进度 -> 输出吞吐曲线")
+    @Story("验证分发链路随文件规模的吞吐扩展")
+    @Severity(SeverityLevel.NORMAL)
+    public void testDistributionThroughputCurve() throws InterruptedException {
+        List<ProgressCurve> curves = new ArrayList<>(SIZES.length);
+        for (int size : SIZES) {
+            curves.add(runOneSize(size));
+        }
+
+        StringBuilder report = new StringBuilder(String.format("%10s %14s %14s %12s %12s %12s%n",
+                "rows", "firstRow(ms)", "complete(ms)", "rows/s", "tailRatio", "scaling"));
+        double baseRate = curves.get(0).averageRowsPerSecond();
+        for (ProgressCurve curve : curves) {
+            double rate = curve.averageRowsPerSecond();
+            report.append(String.format("%10d %14d %14d %12.1f %12.2f %12.2f%n", curve.getExpectedRows(),
+                    curve.getFirstRowMillis(), curve.getCompletedMillis(), rate, curve.tailSlowdown(),
+                    baseRate == 0 ? 0 : rate / baseRate));
+        }
+        log.info(">>> [分发吞吐] 汇总：\n{}", report);
+        Allure.addAttachment("分发吞吐汇总", "text/plain", report.toString(), ".txt");
+
+        for (ProgressCurve curve : curves) {
+            Assert.assertTrue(curve.isCompleted(), "规模 " + curve.getExpectedRows() + " 的分发任务未在超时时间内完成: " + curve.summary());
+        }
+    }
+
+    @Step("分发规模: {size} 行")
+    private ProgressCurve runOneSize(int size) throws InterruptedException {
+        String templateId = createTemplate(size);
+        String excelPath = DistributionExcelGenerator.newFilePath("分发吞吐_" + size);
+        DistributionExcelGenerator.writeRandom(excelPath, size);
+
+        long submitAt = System.currentTimeMillis();
+        submitTask(templateId, excelPath);
+        ProgressCurve curve = new ProgressCurve(submitAt, size);
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            try {
+                curve.sample(System.currentTimeMillis(), shardRowCounter.countTotal(Long.valueOf(templateId)));
+            } catch (Exception e) {
+                log.warn(">>> [分发吞吐] 采样失败: {}", e.getMessage());
+            }
+        }, 0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        long maxWait = Math.max(MIN_WAIT_MILLIS, size);
+        try {
+            while (!curve.isCompleted() && System.currentTimeMillis() - submitAt < maxWait) {
+                TimeUnit.MILLISECONDS.sleep(SAMPLE_INTERVAL_MILLIS);
+            }
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        log.info(">>> [分发吞吐] {} 行: {}", size, curve.summary());
+        Allure.addAttachment("落库曲线 " + size + " 行", "text/csv", curve.toCsv(), ".csv");
+        return curve;
+    }
+
+    private String createTemplate(int stock) {
+        CouponTemplateReq req = CouponTemplateReq.builder()
+                .name("分发吞吐测试券_" + RandomUtil.randomString(5))
+                .source(0).target(1).type(0)
+                .validStartTime(DateUtil.now())
+                .validEndTime(DateUtil.offsetDay(new Date(), 30).toString())
+                .stock(stock)
+                .receiveRule("{\"limitPerPerson\":1,\"usageInstructions\":\"Throughput Test\"}")
+                .consumeRule("{\"termsOfUse\":10,\"maximumDiscountAmount\":5,\"validityPeriod\":48}")
+                .build();
+        Response response = merchantAdminApi.createCouponTemplate(req);
+        String templateId = response.jsonPath().getString("data");
+        Assert.assertNotNull(templateId, "模板创建失败: " + response.asString());
+        return templateId;
+    }
+
+    private void submitTask(String templateId, String filePath) {
+        CouponTaskReq req = CouponTaskReq.builder()
+                .taskName("分发吞吐-Task-" + templateId)
+                .fileAddress(filePath)
+                .couponTemplateId(templateId)
+                .sendType(0) // 0-立即发送
+                .build();
+        Response response = merchantAdminApi.createCouponTask(req);
+        Assert.assertEquals(response.getStatusCode(), 200, "分发任务接口调用失败");
+        Assert.assertTrue(JSON.parseObject(response.asString()).getBoolean("success"), "分发任务业务失败: " + response.asString());
+    }
+}
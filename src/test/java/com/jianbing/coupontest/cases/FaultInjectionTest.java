@@ -0,0 +1,119 @@
+package com.jianbing.coupontest.cases;
+
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LatencyHistogram;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import com.jianbing.coupontest.load.LoadReport;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.load.OutcomeCategory;
+import com.jianbing.coupontest.load.RedeemScenario;
+import com.jianbing.coupontest.load.fault.FaultProxy;
+import com.jianbing.coupontest.load.fault.FaultSchedule;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 网络故障注入
+ * 抢券请求经本机故障代理转发到引擎，按时间表依次注入延迟尖刺、超过截止时间的延迟、连接重置与带宽限制，
+ * 验证：1. 客户端截止时间生效，任何请求都不会无限挂起；2. 故障期间返回成功的用户全部落 Redis
+ */
+@Slf4j
+@Epic("系统健壮性测试")
+@Feature("网络故障注入")
+public class FaultInjectionTest extends BaseTest {
+
+    @Autowired
+    private EnvConfig envConfig;
+
+    // 【配置区域】发压线程数、目标速率 (请求/秒)
+    private static final int THREADS = Integer.getInteger("fault.threads", 50);
+    private static final double TARGET_RATE = Double.parseDouble(System.getProperty("fault.rate", "200"));
+
+    /**
+     * 截止时间之外允许的误差 (线程调度、直方图桶精度)
+     */
+    private static final long DEADLINE_SLACK_MILLIS = 1000;
+
+    @Test(groups = PERFORMANCE, description = "延迟尖刺 / 连接重置 / 带宽限制下请求按截止时间结束，成功用户无丢失")
+    @Story("故障时间表下的超时与一致性")
+    @Severity(SeverityLevel.CRITICAL)
+    public void testRedeemUnderNetworkFaults() throws Exception {
+        int timeoutMillis = Math.max(envConfig.getTimeout(), 1000);
+        int timeoutSeconds = (int) Math.ceil(timeoutMillis / 1000.0);
+        // 正常 -> 小幅延迟 -> 超过截止时间的延迟 -> 连接重置 -> 限速 -> 恢复
+        int spikeEnd = 10;
+        int stallEnd = spikeEnd + timeoutSeconds + 2;
+        int resetEnd = stallEnd + 5;
+        int throttleEnd = resetEnd + 5;
+        FaultSchedule schedule = FaultSchedule.builder()
+                .latency(5, spikeEnd, 300)
+                .latency(spikeEnd, stallEnd, timeoutMillis + 500L)
+                .reset(stallEnd, resetEnd)
+                .bandwidth(resetEnd, throttleEnd, 2048)
+                .build();
+        int durationSeconds = throttleEnd + 5;
+
+        int stock = (int) (TARGET_RATE * durationSeconds) + 1000;
+        String templateId = createTemplate("故障注入券", stock);
+
+        Set<String> successUserIds = ConcurrentHashMap.newKeySet();
+        Set<String> timeoutUserIds = ConcurrentHashMap.newKeySet();
+        LoadMetrics metrics;
+        try (FaultProxy proxy = FaultProxy.forUrl(envConfig.getEngineUrl(), schedule)) {
+            RedeemScenario scenario = new RedeemScenario(proxy.getUrl(), templateId, SHOP_NUMBER,
+                    HttpSampler.withTimeoutMillis(timeoutMillis));
+            LoadEngine engine = new LoadEngine(LoadPlan.builder()
+                    .name("故障注入抢券")
+                    .threads(THREADS)
+                    .loops(-1)
+                    .durationSeconds(durationSeconds)
+                    .targetRate(TARGET_RATE)
+                    .build());
+            metrics = engine.run((threadIndex, iteration) -> {
+                String userId = namespace.userId();
+                // 以发出时刻的故障阶段作为统计维度
+                Outcome outcome = scenario.redeem(userId, proxy.currentPhase());
+                if (outcome.isSuccess()) {
+                    successUserIds.add(userId);
+                } else if (outcome.getCategory() == OutcomeCategory.TIMEOUT) {
+                    timeoutUserIds.add(userId);
+                }
+                return outcome;
+            });
+            Allure.addAttachment("故障代理统计", "text/plain", schedule.describe() + proxy.stats(), ".txt");
+        }
+        LoadReport.attach(metrics);
+
+        StringBuilder phases = new StringBuilder();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(metrics.getEndpointLatency()).entrySet()) {
+            phases.append(String.format("%-40s %s%n", entry.getKey(), entry.getValue().summary()));
+        }
+        log.info(">>> [故障注入] 各阶段延迟:\n{}", phases);
+        Allure.addAttachment("各故障阶段延迟", "text/plain", phases.toString(), ".txt");
+
+        // 1. 截止时间生效：最大延迟不超过 timeout + 误差，且超时阶段确实产生了 TIMEOUT
+        long maxMillis = metrics.getLatency().getMaxMicros() / 1000;
+        Assert.assertTrue(maxMillis <= timeoutMillis + DEADLINE_SLACK_MILLIS,
+                "存在请求超过截止时间: max=" + maxMillis + "ms, timeout=" + timeoutMillis + "ms");
+        Assert.assertTrue(metrics.getOutcomes().count(OutcomeCategory.TIMEOUT) > 0, "超长延迟阶段未触发客户端超时");
+
+        // 2. 一致性：成功用户必须有 limit Key；超时用户服务端可能已处理，只记录不判定
+        long missing = successUserIds.stream().filter(uid -> !hasLimitKey(uid, templateId)).count();
+        long timeoutButReceived = timeoutUserIds.stream().filter(uid -> hasLimitKey(uid, templateId)).count();
+        log.info(">>> [故障注入] 成功 {} 人 (缺失 limit Key {} 人)，超时 {} 人 (其中服务端已领券 {} 人)",
+                successUserIds.size(), missing, timeoutUserIds.size(), timeoutButReceived);
+        Assert.assertTrue(successUserIds.size() > 0, "故障时间表之外的正常阶段也没有成功请求");
+        Assert.assertEquals(missing, 0, "返回成功的用户缺失 limit Key");
+    }
+}
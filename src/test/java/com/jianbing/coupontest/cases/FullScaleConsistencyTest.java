@@ -1,12 +1,15 @@
 package com.jianbing.coupontest.cases;
 
+import com.jianbing.coupontest.dao.UserCouponShardDao;
 import com.jianbing.coupontest.dao.mapper.UserCouponMapper;
+import com.jianbing.coupontest.load.ShardHeatmap;
 import com.jianbing.coupontest.utils.UserDataGenerator;
 import io.qameta.allure.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
 @Epic("全链路压测")
@@ -17,13 +20,16 @@ public class FullScaleConsistencyTest extends BaseTest {
     @Autowired
     private UserCouponMapper userCouponMapper;
 
+    @Autowired
+    private UserCouponShardDao userCouponShardDao;
+
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
 
-    // 【配置区域】请修改为你实际压测的 TemplateId
-    private final Long TEMPLATE_ID = 1810966706881941507L;
-    private final int EXPECTED_STOCK = 1000;
-    private final int TABLE_SHARDING_COUNT = 32;
+    // 【配置区域】JMeter 实际压测的 TemplateId，必须通过 -Dfullscale.templateId 指定 (未指定时跳过校验，不再默认共用同一张券)
+    private static final Long TEMPLATE_ID = Long.getLong("fullscale.templateId");
+    private static final int EXPECTED_STOCK = 1000;
+    private static final int TABLE_SHARDING_COUNT = 32;
 
     @Test(priority = 1, description = "Step1: 生成测试数据 (JMeter用)")
     @Story("准备CSV数据")
@@ -36,6 +42,7 @@ public class FullScaleConsistencyTest extends BaseTest {
     @Story("Redis层数据校验")
     @Severity(SeverityLevel.CRITICAL)
     public void step2_verifyRedis() {
+        requireTemplateId();
         String stockKey = "one-coupon_engine:coupon_template:stock:" + TEMPLATE_ID;
         String stockVal = stringRedisTemplate.opsForValue().get(stockKey);
 
@@ -50,20 +57,23 @@ public class FullScaleConsistencyTest extends BaseTest {
     @Story("MySQL数据聚合校验")
     @Severity(SeverityLevel.BLOCKER)
     public void step3_verifyMySQL_Sharding() {
+        requireTemplateId();
         log.info(">>> 开始统计 MySQL {} 张分表数据总量...", TABLE_SHARDING_COUNT);
 
         long totalCount = 0;
+        long[] perTable = new long[TABLE_SHARDING_COUNT];
 
         // 循环统计 t_user_coupon_0 到 t_user_coupon_31
         for (int i = 0; i < TABLE_SHARDING_COUNT; i++) {
             String tableName = "t_user_coupon_" + i;
             try {
-                // 使用 MyBatis-Plus Mapper 调用自定义方法
-                Long count = userCouponMapper.countByTableName(tableName, TEMPLATE_ID);
+                // 使用 MyBatis-Plus Mapper 调用自定义方法 (路由到分表所在的库)
+                Long count = userCouponShardDao.onTable(i, table -> userCouponMapper.countByTableName(table, TEMPLATE_ID));
 
                 if (count != null && count > 0) {
                     log.info(">>> 表 [{}] 发现记录: {} 条", tableName, count);
                     totalCount += count;
+                    perTable[i] = count;
                 }
             } catch (Exception e) {
                 // 如果表不存在或连接问题，记录警告但不中断（可能是某些环境只建了部分表）
@@ -72,6 +82,13 @@ public class FullScaleConsistencyTest extends BaseTest {
         }
 
         log.info(">>> MySQL 32张表 最终汇总数量: {}", totalCount);
+        // 只有最终分布；压测过程中的逐秒热力图见 ShardHotspotTest / ShardHeatmapSampler
+        ShardHeatmap.Imbalance imbalance = ShardHeatmap.imbalance(perTable);
+        if (imbalance != null) {
+            log.info(">>> 分表分布: max/mean={}, Gini={}, 最热 t_user_coupon_{}, 最冷 t_user_coupon_{}",
+                    String.format("%.2f", imbalance.maxOverMean()), String.format("%.3f", imbalance.gini()),
+                    imbalance.hottest(), imbalance.coldest());
+        }
 
         // 核心验证：
         // 1. 绝对不能超过 1000 (超卖)
@@ -79,4 +96,10 @@ public class FullScaleConsistencyTest extends BaseTest {
         Assert.assertEquals(totalCount, (long)EXPECTED_STOCK, "数据库最终落库数量与预期不符！(可能存在超卖或消息丢失)");
         log.info(">>> \uD83C\uDF89 验证通过！高并发防超卖测试成功！");
     }
-}
\ No newline at end of file
+
+    private void requireTemplateId() {
+        if (TEMPLATE_ID == null) {
+            throw new SkipException("未指定 -Dfullscale.templateId (JMeter 压测所用的券)，跳过全量一致性校验");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.jianbing.coupontest.cases;
+
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadReport;
+import com.jianbing.coupontest.load.OutcomeCategory;
+import com.jianbing.coupontest.load.jmx.JmxRunner;
+import com.jianbing.coupontest.load.jmx.JmxTestPlan;
+import com.jianbing.coupontest.utils.UserDataGenerator;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 使用内置压测引擎执行 JMeter 脚本，无需单独安装 JMeter，结果直接进入 Allure
+ */
+@Slf4j
+@Epic("全链路压测")
+@Feature("JMeter 脚本进程内执行")
+public class JmxRedeemScenarioTest extends BaseTest {
+
+    @Autowired
+    private EnvConfig envConfig;
+
+    private static final String JMX_FILE = "oneCouponRedeemUserCouponByMQ.jmx";
+    private static final int STOCK = 1000;
+
+    @Test(groups = PERFORMANCE, description = "内置引擎执行 oneCouponRedeemUserCouponByMQ.jmx")
+    @Story("线程组 / 取样器 / CSV 配置映射到原生压测引擎")
+    @Severity(SeverityLevel.CRITICAL)
+    public void testRunRedeemPlan() throws InterruptedException {
+        JmxRunner runner = JmxRunner.fromFile(Path.of(JMX_FILE)).baseUrl(envConfig.getEngineUrl());
+        JmxTestPlan plan = runner.getPlan();
+
+        if (plan.getCsvDataSet() == null) {
+            // 脚本中未启用 CSV 数据源时，补上 UserDataGenerator 生成的用户文件，每个请求一个新用户
+            Path csv = Path.of(UserDataGenerator.CSV_FILE_PATH).toAbsolutePath();
+            if (!Files.exists(csv)) {
+                UserDataGenerator.generateCsv();
+            }
+            plan.setCsvDataSet(JmxTestPlan.CsvDataSet.builder().filename(csv.toString()).recycle(false).build());
+            plan.getHeaders().put("userId", "${userId}");
+        }
+
+        // 脚本里的模板 ID 是写死的，替换为本次新建的券
+        String templateId = createTemplate("JMX压测券", STOCK);
+        log.info(">>> [JMX] 压测券创建成功, TemplateID: {}", templateId);
+        plan.setBody(plan.getBody().replaceAll("\"couponTemplateId\"\\s*:\\s*\"\\d+\"",
+                "\"couponTemplateId\": \"" + templateId + "\""));
+
+        LoadMetrics metrics = runner.run();
+        LoadReport.attach(metrics);
+
+        long success = metrics.getOutcomes().count(OutcomeCategory.SUCCESS);
+        log.info(">>> [JMX] 抢券成功 {} 张, 库存 {}", success, STOCK);
+        Assert.assertTrue(success <= STOCK, "严重bug：Redis层发生超卖");
+        Assert.assertEquals(metrics.getOutcomes().count(OutcomeCategory.SERVER_ERROR), 0L, "压测期间出现 5xx");
+        Assert.assertEquals(metrics.getOutcomes().count(OutcomeCategory.NETWORK_ERROR), 0L, "压测期间出现网络异常");
+        Assert.assertEquals(metrics.getOutcomes().count(OutcomeCategory.TASK_ERROR), 0L, "压测脚本执行异常");
+    }
+}
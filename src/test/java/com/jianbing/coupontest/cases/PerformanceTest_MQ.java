@@ -1,16 +1,25 @@
 package com.jianbing.coupontest.cases;
 
+import com.jianbing.coupontest.component.LiveMetrics;
+import com.jianbing.coupontest.component.PerformanceHistory;
+import com.jianbing.coupontest.component.ShardRowCounter;
+import com.jianbing.coupontest.component.StockDrainSampler;
+import com.jianbing.coupontest.config.EngineRedisKeys;
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.dao.UserCouponShardDao;
 import com.jianbing.coupontest.dao.entity.UserCouponDO;
-import com.jianbing.coupontest.dao.mapper.UserCouponMapper;
-import com.jianbing.coupontest.req.CouponTemplateRedeemReq;
-import com.jianbing.coupontest.req.CouponTemplateReq;
-import com.jianbing.coupontest.service.EngineApi;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadReport;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.load.RedeemScenario;
+import com.jianbing.coupontest.load.RegressionGate;
+import com.jianbing.coupontest.load.StockDrainTimeline;
+import com.jianbing.coupontest.load.jfr.JfrRecorder;
+import com.jianbing.coupontest.load.jfr.PhaseEvent;
+import com.jianbing.coupontest.load.jfr.VerificationPollEvent;
 import com.jianbing.coupontest.service.MerchantAdminApi;
-import com.jianbing.coupontest.utils.ShardingUtil;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import io.qameta.allure.*;
-import io.restassured.response.Response;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -19,21 +28,30 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Epic("优惠卷系统-架构验证")
 @Feature("方案一：RocketMQ异步削峰")
 @Slf4j
 public class PerformanceTest_MQ extends BaseTest {
     @Autowired
-    private MerchantAdminApi merchantAdminApi;
+    private EnvConfig envConfig;
     @Autowired
-    private EngineApi engineApi;
+    private UserCouponShardDao userCouponShardDao;
     @Autowired
-    private UserCouponMapper userCouponMapper;
+    private ShardRowCounter shardRowCounter;
+    @Autowired
+    private PerformanceHistory performanceHistory;
+    @Autowired
+    private LiveMetrics liveMetrics;
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private StockDrainSampler stockDrainSampler;
 
     // 1. 读取 Redis 前缀配置
     private static final String REDIS_PREFIX = System.getProperty("framework.cache.redis.prefix", "");
@@ -48,12 +66,19 @@ public class PerformanceTest_MQ extends BaseTest {
 
     private final static int STOCK = 800;
     private final static int USER_COUNT = 2000;
+    // 库存扣减 / 落库时间线的对齐网格，以及落库停滞的判定时长
+    private static final long DRAIN_GRID_MILLIS = 200;
+    private static final long DRAIN_STALL_MILLIS = 2000;
     private String templateId;
 
     private ThreadPoolExecutor executor;
     private Set<String> successUserIds = Collections.synchronizedSet(ConcurrentHashMap.newKeySet());
+    private LoadMetrics metrics;
+    // 实时指标：/stop 请求后不再发出新请求；MQ 消费进度 (0~1)
+    private volatile boolean stopRequested;
+    private volatile double consumptionProgress;
 
-    @Test(priority = 1, description = "准备秒杀券")
+    @Test(groups = PERFORMANCE, priority = 1, description = "准备秒杀券")
     public void prepareData() {
         this.executor = new ThreadPoolExecutor(
                 100, 100, 0L, TimeUnit.MILLISECONDS,
@@ -62,133 +87,169 @@ public class PerformanceTest_MQ extends BaseTest {
                 new ThreadPoolExecutor.AbortPolicy()
         );
 
-        CouponTemplateReq req = CouponTemplateReq.builder()
-                .name("MQ压测券_" + System.currentTimeMillis())
-                .source(0).target(0).goods("凤梨").type(0)
-                .validStartTime("2025-12-03 00:00:00").validEndTime("2025-12-12 23:59:59")
-                .stock(STOCK)
-                .receiveRule("{\"limitPerPerson\":1,\"usageInstructions\":\"MQ Test\"}")
-                .consumeRule("{\"termsOfUse\":10,\"maximumDiscountAmount\":5,\"validityPeriod\":48}")
-                .build();
-        Response resp = merchantAdminApi.createCouponTemplate(req);
-        this.templateId = resp.jsonPath().getString("data");
+        this.templateId = createTemplate("MQ压测券", STOCK);
         log.info(">>> [MQ方案] 准备就绪，TemplateID: {}", templateId);
     }
 
-    @Test(priority = 2, dependsOnMethods = "prepareData", description = "高并发抢券")
+    @Test(groups = PERFORMANCE, priority = 2, dependsOnMethods = "prepareData", description = "高并发抢券")
     @Story("验证Redis预扣减能力、MQ异步削峰及最终一致性")
     @Severity(SeverityLevel.CRITICAL)
     public void testHighConcurrency() throws InterruptedException {
         CountDownLatch start = new CountDownLatch(1);
         CountDownLatch end = new CountDownLatch(USER_COUNT);
+        // 压测流量走 HttpSampler，不经过 EngineApi 的 @Step / RestAssured 过滤器，避免每个请求生成一个 Allure 步骤
+        RedeemScenario scenario = new RedeemScenario(envConfig.getEngineUrl(), templateId, SHOP_NUMBER,
+                HttpSampler.withTimeoutMillis(envConfig.getTimeout()));
 
         log.info(">>> [MQ方案] 开始压测，TemplateID: {}, USER_COUNT:{} ", templateId, USER_COUNT);
+        metrics = new LoadMetrics("MQ异步抢券");
+        AtomicInteger inFlight = new AtomicInteger();
+        liveMetrics.watch(() -> metrics, inFlight::get, () -> stopRequested = true);
+        String stockKey = String.format(EngineRedisKeys.TEMPLATE_STOCK, templateId);
+        liveMetrics.gauge("coupontest_redis_stock_remaining", "Redis 剩余库存",
+                () -> Double.parseDouble(stringRedisTemplate.opsForValue().get(stockKey)));
+        liveMetrics.gauge("coupontest_consumption_progress", "MQ 消费进度 (0~1)", () -> consumptionProgress);
 
-        for (int i = 0; i < USER_COUNT; i++) {
-            String uid = ShardingUtil.generateUserIdForTable0();
-            executor.submit(() -> {
-                try {
-                    start.await();
-                    CouponTemplateRedeemReq req = CouponTemplateRedeemReq.builder()
-                            .source(0)
-                            .shopNumber("1810714735922956666")
-                            .couponTemplateId(templateId)
-                            .build();
-                    Response resp = engineApi.redeemByMQ(req, uid);
-                    if (resp.statusCode() == 200 && "0".equals(resp.jsonPath().getString("code"))) {
-                        successUserIds.add(uid);
+        // -Dload.jfr=true 时录制压测端 JFR，请求 / 阶段 / 消费轮询均带自定义事件，便于与服务端延迟对齐
+        JfrRecorder recorder = JfrRecorder.isRequested() ? JfrRecorder.start(metrics.getScenario()) : null;
+        PhaseEvent floodPhase = PhaseEvent.start(metrics.getScenario(), "flood");
+        // 全程高频采样 Redis 库存与分表行数，观察预扣减与落库之间的积压；断言失败时由 try-with-resources 停止采样线程
+        try (StockDrainSampler.Session drain = stockDrainSampler.start(templateId, STOCK)) {
+            for (int i = 0; i < USER_COUNT; i++) {
+                String uid = namespace.userId();
+                executor.submit(() -> {
+                    try {
+                        start.await();
+                        if (stopRequested) {
+                            return;
+                        }
+                        long sendAt = System.nanoTime();
+                        inFlight.incrementAndGet();
+                        Outcome outcome;
+                        try {
+                            // 超过 test-config.timeout 的请求记为 TIMEOUT，其余未拿到响应的记为 NETWORK_ERROR
+                            outcome = scenario.redeem(uid);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                        metrics.record(outcome, sendAt, System.nanoTime());
+                        if (outcome.isSuccess()) {
+                            successUserIds.add(uid);
+                        }
+                    } catch (Exception e) {
+                        log.error(">>> [MQ方案] 请求异常", e);
+                    } finally {
+                        end.countDown();
                     }
-                } catch (Exception e) {
-                    log.error(">>> [MQ方案] 请求异常", e);
-                } finally {
-                    end.countDown();
-                }
-            });
-        }
-
-        log.info(">>> [MQ方案] \uD83D\uDD25流量释放\uD83D\uDD25");
-        long s = System.currentTimeMillis();
-        start.countDown();
-        end.await();
-        log.info(">>> [MQ方案] 请求处理耗时：{} ms", System.currentTimeMillis() - s);
-
-        // --- 阶段一：验证 Redis 预扣减 (生产者层面) ---
-        int successCount = successUserIds.size();
-        log.info(">>> [MQ方案] 接口返回成功数量：{}", successCount);
-        Assert.assertTrue(successCount <= STOCK, "严重bug：Redis层发生超卖");
-
-        // 验证 Limit Key (证明 Lua 脚本执行成功)
-        int redisLimitCount = 0;
-        for (String uid : successUserIds) {
-            String limitKey = String.format(REDIS_LIMIT_KEY_PATTERN, uid, templateId);
-            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(limitKey))) {
-                redisLimitCount++;
+                });
             }
-        }
-        Assert.assertEquals(redisLimitCount, successCount, "Redis Limit记录数与接口成功数不一致");
 
-        // --- 阶段二：智能等待 MQ 消费完成 (无需修改后端) ---
-        // 原理：消费者成功后会写入 User Coupon List 到 Redis。
-        // 我们轮询 Redis 检查这些 Key 是否存在，这比查数据库快得多，且能准确反映消费进度。
+            log.info(">>> [MQ方案] \uD83D\uDD25流量释放\uD83D\uDD25");
+            long s = System.currentTimeMillis();
+            start.countDown();
+            awaitRequests(end, (USER_COUNT + executor.getMaximumPoolSize() - 1) / executor.getMaximumPoolSize());
+            log.info(">>> [MQ方案] 请求处理耗时：{} ms", System.currentTimeMillis() - s);
+            floodPhase.complete();
+            LoadReport.attach(metrics);
 
-        log.info(">>> [MQ方案] 开始监听 Redis 消费结果 (最大等待 300s)...");
-        long waitStart = System.currentTimeMillis();
-        long maxWaitTime = 300 * 1000;
-        boolean allConsumed = false;
+            // --- 阶段一：验证 Redis 预扣减 (生产者层面) ---
+            int successCount = successUserIds.size();
+            log.info(">>> [MQ方案] 接口返回成功数量：{}", successCount);
+            Assert.assertTrue(successCount <= STOCK, "严重bug：Redis层发生超卖");
 
-        while (System.currentTimeMillis() - waitStart < maxWaitTime) {
-            int consumedCount = 0;
-
-            // 遍历所有成功的用户，检查他们的 Redis List 是否已生成
+            // 验证 Limit Key (证明 Lua 脚本执行成功)
+            int redisLimitCount = 0;
             for (String uid : successUserIds) {
-                String listKey = String.format(REDIS_LIST_KEY_PATTERN, uid);
-                // 只要 Key 存在，说明消费者已经运行到了第3步(写入缓存)，DB插入肯定也完成了
-                if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(listKey))) {
-                    consumedCount++;
+                String limitKey = String.format(REDIS_LIMIT_KEY_PATTERN, uid, templateId);
+                if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(limitKey))) {
+                    redisLimitCount++;
                 }
             }
+            Assert.assertEquals(redisLimitCount, successCount, "Redis Limit记录数与接口成功数不一致");
 
-            // 打印进度
-            if (System.currentTimeMillis() % 2000 == 0) {
-                log.info(">>> [消费进度] Redis确认: {}/{}", consumedCount, successCount);
-            }
+            // --- 阶段二：智能等待 MQ 消费完成 (无需修改后端) ---
+            // 原理：消费者成功后会写入 User Coupon List 到 Redis。
+            // 我们轮询 Redis 检查这些 Key 是否存在，这比查数据库快得多，且能准确反映消费进度。
+
+            log.info(">>> [MQ方案] 开始监听 Redis 消费结果 (最大等待 300s)...");
+            long waitStart = System.currentTimeMillis();
+            long maxWaitTime = 300 * 1000;
+            boolean allConsumed = false;
+            long consistencyLagMillis = -1;
+            PhaseEvent consumptionPhase = PhaseEvent.start(metrics.getScenario(), "mq-consumption");
+            int attempt = 0;
+
+            while (System.currentTimeMillis() - waitStart < maxWaitTime) {
+                VerificationPollEvent poll = VerificationPollEvent.start("mq-consumption", ++attempt);
+                int consumedCount = 0;
+
+                // 遍历所有成功的用户，检查他们的 Redis List 是否已生成
+                for (String uid : successUserIds) {
+                    String listKey = String.format(REDIS_LIST_KEY_PATTERN, uid);
+                    // 只要 Key 存在，说明消费者已经运行到了第3步(写入缓存)，DB插入肯定也完成了
+                    if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(listKey))) {
+                        consumedCount++;
+                    }
+                }
+
+                poll.complete(consumedCount, successCount);
+                consumptionProgress = successCount == 0 ? 1 : (double) consumedCount / successCount;
+                // 打印进度
+                if (System.currentTimeMillis() % 2000 == 0) {
+                    log.info(">>> [消费进度] Redis确认: {}/{}", consumedCount, successCount);
+                }
 
-            if (consumedCount >= successCount) {
-                allConsumed = true;
-                log.info(">>> [MQ方案] 全部消息消费完成！耗时: {} ms", System.currentTimeMillis() - waitStart);
-                break;
+                if (consumedCount >= successCount) {
+                    allConsumed = true;
+                    consistencyLagMillis = System.currentTimeMillis() - waitStart;
+                    log.info(">>> [MQ方案] 全部消息消费完成！耗时: {} ms", consistencyLagMillis);
+                    break;
+                }
+
+                Thread.sleep(500); // 500ms 短轮询，反应灵敏
             }
+            consumptionPhase.complete();
+            StockDrainTimeline drainTimeline = drain.stop();
+            String drainSummary = drainTimeline.summary(DRAIN_GRID_MILLIS, DRAIN_STALL_MILLIS);
+            log.info(">>> [MQ方案] 库存扣减 / 落库进度:\n{}", drainSummary);
+            Allure.addAttachment("库存扣减与落库进度", "text/plain", drainSummary, ".txt");
+            Allure.addAttachment("库存扣减与落库时间线", "text/csv", drainTimeline.toCsv(DRAIN_GRID_MILLIS), ".csv");
 
-            Thread.sleep(500); // 500ms 短轮询，反应灵敏
-        }
+            Assert.assertTrue(allConsumed, "等待 MQ 消费超时，部分用户未在 Redis 生成领券记录，可能存在消息丢失");
 
-        Assert.assertTrue(allConsumed, "等待 MQ 消费超时，部分用户未在 Redis 生成领券记录，可能存在消息丢失");
-
-        // --- 阶段三：数据库最终一致性兜底校验 ---
-        // 此时 Redis 已经确认数据都在了，DB 查询应该是一次过
-        Long dbCount = getDBReceivedCount0(templateId);
-        log.info(">>> [MQ方案] DB_0 表最终入库数量: {}", dbCount);
-        Assert.assertEquals(dbCount.intValue(), successCount, "Redis显示已消费但MySQL数据缺失(严重)");
-
-        // 抽样验证
-        int checkLimit = 0;
-        for (String uid : successUserIds) {
-            if (++checkLimit > 20) break;
-            LambdaQueryWrapper<UserCouponDO> query = Wrappers.lambdaQuery(UserCouponDO.class)
-                    .eq(UserCouponDO::getUserId, Long.valueOf(uid))
-                    .eq(UserCouponDO::getCouponTemplateId, Long.valueOf(templateId));
-            Assert.assertTrue(userCouponMapper.selectCount(query) > 0, "用户 " + uid + " DB记录缺失");
-        }
-        log.info(">>> [MQ方案] 测试通过！");
-    }
+            // --- 阶段三：数据库最终一致性兜底校验 ---
+            // 此时 Redis 已经确认数据都在了，DB 查询应该是一次过
+            Long dbCount = shardRowCounter.countTotal(Long.valueOf(templateId));
+            log.info(">>> [MQ方案] 全部分表最终入库数量: {}", dbCount);
+            Assert.assertEquals(dbCount.intValue(), successCount, "Redis显示已消费但MySQL数据缺失(严重)");
+
+            // 逐用户验证：按分表分组批量查询
+            List<Long> uids = successUserIds.stream().map(Long::valueOf).toList();
+            Map<Long, List<UserCouponDO>> rows = userCouponShardDao.findByUsers(uids, Long.valueOf(templateId));
+            for (Long uid : uids) {
+                Assert.assertTrue(rows.containsKey(uid), "用户 " + uid + " DB记录缺失");
+            }
 
-    private Long getDBReceivedCount0(String couponTemplateId) {
-        LambdaQueryWrapper<UserCouponDO> queryWrapper = Wrappers.lambdaQuery(UserCouponDO.class)
-                .eq(UserCouponDO::getCouponTemplateId, Long.valueOf(couponTemplateId));
-        return userCouponMapper.selectCount(queryWrapper);
+            // --- 阶段四：与历史基线对比 (被 /stop 提前结束的不完整运行不计入基线) ---
+            if (stopRequested) {
+                log.warn(">>> [MQ方案] 压测被 /stop 提前结束，跳过基线记录与回退校验");
+                return;
+            }
+            RegressionGate.RegressionReport regression = performanceHistory.record(metrics, consistencyLagMillis);
+            Assert.assertFalse(regression.isFailed(), "性能回退：\n" + regression.describe());
+            log.info(">>> [MQ方案] 测试通过！");
+        } finally {
+            // 断言失败时也要停止录制并附加、解除实时指标观测，否则录制与 gauge 会在测试 JVM 中一直存在
+            if (recorder != null) {
+                recorder.stopAndAttach();
+            }
+            liveMetrics.unwatch();
+            liveMetrics.removeGauge("coupontest_redis_stock_remaining");
+            liveMetrics.removeGauge("coupontest_consumption_progress");
+        }
     }
 
-    @AfterClass
+    @AfterClass(alwaysRun = true)
     public void tearDown() {
         if (executor != null) {
             executor.shutdownNow();
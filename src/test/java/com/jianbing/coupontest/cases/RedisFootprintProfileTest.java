@@ -0,0 +1,103 @@
+package com.jianbing.coupontest.cases;
+
+import com.jianbing.coupontest.component.RedisMemoryProfiler;
+import com.jianbing.coupontest.component.RedisMemoryProfiler.KeyspaceFootprint;
+import com.jianbing.coupontest.config.EngineRedisKeys;
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.RedeemScenario;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis 内存占用推算
+ * 先用一小批新用户抢券，保证 limit / list Key 一定存在，再连同其他压测遗留的 Key 一起采样，按目标用户量推算 Redis 容量
+ */
+@Slf4j
+@Epic("全链路压测")
+@Feature("Redis 容量评估")
+public class RedisFootprintProfileTest extends BaseTest {
+
+    @Autowired
+    private RedisMemoryProfiler redisMemoryProfiler;
+
+    @Autowired
+    private EnvConfig envConfig;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // 【配置区域】预热抢券的用户数、等待 MQ 写入 list Key 的时长、每类 Key 的采样数、推算的目标用户量、人均领券次数
+    private static final int SEED_USERS = Integer.getInteger("footprint.seedUsers", 200);
+    private static final long SEED_WAIT_MILLIS = Long.getLong("footprint.seedWaitMillis", 30_000L);
+    private static final int SAMPLE_SIZE = Integer.getInteger("footprint.sampleSize", 2000);
+    private static final long TARGET_USERS = Long.getLong("footprint.targetUsers", 10_000_000L);
+    private static final double REDEMPTIONS_PER_USER = Double.parseDouble(System.getProperty("footprint.redemptionsPerUser", "1"));
+
+    @Test(groups = PERFORMANCE, description = "采样 user-template-limit / user-template-list Key 内存并推算目标规模")
+    @Story("按用户量推算 Redis 内存")
+    @Severity(SeverityLevel.NORMAL)
+    public void testProjectRedisFootprint() throws InterruptedException {
+        seedKeys();
+
+        KeyspaceFootprint limit = redisMemoryProfiler.profile(
+                EngineRedisKeys.scanPattern(EngineRedisKeys.USER_TEMPLATE_LIMIT), SAMPLE_SIZE);
+        KeyspaceFootprint list = redisMemoryProfiler.profile(
+                EngineRedisKeys.scanPattern(EngineRedisKeys.USER_TEMPLATE_LIST), SAMPLE_SIZE);
+        Assert.assertTrue(limit.getKeyCount() > 0, "预热抢券后仍未扫描到 limit Key");
+        Assert.assertTrue(list.getKeyCount() > 0, "预热抢券后仍未扫描到 list Key");
+
+        // limit Key 一次领取一个，list Key 一个用户一个
+        double bytesPerRedemption = limit.getAvgBytesPerKey();
+        double bytesPerUser = list.getAvgBytesPerKey() + bytesPerRedemption * REDEMPTIONS_PER_USER;
+        double projected = bytesPerUser * TARGET_USERS;
+
+        String report = String.format(
+                "%-60s %12s %8s %14s %14s%n%s%n%s%n%n" +
+                        "每次领取: %.1f B%n每用户(%.1f 次领取): %.1f B%n推算 %,d 用户: %.2f MB (%.2f GB)",
+                "pattern", "keys", "sampled", "avgBytes", "totalMB",
+                row(limit), row(list),
+                bytesPerRedemption, REDEMPTIONS_PER_USER, bytesPerUser,
+                TARGET_USERS, projected / 1024 / 1024, projected / 1024 / 1024 / 1024);
+        log.info(">>> [Redis内存] 推算结果：\n{}", report);
+        Allure.addAttachment("Redis 内存推算", "text/plain", report, ".txt");
+    }
+
+    /**
+     * 新用户各抢一张券：limit Key 由 Lua 扣库存时同步写入，list Key 由 MQ 消费者异步写入，等到最后一个成功用户的 list Key 出现
+     */
+    private void seedKeys() throws InterruptedException {
+        String templateId = createTemplate("内存评估券", SEED_USERS);
+        RedeemScenario scenario = new RedeemScenario(envConfig.getEngineUrl(), templateId, SHOP_NUMBER,
+                HttpSampler.withTimeoutMillis(envConfig.getTimeout()));
+        List<String> redeemed = new ArrayList<>();
+        for (int i = 0; i < SEED_USERS; i++) {
+            String userId = namespace.userId();
+            if (scenario.redeem(userId).isSuccess()) {
+                redeemed.add(userId);
+            }
+        }
+        Assert.assertFalse(redeemed.isEmpty(), "预热抢券全部失败，无法生成待采样的 Key");
+        log.info(">>> [Redis内存] 预热抢券成功 {}/{}，TemplateID: {}", redeemed.size(), SEED_USERS, templateId);
+
+        String lastListKey = String.format(EngineRedisKeys.USER_TEMPLATE_LIST, redeemed.get(redeemed.size() - 1));
+        long deadline = System.currentTimeMillis() + SEED_WAIT_MILLIS;
+        while (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(lastListKey))) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline,
+                    "等待 " + SEED_WAIT_MILLIS + "ms 后 MQ 仍未写入 list Key: " + lastListKey);
+            Thread.sleep(200);
+        }
+    }
+
+    private String row(KeyspaceFootprint footprint) {
+        return String.format("%-60s %12d %8d %14.1f %14.2f", footprint.getPattern(), footprint.getKeyCount(),
+                footprint.getSampledKeys(), footprint.getAvgBytesPerKey(), footprint.estimatedTotalBytes() / 1024 / 1024);
+    }
+}
@@ -0,0 +1,153 @@
+package com.jianbing.coupontest.cases;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.RandomUtil;
+import com.alibaba.fastjson.JSON;
+import com.jianbing.coupontest.component.ShardRowCounter;
+import com.jianbing.coupontest.load.ProgressCurve;
+import com.jianbing.coupontest.req.CouponTaskReq;
+import com.jianbing.coupontest.req.CouponTemplateReq;
+import com.jianbing.coupontest.service.MerchantAdminApi;
+import com.jianbing.coupontest.utils.DistributionExcelGenerator;
+import io.qameta.allure.*;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时分发调度延迟测试
+ * 多个不同规模的分发任务约定在同一时刻发送，测量 sendTime 到首行/末行落库的延迟
+ */
+@Slf4j
+@Epic("优惠券系统-全链路测试")
+@Feature("场景：大量定时分发任务同一时刻触发")
+public class ScheduledDistributionLatencyTest extends BaseTest {
+
+    @Autowired
+    private MerchantAdminApi merchantAdminApi;
+    @Autowired
+    private ShardRowCounter shardRowCounter;
+
+    // 【配置区域】任务数量、文件规模 (按顺序循环分配给各任务)
+    private static final int TASK_COUNT = Integer.getInteger("schedule.tasks", 10);
+    private static final int[] FILE_SIZES = {1000, 5000, 20000};
+    // 定时时间至少留出的提交时间 (秒)，最终对齐到整分钟
+    private static final int MIN_LEAD_SECONDS = 90;
+    private static final long MAX_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final long POLL_INTERVAL_MILLIS = 1000;
+
+    @Test(groups = PERFORMANCE, description = "多任务同时定时发送 -> 轮询全部分表 -> 统计调度延迟")
+    @Story("验证调度器在整点大量活动同时开始时能否跟上")
+    @Severity(SeverityLevel.CRITICAL)
+    public void testScheduledDispatchLatency() throws InterruptedException {
+        Date sendAt = alignedSendTime();
+        String sendTime = DateUtil.formatDateTime(sendAt);
+        log.info(">>> [定时分发] {} 个任务将于 {} 同时发送", TASK_COUNT, sendTime);
+
+        List<ScheduledTask> tasks = new ArrayList<>(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            int rows = FILE_SIZES[i % FILE_SIZES.length];
+            String templateId = createTemplate(rows);
+            String excelPath = DistributionExcelGenerator.newFilePath("定时分发_" + rows);
+            DistributionExcelGenerator.writeRandom(excelPath, rows);
+            submitScheduledTask(templateId, excelPath, sendTime);
+            tasks.add(new ScheduledTask(templateId, new ProgressCurve(sendAt.getTime(), rows)));
+        }
+        Assert.assertTrue(System.currentTimeMillis() < sendAt.getTime(), "任务提交耗时超过预留时间，请调大 MIN_LEAD_SECONDS");
+
+        pollUntilCompleted(tasks, sendAt.getTime());
+        String report = report(tasks);
+        log.info(">>> [定时分发] 调度延迟统计：\n{}", report);
+        Allure.addAttachment("定时分发调度延迟", "text/plain", report, ".txt");
+        for (ScheduledTask task : tasks) {
+            Allure.addAttachment("落库曲线 " + task.templateId, "text/csv", task.curve.toCsv(), ".csv");
+        }
+
+        long unfinished = tasks.stream().filter(task -> !task.curve.isCompleted()).count();
+        Assert.assertEquals(unfinished, 0L, "存在未在 " + MAX_WAIT_MILLIS / 1000 + "s 内完成落库的定时任务");
+    }
+
+    @Step("轮询全部分表落库进度")
+    private void pollUntilCompleted(List<ScheduledTask> tasks, long sendAtMillis) throws InterruptedException {
+        long deadline = sendAtMillis + MAX_WAIT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            boolean allDone = true;
+            for (ScheduledTask task : tasks) {
+                if (task.curve.isCompleted()) {
+                    continue;
+                }
+                try {
+                    long rows = shardRowCounter.countTotal(Long.valueOf(task.templateId));
+                    task.curve.sample(System.currentTimeMillis(), rows);
+                } catch (IllegalStateException e) {
+                    // 有分表查询失败时跳过这一轮，不把少数的行数记进进度曲线
+                    log.warn(">>> [定时分发] 采样失败: {}", e.getMessage());
+                }
+                allDone &= task.curve.isCompleted();
+            }
+            if (allDone) {
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    private String report(List<ScheduledTask> tasks) {
+        StringBuilder sb = new StringBuilder(String.format("%-22s %8s %14s %14s %12s%n",
+                "templateId", "rows", "firstRow(ms)", "lastRow(ms)", "rows/s"));
+        for (ScheduledTask task : tasks) {
+            ProgressCurve curve = task.curve;
+            sb.append(String.format("%-22s %8d %14d %14d %12.1f%n", task.templateId, curve.getExpectedRows(),
+                    curve.getFirstRowMillis(), curve.getCompletedMillis(), curve.averageRowsPerSecond()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 至少留出 MIN_LEAD_SECONDS 后对齐到下一个整分钟，模拟 "整点开抢"
+     */
+    private Date alignedSendTime() {
+        long earliest = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(MIN_LEAD_SECONDS);
+        long minute = TimeUnit.MINUTES.toMillis(1);
+        return new Date((earliest / minute + 1) * minute);
+    }
+
+    private String createTemplate(int stock) {
+        CouponTemplateReq req = CouponTemplateReq.builder()
+                .name("定时分发测试券_" + RandomUtil.randomString(5))
+                .source(0).target(1).type(0)
+                .validStartTime(DateUtil.now())
+                .validEndTime(DateUtil.offsetDay(new Date(), 30).toString())
+                .stock(stock)
+                .receiveRule("{\"limitPerPerson\":1,\"usageInstructions\":\"Schedule Test\"}")
+                .consumeRule("{\"termsOfUse\":10,\"maximumDiscountAmount\":5,\"validityPeriod\":48}")
+                .build();
+        Response response = merchantAdminApi.createCouponTemplate(req);
+        String templateId = response.jsonPath().getString("data");
+        Assert.assertNotNull(templateId, "模板创建失败: " + response.asString());
+        return templateId;
+    }
+
+    private void submitScheduledTask(String templateId, String filePath, String sendTime) {
+        CouponTaskReq req = CouponTaskReq.builder()
+                .taskName("定时分发-Task-" + templateId)
+                .fileAddress(filePath)
+                .couponTemplateId(templateId)
+                .sendType(1) // 1-定时发送
+                .sendTime(sendTime)
+                .build();
+        Response response = merchantAdminApi.createCouponTask(req);
+        Assert.assertEquals(response.getStatusCode(), 200, "分发任务接口调用失败");
+        Assert.assertTrue(JSON.parseObject(response.asString()).getBoolean("success"), "分发任务业务失败: " + response.asString());
+    }
+
+    private record ScheduledTask(String templateId, ProgressCurve curve) {
+    }
+}
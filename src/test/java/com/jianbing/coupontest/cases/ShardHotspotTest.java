@@ -0,0 +1,121 @@
+package com.jianbing.coupontest.cases;
+
+import com.jianbing.coupontest.component.ShardHeatmapSampler;
+import com.jianbing.coupontest.component.ShardRowCounter;
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import com.jianbing.coupontest.load.LoadReport;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.load.RedeemScenario;
+import com.jianbing.coupontest.load.ShardHeatmap;
+import com.jianbing.coupontest.utils.ShardDistribution;
+import com.jianbing.coupontest.utils.ShardingUtil;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分表写入热点
+ * 按指定的分表分布构造用户并发起 MQ 抢券，压测与落库期间定时采样各分表行数，
+ * 输出 分表 × 时间 的写入热力图与不均衡指标 (max/mean、Gini)，
+ * 并校验每张表的最终行数与按 hash-mod 路由推算的结果完全一致
+ */
+@Slf4j
+@Epic("全链路压测")
+@Feature("分表写入热点")
+public class ShardHotspotTest extends BaseTest {
+
+    @Autowired
+    private EnvConfig envConfig;
+    @Autowired
+    private ShardHeatmapSampler shardHeatmapSampler;
+    @Autowired
+    private ShardRowCounter shardRowCounter;
+
+    // 【配置区域】用户数 (库存与之相同，人人可领)、线程数、目标分布、采样间隔
+    private static final int USERS = Integer.getInteger("shard.users", 6400);
+    private static final int THREADS = Integer.getInteger("shard.threads", 100);
+    private static final String DISTRIBUTION = System.getProperty("shard.distribution", "natural");
+    private static final long SAMPLE_INTERVAL_MILLIS = Long.getLong("shard.sampleIntervalMs", 1000L);
+    /**
+     * natural / uniform 分布下累计写入允许的最大 Gini 系数
+     */
+    private static final double MAX_EVEN_GINI = Double.parseDouble(System.getProperty("shard.maxGini", "0.1"));
+    private static final long FILL_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(3);
+    private static final int HEATMAP_COLUMNS = 100;
+
+    @Test(groups = PERFORMANCE, description = "按目标分布抢券，采样分表写入热力图，最终各表行数与路由推算一致，均匀分布下 Gini 不超过阈值")
+    @Story("分表写入热力图与不均衡指标")
+    @Severity(SeverityLevel.NORMAL)
+    public void testShardWriteHeatmap() throws InterruptedException {
+        ShardDistribution distribution = ShardDistribution.parse(DISTRIBUTION);
+        List<String> userIds = distribution.userIds(namespace, USERS);
+        String templateId = createTemplate("分表热点券", USERS);
+
+        RedeemScenario scenario = new RedeemScenario(envConfig.getEngineUrl(), templateId, SHOP_NUMBER,
+                HttpSampler.withTimeoutMillis(envConfig.getTimeout()));
+        Set<String> successUserIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger cursor = new AtomicInteger();
+        ShardHeatmap heatmap;
+        try (ShardHeatmapSampler.Session session = shardHeatmapSampler.start(templateId, SAMPLE_INTERVAL_MILLIS)) {
+            LoadMetrics metrics = new LoadEngine(LoadPlan.builder()
+                    .name("分表热点-" + distribution)
+                    .threads(THREADS)
+                    .loops(-1)
+                    .build())
+                    .run((threadIndex, iteration) -> {
+                        int index = cursor.getAndIncrement();
+                        if (index >= userIds.size()) {
+                            return null;
+                        }
+                        Outcome outcome = scenario.redeem(userIds.get(index));
+                        if (outcome.isSuccess()) {
+                            successUserIds.add(userIds.get(index));
+                        }
+                        return outcome;
+                    });
+            LoadReport.attach(metrics);
+
+            // 继续采样直到 MQ 消费追平
+            long deadline = System.currentTimeMillis() + FILL_TIMEOUT_MILLIS;
+            while (Arrays.stream(session.getHeatmap().latest()).sum() < successUserIds.size()
+                    && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(SAMPLE_INTERVAL_MILLIS);
+            }
+            heatmap = session.stop();
+        }
+
+        String text = heatmap.toText(HEATMAP_COLUMNS);
+        String summary = "目标分布: " + distribution + System.lineSeparator() + heatmap.summary();
+        log.info(">>> [分表热点] {}\n{}", summary, text);
+        Allure.addAttachment("分表热力图", "text/plain", text, ".txt");
+        Allure.addAttachment("分表写入速率", "text/csv", heatmap.toCsv(), ".csv");
+        Allure.addAttachment("分表不均衡指标", "text/plain", summary, ".txt");
+
+        // 1. 各表最终行数 = 成功用户按 hash-mod 路由推算的结果 (采样可能漏掉最后一批，这里重新统计一次)
+        long[] expected = new long[ShardingUtil.SHARDING_COUNT];
+        successUserIds.forEach(uid -> expected[ShardingUtil.tableIndexOf(Long.parseLong(uid))]++);
+        long[] actual = shardRowCounter.countPerTable(Long.valueOf(templateId));
+        Assert.assertEquals(actual, expected, "分表实际行数与路由推算不一致，后端分片算法可能与 ShardingUtil 不同");
+
+        // 2. 自然 / 均匀分布下写入应均匀
+        ShardHeatmap.Imbalance imbalance = ShardHeatmap.imbalance(actual);
+        Assert.assertNotNull(imbalance, "落库行数过少，无法计算不均衡指标");
+        if (distribution.isNatural() || "uniform".equals(distribution.toString())) {
+            Assert.assertTrue(imbalance.gini() <= MAX_EVEN_GINI, String.format("%s 分布下分表写入不均衡: Gini=%.3f > %.3f",
+                    distribution, imbalance.gini(), MAX_EVEN_GINI));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.jianbing.coupontest.cases;
+
+import com.jianbing.coupontest.component.LiveMetrics;
+import com.jianbing.coupontest.config.EngineRedisKeys;
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.dao.UserCouponShardDao;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import com.jianbing.coupontest.load.LoadReport;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.load.RedeemScenario;
+import com.jianbing.coupontest.load.soak.SoakMonitor;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 长时间稳定性压测 (Soak)
+ * 以固定速率持续抢券数小时，内存占用与时长无关：不保存响应与成功用户，
+ * 延迟按检查点区间统计，一致性按蓄水池抽样校验，检查点持续落盘。
+ * 常规 mvn test 中跳过，需显式开启：-Dsoak.enabled=true (默认跑 10 分钟)，
+ * 8 小时泄漏 / 退化测试：-Dsoak.enabled=true -Dsoak.minutes=480
+ */
+@Slf4j
+@Epic("全链路压测")
+@Feature("长时间稳定性压测")
+public class SoakTest extends BaseTest {
+
+    @Autowired
+    private EnvConfig envConfig;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private UserCouponShardDao userCouponShardDao;
+    @Autowired
+    private LiveMetrics liveMetrics;
+
+    // 【配置区域】是否执行、持续时间、发压线程数、目标速率、检查点间隔、每区间抽查样本数、允许的 p99 退化幅度
+    private static final boolean ENABLED = Boolean.getBoolean("soak.enabled");
+    private static final int MINUTES = Integer.getInteger("soak.minutes", 10);
+    private static final int THREADS = Integer.getInteger("soak.threads", 20);
+    private static final double TARGET_RATE = Double.parseDouble(System.getProperty("soak.rate", "50"));
+    private static final int CHECKPOINT_SECONDS = Integer.getInteger("soak.checkpointSeconds", 60);
+    private static final int SAMPLES_PER_INTERVAL = Integer.getInteger("soak.samples", 200);
+    private static final double MAX_P99_RISE_PERCENT = Double.parseDouble(System.getProperty("soak.maxP99RisePercent", "50"));
+
+    private static final Path CHECKPOINT_DIR = Path.of("target", "soak");
+
+    @Test(groups = PERFORMANCE, description = "固定速率长时间抢券，检查点区间延迟无持续退化且抽样用户全部落库")
+    @Story("泄漏与退化检测")
+    @Severity(SeverityLevel.NORMAL)
+    public void testSoakRedeem() throws InterruptedException, IOException {
+        if (!ENABLED) {
+            throw new SkipException("稳定性压测耗时 " + MINUTES + " 分钟，默认跳过，使用 -Dsoak.enabled=true 开启");
+        }
+        long durationSeconds = MINUTES * 60L;
+        // 库存覆盖全程，避免后半段全部变成"库存不足"
+        int stock = (int) Math.min(Integer.MAX_VALUE, (long) (TARGET_RATE * durationSeconds * 1.1) + 1000);
+        String templateId = createTemplate("稳定性压测券", stock);
+
+        RedeemScenario scenario = new RedeemScenario(envConfig.getEngineUrl(), templateId, SHOP_NUMBER,
+                HttpSampler.withTimeoutMillis(envConfig.getTimeout()));
+        LoadEngine engine = new LoadEngine(LoadPlan.builder()
+                .name("稳定性压测")
+                .threads(THREADS)
+                .loops(-1)
+                .durationSeconds(durationSeconds)
+                .warmupSeconds(Math.min(60, (int) durationSeconds / 10))
+                .targetRate(TARGET_RATE)
+                .build());
+
+        Path file = CHECKPOINT_DIR.resolve("soak-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jsonl");
+        Long template = Long.valueOf(templateId);
+        SoakMonitor monitor = new SoakMonitor("稳定性压测", engine::getActiveMetrics, file, CHECKPOINT_SECONDS,
+                SAMPLES_PER_INTERVAL, userId -> hasLimitKey(userId, templateId)
+                && !userCouponShardDao.findByUser(Long.valueOf(userId), template).isEmpty());
+        String stockKey = String.format(EngineRedisKeys.TEMPLATE_STOCK, templateId);
+        monitor.gauge("redisStock", () -> Double.parseDouble(stringRedisTemplate.opsForValue().get(stockKey)));
+        liveMetrics.watch(engine);
+
+        LoadMetrics metrics;
+        monitor.start();
+        try {
+            metrics = engine.run((threadIndex, iteration) -> {
+                String userId = namespace.userId();
+                Outcome outcome = scenario.redeem(userId);
+                if (outcome.isSuccess()) {
+                    monitor.offerSample(userId);
+                }
+                return outcome;
+            });
+        } finally {
+            monitor.close();
+            liveMetrics.unwatch();
+        }
+        LoadReport.attach(metrics);
+        String summary = monitor.describe();
+        log.info(">>> [稳定性压测] \n{}", summary);
+        Allure.addAttachment("稳定性压测趋势", "text/plain", summary, ".txt");
+        if (Files.exists(file)) {
+            Allure.addAttachment("稳定性压测检查点", "application/json", Files.readString(file), ".jsonl");
+        }
+
+        Assert.assertTrue(monitor.getTotalSampled() > 0, "没有抽到任何成功样本");
+        Assert.assertEquals(monitor.getTotalMissing(), 0, "抽样用户缺失 limit Key 或分表记录");
+        Assert.assertTrue(monitor.p99RisePercent() <= MAX_P99_RISE_PERCENT,
+                String.format("p99 持续退化 %.1f%% > %.1f%%", monitor.p99RisePercent(), MAX_P99_RISE_PERCENT));
+    }
+}
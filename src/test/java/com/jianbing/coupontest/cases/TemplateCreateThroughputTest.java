@@ -0,0 +1,163 @@
+package com.jianbing.coupontest.cases;
+
+import cn.hutool.core.date.DateUtil;
+import com.jianbing.coupontest.component.TestDataRegistry;
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LatencyHistogram;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import com.jianbing.coupontest.load.LoadReport;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.load.OutcomeCategory;
+import com.jianbing.coupontest.load.TemplateCreateScenario;
+import com.jianbing.coupontest.load.TemplateVisibilityProbe;
+import com.jianbing.coupontest.req.CouponTemplateReq;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * 商家创建模板写链路吞吐基准
+ * 大促前会批量创建成千上万个模板，每次创建都要落库、写布隆过滤器并预热缓存。
+ * 按递增的并发度各创建一批内容互不相同的模板，输出创建吞吐 / 延迟随并发的变化，
+ * 同时在独立线程池中探测每个新模板多久之后能通过引擎查询接口查到
+ */
+@Slf4j
+@Epic("全链路压测")
+@Feature("商家创建模板写链路")
+public class TemplateCreateThroughputTest extends BaseTest {
+
+    @Autowired
+    private EnvConfig envConfig;
+    @Autowired
+    private TestDataRegistry testDataRegistry;
+
+    // 【配置区域】并发度梯度、每档创建数量、可见性探测间隔 / 超时 / 线程数
+    private static final int[] CONCURRENCY = Arrays.stream(System.getProperty("template.concurrency", "1,4,16,64")
+            .split(",")).mapToInt(level -> Integer.parseInt(level.trim())).toArray();
+    private static final int PER_LEVEL = Integer.getInteger("template.perLevel", 200);
+    private static final long POLL_INTERVAL_MILLIS = Long.getLong("template.pollIntervalMs", 20L);
+    private static final long VISIBLE_TIMEOUT_MILLIS = Long.getLong("template.visibleTimeoutMs", 10_000L);
+    private static final int PROBE_THREADS = Integer.getInteger("template.probeThreads", 16);
+
+    @Test(groups = PERFORMANCE, description = "并发度递增地批量创建模板，输出创建吞吐/延迟曲线，且每个新模板都能在超时内被引擎查到")
+    @Story("创建吞吐与可见延迟")
+    @Severity(SeverityLevel.NORMAL)
+    public void testTemplateCreateThroughput() throws InterruptedException {
+        HttpSampler sampler = HttpSampler.withTimeoutMillis(envConfig.getTimeout());
+        TemplateCreateScenario scenario = new TemplateCreateScenario(envConfig.getMerchantUrl(), envConfig.getEngineUrl(),
+                SHOP_NUMBER, sampler);
+
+        List<LevelResult> results = new ArrayList<>(CONCURRENCY.length);
+        for (int concurrency : CONCURRENCY) {
+            results.add(runLevel(scenario, concurrency));
+        }
+
+        StringBuilder report = new StringBuilder(String.format("%12s %8s %10s %10s %10s %8s %12s %12s %12s %10s%n",
+                "concurrency", "created", "req/s", "p50(ms)", "p99(ms)", "errors",
+                "visP50(ms)", "visP99(ms)", "visMax(ms)", "invisible"));
+        for (LevelResult result : results) {
+            LoadMetrics create = result.create;
+            LatencyHistogram visible = result.probe.getVisibleAfter();
+            report.append(String.format("%12d %8d %10.1f %10.2f %10.2f %8d %12.1f %12.1f %12.1f %10d%n",
+                    result.concurrency, create.getOutcomes().count(OutcomeCategory.SUCCESS), create.getThroughput(),
+                    create.getLatency().percentileMillis(50), create.getLatency().percentileMillis(99),
+                    create.getLatency().getCount() - create.getOutcomes().count(OutcomeCategory.SUCCESS),
+                    visible.percentileMillis(50), visible.percentileMillis(99), visible.getMaxMicros() / 1000.0,
+                    result.probe.getInvisible()));
+        }
+        log.info(">>> [模板创建] 汇总 (可见延迟精度 {}ms)：\n{}", POLL_INTERVAL_MILLIS, report);
+        Allure.addAttachment("模板创建吞吐汇总", "text/plain", report.toString(), ".txt");
+
+        for (LevelResult result : results) {
+            long created = result.create.getOutcomes().count(OutcomeCategory.SUCCESS);
+            Assert.assertEquals(created, PER_LEVEL, "并发 " + result.concurrency + " 时部分模板创建失败:\n"
+                    + result.create.getOutcomes().toTable());
+            Assert.assertEquals(result.probe.getInvisible(), 0,
+                    "并发 " + result.concurrency + " 时有模板 " + VISIBLE_TIMEOUT_MILLIS + "ms 后仍无法查询");
+            Assert.assertEquals(result.probe.getVisibleAfter().getCount(), created,
+                    "并发 " + result.concurrency + " 时可见性探测未覆盖全部新模板");
+        }
+    }
+
+    @Step("并发度: {concurrency}")
+    private LevelResult runLevel(TemplateCreateScenario scenario, int concurrency) throws InterruptedException {
+        String name = "模板创建-c" + concurrency;
+        AtomicInteger cursor = new AtomicInteger();
+        Queue<String> created = new ConcurrentLinkedQueue<>();
+        try (TemplateVisibilityProbe probe = new TemplateVisibilityProbe(name, scenario, PROBE_THREADS,
+                POLL_INTERVAL_MILLIS, VISIBLE_TIMEOUT_MILLIS)) {
+            LoadMetrics create = new LoadEngine(LoadPlan.builder()
+                    .name(name)
+                    .threads(concurrency)
+                    .loops(-1)
+                    .build())
+                    .run((threadIndex, iteration) -> {
+                        if (cursor.getAndIncrement() >= PER_LEVEL) {
+                            return null;
+                        }
+                        Outcome outcome = scenario.create(distinctTemplate());
+                        // 可见性计时从创建返回的那一刻开始；登记清理要写文件，放到本档结束后批量进行，不计入创建耗时
+                        long createdAt = System.nanoTime();
+                        String templateId = TemplateCreateScenario.templateId(outcome);
+                        if (templateId != null) {
+                            probe.track(templateId, createdAt);
+                            created.add(templateId);
+                        }
+                        return outcome;
+                    });
+            testDataRegistry.registerTemplates(created);
+            if (!probe.awaitIdle(VISIBLE_TIMEOUT_MILLIS * 2)) {
+                log.warn(">>> [模板创建] {} 仍有 {} 个模板在探测中", name, probe.getPending());
+            }
+            LoadReport.attach(create);
+            LoadReport.attach(probe.getPolls());
+            log.info(">>> [模板创建] {} 可见延迟: {}, 查询时尚不可见 {} 次", name, probe.getVisibleAfter().toText(),
+                    probe.getNotYetVisible());
+            return new LevelResult(concurrency, create, probe);
+        }
+    }
+
+    /**
+     * 有效期从类实例化时起算，结束日在 30 ~ 45 天后随机；预先格式化，创建循环里不做日期运算
+     */
+    private final String validStart = DateUtil.now();
+    private final String[] validEnds = IntStream.range(30, 46)
+            .mapToObj(days -> DateUtil.offsetDay(new Date(), days).toString())
+            .toArray(String[]::new);
+
+    /**
+     * 名称、库存、有效期、优惠规则都不同，避免命中后端任何按内容去重或缓存的逻辑
+     */
+    private CouponTemplateReq distinctTemplate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int discount = random.nextInt(1, 50);
+        return CouponTemplateReq.builder()
+                .name(namespace.name("批量模板"))
+                .source(0).target(0).goods("批量创建-" + random.nextInt(1_000_000)).type(0)
+                .validStartTime(validStart)
+                .validEndTime(validEnds[random.nextInt(validEnds.length)])
+                .stock(random.nextInt(100, 10_000))
+                .receiveRule("{\"limitPerPerson\":" + random.nextInt(1, 4) + ",\"usageInstructions\":\"Bulk Create Test\"}")
+                .consumeRule("{\"termsOfUse\":" + (discount * 2) + ",\"maximumDiscountAmount\":" + discount
+                        + ",\"validityPeriod\":48}")
+                .build();
+    }
+
+    private record LevelResult(int concurrency, LoadMetrics create, TemplateVisibilityProbe probe) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.jianbing.coupontest.cases;
+
+import com.jianbing.coupontest.component.ShardRowCounter;
+import com.jianbing.coupontest.component.TestDataCleaner;
+import com.jianbing.coupontest.component.TestDataCleaner.CleanupResult;
+import com.jianbing.coupontest.component.TestDataRegistry;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 测试数据清理
+ * 清理历次运行登记文件 (.test-data/*.tags) 中的模板及其分表数据、Redis Key，使下一轮压测从干净的基线开始
+ */
+@Slf4j
+@Epic("测试基础设施")
+@Feature("测试数据批量清理")
+public class TestDataCleanupTest extends BaseTest {
+
+    @Autowired
+    private TestDataCleaner testDataCleaner;
+    @Autowired
+    private ShardRowCounter shardRowCounter;
+    @Autowired
+    private TestDataRegistry testDataRegistry;
+
+    @Test(description = "清理历次运行遗留的模板、用户券及 Redis Key")
+    @Story("分表并行批量删除 + Redis 批量 UNLINK")
+    public void testCleanAllTaggedData() {
+        Set<String> templateIds = new LinkedHashSet<>();
+        for (Path tagFile : testDataRegistry.previousTagFiles()) {
+            templateIds.addAll(TestDataRegistry.readTemplates(tagFile));
+        }
+        log.info(">>> [数据清理] 待清理模板 {} 个", templateIds.size());
+
+        CleanupResult result = testDataCleaner.cleanAllTagged();
+        Allure.addAttachment("清理结果", "text/plain", result.toString(), ".txt");
+
+        // 抽查前 5 个模板已无残留
+        templateIds.stream().limit(5).forEach(templateId ->
+                Assert.assertEquals(shardRowCounter.countTotal(Long.valueOf(templateId)), 0L, "模板 " + templateId + " 仍有用户券残留"));
+        Assert.assertTrue(result.getFailedTemplates().isEmpty(), "部分模板清理失败，已保留在登记文件中: " + result.getFailedTemplates());
+        Assert.assertTrue(testDataRegistry.previousTagFiles().isEmpty(), "登记文件未被删除");
+    }
+}
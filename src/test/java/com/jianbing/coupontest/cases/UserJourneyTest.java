@@ -0,0 +1,139 @@
+package com.jianbing.coupontest.cases;
+
+import com.jianbing.coupontest.config.EngineRedisKeys;
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import com.jianbing.coupontest.load.LoadReport;
+import com.jianbing.coupontest.load.Outcome;
+import com.jianbing.coupontest.load.journey.CouponJourney;
+import com.jianbing.coupontest.load.journey.JourneyPlan;
+import com.jianbing.coupontest.load.journey.ThinkTime;
+import com.jianbing.coupontest.load.replay.WorkloadLogWriter;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 多步骤用户会话压测
+ * 用户按泊松过程到达，每个会话：查看模板 -> 思考 -> MQ / Canal 领券 -> 思考 -> 查看券列表，
+ * 让模板缓存、Lua 扣库存、MQ 与 Canal 落库链路按真实比例同时承压
+ */
+@Slf4j
+@Epic("全链路压测")
+@Feature("用户会话混合场景")
+public class UserJourneyTest extends BaseTest {
+
+    @Autowired
+    private EnvConfig envConfig;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // 【配置区域】会话到达速率 (个/秒)、最大并发会话数、持续时间、行为配比与思考时间分布
+    private static final double SESSION_RATE = Double.parseDouble(System.getProperty("journey.rate", "50"));
+    private static final int MAX_SESSIONS = Integer.getInteger("journey.maxSessions", 300);
+    private static final int DURATION_SECONDS = Integer.getInteger("journey.seconds", 60);
+    private static final double BROWSE_ONLY_RATIO = Double.parseDouble(System.getProperty("journey.browseOnly", "0.2"));
+    private static final double CANAL_RATIO = Double.parseDouble(System.getProperty("journey.canal", "0.2"));
+    private static final String QUERY_THINK = System.getProperty("journey.queryThink", "uniform:500-2000");
+    private static final String REDEEM_THINK = System.getProperty("journey.redeemThink", "exp:1000");
+    /**
+     * 库存按预计领券会话数的比例设置，后段会话会走到"库存不足"分支
+     */
+    private static final double STOCK_RATIO = Double.parseDouble(System.getProperty("journey.stockRatio", "0.6"));
+    /**
+     * 设置后把会话中的查询 / 领券请求录制到该工作负载日志，可用 LoadLauncher --replay 重放
+     */
+    private static final String RECORD_FILE = System.getProperty("journey.record");
+
+    /**
+     * 压测结束后等待券列表最终可见的时间
+     */
+    private static final long LIST_CONVERGE_MILLIS = 30_000;
+
+    @Test(groups = PERFORMANCE, description = "查询 -> 领券 -> 查看列表的会话混合压测，不超卖且领到券的用户最终在列表中可见")
+    @Story("会话脚本与思考时间")
+    @Severity(SeverityLevel.CRITICAL)
+    public void testCouponJourneyMix() throws InterruptedException {
+        int stock = (int) Math.max(100, SESSION_RATE * DURATION_SECONDS * (1 - BROWSE_ONLY_RATIO) * STOCK_RATIO);
+        String templateId = createTemplate("会话混合券", stock);
+
+        JourneyPlan journeyPlan = JourneyPlan.builder()
+                .browseOnlyRatio(BROWSE_ONLY_RATIO)
+                .canalRatio(CANAL_RATIO)
+                .queryThink(ThinkTime.parse(QUERY_THINK))
+                .redeemThink(ThinkTime.parse(REDEEM_THINK))
+                .build();
+        log.info(">>> [会话压测] 到达速率 {}/s, 最大并发会话 {}, 库存 {}, {}", SESSION_RATE, MAX_SESSIONS, stock,
+                journeyPlan.describe());
+        WorkloadLogWriter workloadLog = RECORD_FILE == null ? null : new WorkloadLogWriter(Path.of(RECORD_FILE));
+        CouponJourney journey = new CouponJourney("券会话", envConfig.getEngineUrl(), templateId, SHOP_NUMBER,
+                HttpSampler.withTimeoutMillis(envConfig.getTimeout()), journeyPlan,
+                userId -> inCouponList(userId, templateId), workloadLog);
+
+        Set<String> redeemedUserIds = ConcurrentHashMap.newKeySet();
+        LoadMetrics sessions;
+        try {
+            sessions = new LoadEngine(LoadPlan.builder()
+                    .name("券会话")
+                    .threads(MAX_SESSIONS)
+                    .loops(-1)
+                    .durationSeconds(DURATION_SECONDS)
+                    .targetRate(SESSION_RATE)
+                    .poissonArrivals(true)
+                    .build())
+                    .run((threadIndex, iteration) -> {
+                        String userId = namespace.userId();
+                        Outcome outcome = journey.run(userId);
+                        if (outcome.isSuccess() && outcome.getEndpoint().endsWith("/redeemed")) {
+                            redeemedUserIds.add(userId);
+                        }
+                        return outcome;
+                    });
+        } finally {
+            if (workloadLog != null) {
+                workloadLog.close();
+                log.info(">>> [会话压测] 已录制 {} 个请求到 {}", workloadLog.getCount(), workloadLog.getFile());
+            }
+        }
+        LoadReport.attach(sessions);
+        LoadReport.attach(journey.getStepMetrics());
+        String exits = journey.describeExits();
+        log.info(">>> [会话压测] 会话去向:\n{}", exits);
+        Allure.addAttachment("会话去向", "text/plain", journeyPlan.describe() + System.lineSeparator() + exits, ".txt");
+
+        // 1. 不超卖，领到券的用户都有 limit Key
+        Assert.assertTrue(redeemedUserIds.size() <= stock, "超卖：成功 " + redeemedUserIds.size() + " > 库存 " + stock);
+        long missingLimit = redeemedUserIds.stream().filter(uid -> !hasLimitKey(uid, templateId)).count();
+        Assert.assertEquals(missingLimit, 0, "领券成功的用户缺失 limit Key");
+
+        // 2. 券列表最终可见 (会话内看不到的只统计为读己之写延迟)
+        Set<String> pending = new HashSet<>(redeemedUserIds);
+        long deadline = System.currentTimeMillis() + LIST_CONVERGE_MILLIS;
+        while (!pending.isEmpty() && System.currentTimeMillis() < deadline) {
+            pending.removeIf(uid -> inCouponList(uid, templateId));
+            if (!pending.isEmpty()) {
+                Thread.sleep(500);
+            }
+        }
+        Assert.assertTrue(pending.isEmpty(), pending.size() + " 个领券用户 " + LIST_CONVERGE_MILLIS + "ms 后券列表仍不可见");
+    }
+
+    /**
+     * 引擎没有券列表接口，直接读列表缓存 (ZSet，成员以模板ID开头)
+     */
+    private boolean inCouponList(String userId, String templateId) {
+        Set<String> members = stringRedisTemplate.opsForZSet().range(String.format(EngineRedisKeys.USER_TEMPLATE_LIST, userId), 0, -1);
+        return members != null && members.stream().anyMatch(member -> member.startsWith(templateId));
+    }
+}
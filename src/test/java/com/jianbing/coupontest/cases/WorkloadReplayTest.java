@@ -0,0 +1,145 @@
+package com.jianbing.coupontest.cases;
+
+import com.jianbing.coupontest.config.EnvConfig;
+import com.jianbing.coupontest.load.HttpSampler;
+import com.jianbing.coupontest.load.LoadEngine;
+import com.jianbing.coupontest.load.LoadMetrics;
+import com.jianbing.coupontest.load.LoadPlan;
+import com.jianbing.coupontest.load.LoadReport;
+import com.jianbing.coupontest.load.OutcomeCategory;
+import com.jianbing.coupontest.load.RedeemScenario;
+import com.jianbing.coupontest.load.replay.RecordedWorkload;
+import com.jianbing.coupontest.load.replay.WorkloadLogReader;
+import com.jianbing.coupontest.load.replay.WorkloadLogWriter;
+import com.jianbing.coupontest.load.replay.WorkloadRecord;
+import com.jianbing.coupontest.load.replay.WorkloadReplayer;
+import io.qameta.allure.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 工作负载录制与回放
+ * 先以泊松到达录制一段抢券突发 (含同一用户重复领取)，再把日志按原时间间隔重放到新模板上，
+ * 两次的请求数、成功数应一致；指定 -Dreplay.file 时跳过录制，直接重放已有日志 (例如线上形态的突发)
+ */
+@Slf4j
+@Epic("全链路压测")
+@Feature("工作负载录制与回放")
+public class WorkloadReplayTest extends BaseTest {
+
+    @Autowired
+    private EnvConfig envConfig;
+
+    // 【配置区域】录制速率与时长、用户池大小、库存、回放倍速与线程数、已有日志路径 (为空时先录制)
+    private static final double RECORD_RATE = Double.parseDouble(System.getProperty("replay.rate", "200"));
+    private static final int RECORD_SECONDS = Integer.getInteger("replay.seconds", 10);
+    private static final int USER_POOL = Integer.getInteger("replay.users", 1500);
+    /**
+     * 默认等于用户池：库存永远不会抢光，每个用户首次请求成功、之后都是领取上限，结果与线程调度顺序无关。
+     * 调小后最后几份库存归谁取决于时序，成功数 / 重复领取数只按 replay.tolerance 比例比较
+     */
+    private static final int STOCK = Integer.getInteger("replay.stock", USER_POOL);
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("replay.tolerance", "0.05"));
+    private static final double SPEED = Double.parseDouble(System.getProperty("replay.speed", "1"));
+    private static final int THREADS = Integer.getInteger("replay.threads", 100);
+    private static final String REPLAY_FILE = System.getProperty("replay.file", "");
+    /**
+     * 回放调度滞后 p99 上限，超过说明回放线程不足，结果与录制不可比
+     */
+    private static final double MAX_LAG_P99_MILLIS = Double.parseDouble(System.getProperty("replay.maxLagMillis", "50"));
+
+    private static final Path RECORD_DIR = Path.of("target", "workload");
+
+    @Test(groups = PERFORMANCE, description = "录制一段泊松突发后按原节奏重放到新模板，请求数与成功数一致且不超卖")
+    @Story("录制与原速重放")
+    @Severity(SeverityLevel.NORMAL)
+    public void testRecordAndReplay() throws InterruptedException {
+        HttpSampler sampler = HttpSampler.withTimeoutMillis(envConfig.getTimeout());
+        LoadMetrics recorded = null;
+        Path file;
+        if (REPLAY_FILE.isEmpty()) {
+            file = RECORD_DIR.resolve(namespace.getName() + "-" + System.currentTimeMillis() + ".wlog");
+            recorded = record(file, sampler);
+        } else {
+            file = Path.of(REPLAY_FILE);
+        }
+
+        RecordedWorkload workload = WorkloadLogReader.read(file);
+        log.info(">>> [负载回放] {}", workload.describe());
+        Allure.addAttachment("工作负载", "text/plain", workload.describe(), ".txt");
+        if (recorded != null) {
+            Assert.assertEquals(workload.getRecords().size(), recorded.getLatency().getCount(), "日志条数与录制时发出的请求数不一致");
+        }
+
+        // 新模板 + 新用户：同一原始用户始终映射到同一个新用户，保持重复领取关系
+        // 与录制对比时沿用同一库存；回放外部日志时库存至少覆盖其中全部用户，避免抢光后的结果依赖时序
+        int stock = recorded != null ? STOCK
+                : Math.max(STOCK, (int) workload.getRecords().stream().map(WorkloadRecord::userId).distinct().count());
+        String templateId = createTemplate("回放券", stock);
+        Map<String, String> userMapping = new ConcurrentHashMap<>();
+        WorkloadReplayer replayer = new WorkloadReplayer(envConfig.getEngineUrl(), SHOP_NUMBER, sampler,
+                recordedTemplate -> templateId, recordedUser -> userMapping.computeIfAbsent(recordedUser, u -> namespace.userId()));
+        LoadMetrics replayed = replayer.replay("回放", workload, SPEED, THREADS);
+        LoadReport.attach(replayed);
+
+        long success = replayed.getOutcomes().count(OutcomeCategory.SUCCESS);
+        double lagP99 = replayer.getScheduleLag().percentileMillis(99);
+        log.info(">>> [负载回放] 回放 {} 个请求，成功 {}，调度滞后 p99={}ms", replayed.getLatency().getCount(), success, lagP99);
+        Assert.assertEquals(replayed.getLatency().getCount(), workload.getRecords().size(), "回放请求数与日志条数不一致");
+        Assert.assertEquals(replayer.getSuccessUserIds().size(), (int) success, "成功用户去重后数量与成功计数不一致");
+        Assert.assertTrue(success <= stock, "超卖：成功 " + success + " > 库存 " + stock);
+        Assert.assertTrue(lagP99 <= MAX_LAG_P99_MILLIS,
+                "回放调度滞后 p99=" + lagP99 + "ms 超过 " + MAX_LAG_P99_MILLIS + "ms，请增加 replay.threads");
+        if (recorded != null) {
+            assertReplayMatches(success, recorded.getOutcomes().count(OutcomeCategory.SUCCESS), "成功数");
+            assertReplayMatches(replayed.getOutcomes().count(OutcomeCategory.USER_LIMIT),
+                    recorded.getOutcomes().count(OutcomeCategory.USER_LIMIT), "重复领取数");
+        }
+    }
+
+    /**
+     * 库存覆盖全部用户时结果与顺序无关，要求完全一致；库存不足时只要求在容差内
+     */
+    private void assertReplayMatches(long replayed, long recorded, String what) {
+        if (STOCK >= USER_POOL) {
+            Assert.assertEquals(replayed, recorded, "回放" + what + "与录制时不一致");
+            return;
+        }
+        long allowed = Math.max(1, Math.round(recorded * TOLERANCE));
+        Assert.assertTrue(Math.abs(replayed - recorded) <= allowed, String.format("回放%s %d 与录制时 %d 相差超过 %d (replay.tolerance=%.2f)",
+                what, replayed, recorded, allowed, TOLERANCE));
+    }
+
+    /**
+     * 从固定用户池中随机取用户，部分用户会重复领取
+     */
+    private LoadMetrics record(Path file, HttpSampler sampler) throws InterruptedException {
+        String templateId = createTemplate("录制券", STOCK);
+        String[] users = new String[USER_POOL];
+        for (int i = 0; i < USER_POOL; i++) {
+            users[i] = namespace.userId();
+        }
+        try (WorkloadLogWriter writer = new WorkloadLogWriter(file)) {
+            RedeemScenario scenario = new RedeemScenario(envConfig.getEngineUrl(), templateId, SHOP_NUMBER, sampler, writer);
+            LoadMetrics metrics = new LoadEngine(LoadPlan.builder()
+                    .name("录制")
+                    .threads(THREADS)
+                    .loops(-1)
+                    .durationSeconds(RECORD_SECONDS)
+                    .targetRate(RECORD_RATE)
+                    .poissonArrivals(true)
+                    .build())
+                    .run((threadIndex, iteration) -> scenario.redeem(users[ThreadLocalRandom.current().nextInt(USER_POOL)]));
+            LoadReport.attach(metrics);
+            log.info(">>> [负载回放] 录制 {} 个请求到 {}", writer.getCount(), file);
+            return metrics;
+        }
+    }
+}